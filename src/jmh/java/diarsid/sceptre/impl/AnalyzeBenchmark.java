@@ -0,0 +1,93 @@
+package diarsid.sceptre.impl;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import diarsid.sceptre.api.Analyze;
+import diarsid.sceptre.api.model.Output;
+
+/*
+ * Whole Analyze pipeline through public API. For processStrings one operation weights the whole corpus,
+ * so gc.alloc.rate.norm divided by size is allocation per variant.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AnalyzeBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class AnalyzeState {
+
+        Analyze analyze;
+
+        @Setup
+        public void setUp() {
+            this.analyze = Analyze.Builder.newInstance().build();
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class Corpus {
+
+        @Param({"1000", "10000", "100000"})
+        int size;
+
+        @Param({"PATHS", "PHRASES"})
+        SyntheticCorpus corpus;
+
+        @Param({"jvsrc", "tolknbook"})
+        String pattern;
+
+        List<String> strings;
+
+        @Setup
+        public void setUp() {
+            this.strings = this.corpus.generate(this.size);
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class Pair {
+
+        @Param({
+                "jvsrc:dev/projects/Sceptre/src/main/java/AnalyzeImpl.java",
+                "tolknbook:Books/Tolkien/Lord of the Rings/The Hobbit.pdf",
+                "engns:Engines"})
+        String pair;
+
+        String pattern;
+        String variant;
+
+        @Setup
+        public void setUp() {
+            int separator = this.pair.indexOf(':');
+            this.pattern = this.pair.substring(0, separator);
+            this.variant = this.pair.substring(separator + 1);
+        }
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public float process(AnalyzeState state, Pair pair) {
+        return state.analyze.process(pair.pattern, pair.variant);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public List<Output> processStrings(AnalyzeState state, Corpus corpus) {
+        return state.analyze.processStrings(corpus.pattern, corpus.strings);
+    }
+}
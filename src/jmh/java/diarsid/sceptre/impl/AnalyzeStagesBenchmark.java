@@ -0,0 +1,160 @@
+package diarsid.sceptre.impl;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import diarsid.sceptre.impl.logs.Logging;
+import diarsid.support.objects.GuardedPool;
+import diarsid.support.objects.Pools;
+
+/*
+ * Stages of AnalyzeUnit pipeline, measured per variant. Stages cannot be repeated on the same unit
+ * without clearing it, so each upTo* benchmark runs the pipeline from set() to the named stage
+ * and cost of a stage is the difference with the previous benchmark. Placing bonus calculation
+ * does not change unit state and is measured in isolation on units prepared in advance.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@OperationsPerInvocation(AnalyzeStagesBenchmark.VARIANTS)
+public class AnalyzeStagesBenchmark {
+
+    static final int VARIANTS = 256;
+
+    @Param({"PATHS", "PHRASES"})
+    SyntheticCorpus corpus;
+
+    @Param({"jvsrc", "tolknbook"})
+    String pattern;
+
+    private GuardedPool<Cluster> clusterPool;
+    private GuardedPool<WordInInput> wordPool;
+    private GuardedPool<WordsInInput.WordsInRange> wordsInRangePool;
+    private GuardedPool<Step2LoopCandidatePosition> candidatePositionsPool;
+    private Logging log;
+
+    private PreparedPatternImpl preparedPattern;
+    private String[] variants;
+    private AnalyzeUnit unit;
+    private AnalyzeUnit[] clusteredUnits;
+
+    @Setup
+    public void setUp() {
+        AnalyzeBuilder builder = new AnalyzeBuilder();
+        builder.build();
+        Pools pools = builder.pools;
+
+        this.log = new Logging(builder);
+        this.clusterPool = pools.createPool(Cluster.class, () -> new Cluster(this.log));
+        this.wordPool = pools.createPool(WordInInput.class, () -> new WordInInput());
+        this.wordsInRangePool = pools.createPool(WordsInInput.WordsInRange.class, () -> new WordsInInput.WordsInRange());
+        this.candidatePositionsPool = pools.createPool(Step2LoopCandidatePosition.class, () -> new Step2LoopCandidatePosition());
+
+        this.preparedPattern = new PreparedPatternImpl(this.pattern);
+        this.variants = this.corpus.generate(VARIANTS).toArray(new String[0]);
+        this.unit = this.newAnalyzeUnit();
+
+        List<String> candidates = this.corpus.generate(VARIANTS * 100);
+        this.clusteredUnits = new AnalyzeUnit[VARIANTS];
+        int clustered = 0;
+        AnalyzeUnit clusteredUnit = this.newAnalyzeUnit();
+        for ( int i = 0; i < candidates.size() && clustered < VARIANTS; i++ ) {
+            this.upToPositionsClusters(clusteredUnit, candidates.get(i));
+            if ( clusteredUnit.positionsAnalyze.clusters.quantity() > 0 ) {
+                this.clusteredUnits[clustered] = clusteredUnit;
+                clustered++;
+                clusteredUnit = this.newAnalyzeUnit();
+            }
+            else {
+                clusteredUnit.clearForReuse();
+            }
+        }
+
+        if ( clustered < VARIANTS ) {
+            throw new IllegalStateException("Not enough variants with clusters for pattern " + this.pattern);
+        }
+    }
+
+    private AnalyzeUnit newAnalyzeUnit() {
+        return new AnalyzeUnit(
+                this.log, this.clusterPool, this.wordPool, this.wordsInRangePool, this.candidatePositionsPool);
+    }
+
+    private void upToWordsAndSeparators(AnalyzeUnit unit, String variant) {
+        unit.set(this.preparedPattern, variant);
+        unit.checkIfVariantTextContainsPatternDirectly();
+        unit.findWordsAndPathAndTextSeparators();
+    }
+
+    private void upToPatternCharsPositions(AnalyzeUnit unit, String variant) {
+        this.upToWordsAndSeparators(unit, variant);
+        unit.setPositions();
+        unit.findPatternCharsPositions();
+    }
+
+    private void upToPositionsClusters(AnalyzeUnit unit, String variant) {
+        this.upToPatternCharsPositions(unit, variant);
+        unit.sortPositions();
+        unit.findPositionsClusters();
+    }
+
+    @Benchmark
+    public void set(Blackhole blackhole) {
+        for ( String variant : this.variants ) {
+            this.unit.set(this.preparedPattern, variant);
+            blackhole.consume(this.unit.variantEqualsToPattern);
+            this.unit.clearForReuse();
+        }
+    }
+
+    @Benchmark
+    public void upToWordsAndSeparators(Blackhole blackhole) {
+        for ( String variant : this.variants ) {
+            this.upToWordsAndSeparators(this.unit, variant);
+            blackhole.consume(this.unit.variantSeparators.size());
+            this.unit.clearForReuse();
+        }
+    }
+
+    @Benchmark
+    public void upToPatternCharsPositions(Blackhole blackhole) {
+        for ( String variant : this.variants ) {
+            this.upToPatternCharsPositions(this.unit, variant);
+            blackhole.consume(this.unit.positionsAnalyze.positions.size());
+            this.unit.clearForReuse();
+        }
+    }
+
+    @Benchmark
+    public void upToPositionsClusters(Blackhole blackhole) {
+        for ( String variant : this.variants ) {
+            this.upToPositionsClusters(this.unit, variant);
+            blackhole.consume(this.unit.positionsAnalyze.missed);
+            this.unit.clearForReuse();
+        }
+    }
+
+    @Benchmark
+    public void placingBonus(Blackhole blackhole) {
+        for ( AnalyzeUnit clusteredUnit : this.clusteredUnits ) {
+            blackhole.consume(clusteredUnit.positionsAnalyze.clusters.calculatePlacingBonus());
+        }
+    }
+}
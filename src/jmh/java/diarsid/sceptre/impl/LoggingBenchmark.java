@@ -0,0 +1,88 @@
+package diarsid.sceptre.impl;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import diarsid.sceptre.api.LogType;
+import diarsid.sceptre.impl.logs.Logging;
+
+import static diarsid.sceptre.api.LogType.BASE;
+import static diarsid.sceptre.api.LogType.POSITIONS_CLUSTERS;
+import static diarsid.sceptre.api.LogType.POSITIONS_SEARCH;
+
+/*
+ * Trace events of one variant, as they are added during analyze. With logging disabled, run with
+ * -prof gc is expected to show gc.alloc.rate.norm of 0 B/op: primitive arguments are not boxed
+ * and no event is recorded. With logging enabled events are formatted when drained to sink.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@OperationsPerInvocation(LoggingBenchmark.VARIANTS)
+public class LoggingBenchmark {
+
+    static final int VARIANTS = 256;
+
+    @Param({"false", "true"})
+    boolean enabled;
+
+    private Logging log;
+    private String[] variants;
+    private long consumedLength;
+
+    @Setup
+    public void setUp() {
+        AnalyzeBuilder builder = new AnalyzeBuilder();
+        builder.withLogEnabled(this.enabled);
+        builder.withLogSink(line -> this.consumedLength = this.consumedLength + line.length());
+        for ( LogType type : LogType.values() ) {
+            builder.withLogTypeEnabled(type, this.enabled);
+        }
+        builder.build();
+
+        this.log = new Logging(builder);
+        this.variants = SyntheticCorpus.PATHS.generate(VARIANTS).toArray(new String[0]);
+    }
+
+    @Benchmark
+    public long traceEvents() {
+        String variant;
+        char c;
+        int length;
+        float weight;
+        for ( int i = 0; i < VARIANTS; i++ ) {
+            variant = this.variants[i];
+            length = variant.length();
+            this.log.begins();
+            this.log.add(BASE, "");
+            this.log.add(BASE, "===== ANALYZE : %s ( %s ) ======", "jvsrc", variant);
+            for ( int position = 0; position < length; position++ ) {
+                c = variant.charAt(position);
+                this.log.add(POSITIONS_SEARCH, "  [SAVE] %s : %s", c, position);
+                this.log.add(POSITIONS_SEARCH, "       [word-char] '%s'[variant:%s] of word '%s'", c, position, variant);
+                this.log.add(POSITIONS_CLUSTERS, "    [cluster position] %s %s %s", position, length, position - length);
+            }
+            weight = length * -1.5f;
+            this.log.add(BASE, "  weight on step 1: %s (positions: %s) ", weight, weight / 2);
+            this.log.add(BASE, "    %1$-25s %2$s", "clusters", length / 4);
+            this.log.finished();
+        }
+
+        return this.consumedLength;
+    }
+}
@@ -0,0 +1,67 @@
+package diarsid.sceptre.impl;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import diarsid.sceptre.api.Analyze;
+import diarsid.sceptre.api.PoolingStrategy;
+import diarsid.sceptre.api.model.Output;
+
+/*
+ * Many threads calling the same Analyze instance with short inputs lists, so that analyze units,
+ * clusters and words are taken from pools and given back all the time. Compare throughput of pooling
+ * strategies with different -t, contention on SHARED pools grows with threads quantity.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(4)
+@Fork(1)
+public class PoolingBenchmark {
+
+    @Param({"SHARED", "THREAD_LOCAL", "CALL_SCOPED"})
+    PoolingStrategy strategy;
+
+    @Param({"PATHS", "PHRASES"})
+    SyntheticCorpus corpus;
+
+    @Param({"jvsrc", "tolknbook"})
+    String pattern;
+
+    private Analyze analyze;
+    private List<String> strings;
+
+    @Setup
+    public void setUp() {
+        this.analyze = Analyze.Builder
+                .newInstance()
+                .withPoolingStrategy(this.strategy)
+                .build();
+        this.strings = this.corpus.generate(32);
+    }
+
+    @Benchmark
+    public List<Output> processStrings() {
+        return this.analyze.processStrings(this.pattern, this.strings);
+    }
+
+    @Benchmark
+    public float process() {
+        return this.analyze.process(this.pattern, this.strings.get(0));
+    }
+}
@@ -0,0 +1,77 @@
+package diarsid.sceptre.impl;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import diarsid.sceptre.impl.logs.Logging;
+import diarsid.support.objects.GuardedPool;
+import diarsid.support.objects.Pools;
+
+/*
+ * Search of pattern chars positions in variant for long patterns, where most of the time is spent
+ * in STEP_2 typo-loop matching of ClusterStepTwo. Run with -prof gc to see allocation per variant.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@OperationsPerInvocation(PositionsSearchBenchmark.VARIANTS)
+public class PositionsSearchBenchmark {
+
+    static final int VARIANTS = 256;
+
+    @Param({"PATHS", "PHRASES"})
+    SyntheticCorpus corpus;
+
+    @Param({"tolknbookrings", "prjctsrcmainjv", "javascrptnode"})
+    String pattern;
+
+    private PreparedPatternImpl preparedPattern;
+    private String[] variants;
+    private AnalyzeUnit unit;
+
+    @Setup
+    public void setUp() {
+        AnalyzeBuilder builder = new AnalyzeBuilder();
+        builder.build();
+        Pools pools = builder.pools;
+
+        Logging log = new Logging(builder);
+        GuardedPool<Cluster> clusterPool = pools.createPool(Cluster.class, () -> new Cluster(log));
+        GuardedPool<WordInInput> wordPool = pools.createPool(WordInInput.class, () -> new WordInInput());
+        GuardedPool<WordsInInput.WordsInRange> wordsInRangePool = pools.createPool(WordsInInput.WordsInRange.class, () -> new WordsInInput.WordsInRange());
+        GuardedPool<Step2LoopCandidatePosition> candidatePositionsPool = pools.createPool(Step2LoopCandidatePosition.class, () -> new Step2LoopCandidatePosition());
+
+        this.preparedPattern = new PreparedPatternImpl(this.pattern);
+        this.variants = this.corpus.generate(VARIANTS).toArray(new String[0]);
+        this.unit = new AnalyzeUnit(log, clusterPool, wordPool, wordsInRangePool, candidatePositionsPool);
+    }
+
+    @Benchmark
+    public void findPatternCharsPositions(Blackhole blackhole) {
+        for ( String variant : this.variants ) {
+            this.unit.set(this.preparedPattern, variant);
+            this.unit.checkIfVariantTextContainsPatternDirectly();
+            this.unit.findWordsAndPathAndTextSeparators();
+            this.unit.setPositions();
+            this.unit.findPatternCharsPositions();
+            blackhole.consume(this.unit.positionsAnalyze.positions.size());
+            this.unit.clearForReuse();
+        }
+    }
+}
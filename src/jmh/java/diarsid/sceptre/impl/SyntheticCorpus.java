@@ -0,0 +1,77 @@
+package diarsid.sceptre.impl;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/*
+ * Deterministic corpora for benchmarks: file paths with CamelCase names and extensions,
+ * and phrases of words separated by spaces.
+ */
+public enum SyntheticCorpus {
+
+    PATHS {
+        @Override
+        String next(Random random, StringBuilder string) {
+            int depth = 2 + random.nextInt(7);
+            for ( int i = 0; i < depth; i++ ) {
+                if ( i > 0 ) {
+                    string.append('/');
+                }
+                string.append(random.nextBoolean() ? capitalized(random) : word(random));
+            }
+            string
+                    .append('/')
+                    .append(capitalized(random))
+                    .append(capitalized(random))
+                    .append('.')
+                    .append(EXTENSIONS[random.nextInt(EXTENSIONS.length)]);
+            return string.toString();
+        }
+    },
+
+    PHRASES {
+        @Override
+        String next(Random random, StringBuilder string) {
+            int wordsQty = 2 + random.nextInt(7);
+            for ( int i = 0; i < wordsQty; i++ ) {
+                if ( i > 0 ) {
+                    string.append(' ');
+                }
+                string.append(i == 0 ? capitalized(random) : word(random));
+            }
+            return string.toString();
+        }
+    };
+
+    private static final String[] WORDS = {
+            "dev", "projects", "sceptre", "src", "main", "java", "diarsid", "support", "engines",
+            "design", "tools", "books", "tolkien", "lord", "rings", "hobbit", "programming", "guide",
+            "music", "rock", "jazz", "photos", "2019", "2021", "readme", "build", "gradle", "maven",
+            "node_modules", "netbeans", "intellij", "workspace", "analyze", "positions", "clusters",
+            "weight", "pattern", "variant", "search", "index", "catalog", "archive", "images", "docs"};
+
+    private static final String[] EXTENSIONS = {"java", "txt", "md", "xml", "pdf", "jpg", "mp3"};
+
+    private static String word(Random random) {
+        return WORDS[random.nextInt(WORDS.length)];
+    }
+
+    private static String capitalized(Random random) {
+        String word = word(random);
+        return Character.toUpperCase(word.charAt(0)) + word.substring(1);
+    }
+
+    abstract String next(Random random, StringBuilder string);
+
+    public List<String> generate(int quantity) {
+        Random random = new Random(quantity + this.ordinal());
+        List<String> strings = new ArrayList<>(quantity);
+        StringBuilder string = new StringBuilder();
+        for ( int i = 0; i < quantity; i++ ) {
+            string.setLength(0);
+            strings.add(this.next(random, string));
+        }
+        return strings;
+    }
+}
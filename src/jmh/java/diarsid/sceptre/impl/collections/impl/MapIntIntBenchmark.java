@@ -0,0 +1,95 @@
+package diarsid.sceptre.impl.collections.impl;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import diarsid.sceptre.impl.collections.MapIntInt;
+
+/*
+ * One variant analyze as PositionsAnalyze does it with patternIndexesByVariantPosition: positions
+ * of found pattern chars are put in the order they are found, then looked up repeatedly, some of
+ * them are missed, one is reassigned, and map is cleared for the next variant. Keys count is
+ * a count of pattern chars found in variant.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MapIntIntBenchmark {
+
+    private static final int LOOKUPS_PER_KEY = 4;
+
+    @Param({"sorted", "hash"})
+    String map;
+
+    @Param({"4", "8", "16", "32"})
+    int keys;
+
+    private MapIntInt mapIntInt;
+    private int[] positions;
+    private int[] missedPositions;
+
+    @Setup
+    public void setUp() {
+        this.mapIntInt = this.map.equals("hash") ? new MapIntIntHashImpl() : new MapIntIntImpl();
+
+        Random random = new Random(42);
+        this.positions = new int[this.keys];
+        this.missedPositions = new int[this.keys];
+        int position = random.nextInt(8);
+        for ( int i = 0; i < this.keys; i++ ) {
+            this.positions[i] = position;
+            this.missedPositions[i] = position + 1;
+            position = position + 2 + random.nextInt(4);
+        }
+
+        for ( int i = this.keys - 1; i > 0; i-- ) {
+            int j = random.nextInt(i + 1);
+            int swap = this.positions[i];
+            this.positions[i] = this.positions[j];
+            this.positions[j] = swap;
+        }
+    }
+
+    @Benchmark
+    public int analyzeVariant() {
+        MapIntInt map = this.mapIntInt;
+        int[] positions = this.positions;
+
+        for ( int i = 0; i < positions.length; i++ ) {
+            map.put(positions[i], i);
+        }
+
+        int sum = 0;
+        for ( int lookup = 0; lookup < LOOKUPS_PER_KEY; lookup++ ) {
+            for ( int i = 0; i < positions.length; i++ ) {
+                sum = sum + map.get(positions[i]);
+                if ( map.containsKey(this.missedPositions[i]) ) {
+                    sum++;
+                }
+            }
+        }
+
+        map.remove(positions[0]);
+        map.put(positions[0], sum);
+        sum = sum + map.size();
+
+        map.clear();
+
+        return sum;
+    }
+}
@@ -1,12 +1,19 @@
 package diarsid.sceptre.api;
 
+import java.nio.file.Path;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Flow;
 import java.util.function.Consumer;
 
+import diarsid.sceptre.api.model.CharsIndex;
+import diarsid.sceptre.api.model.IndexedCorpus;
 import diarsid.sceptre.api.model.Input;
 import diarsid.sceptre.api.model.Output;
+import diarsid.sceptre.api.model.PartialOutputs;
+import diarsid.sceptre.api.model.PreparedPattern;
 import diarsid.sceptre.impl.AnalyzeBuilder;
 import diarsid.support.model.versioning.Version;
 import diarsid.support.objects.Pools;
@@ -33,9 +40,62 @@ public interface Analyze {
 
         Analyze.Builder withAdditionalDataInOutput(Output.AdditionalData additionalData);
 
+        /*
+         * Inputs lists are split into chunks that are weighted simultaneously, each with its own analyze unit.
+         * Results are identical to sequential weighting. Small lists are always weighted sequentially.
+         * If no executor is specified, ForkJoinPool.commonPool() is used.
+         */
+        Analyze.Builder withParallelism(int parallelism);
+
+        /*
+         * Executor for parallel weighting of inputs lists. If parallelism is not specified,
+         * it equals to available processors quantity.
+         */
+        Analyze.Builder withExecutor(ExecutorService executor);
+
+        /*
+         * Opt-in timings of analyze stages and outcomes of inputs weighted in inputs lists.
+         * Use AnalyzeMetricsRecorder to aggregate them and take snapshots.
+         */
+        Analyze.Builder withMetrics(AnalyzeMetrics metrics);
+
+        /*
+         * Opt-in cache of weights of (pattern, variant) pairs, consulted for every input before its analysis.
+         * Can be shared between Analyze instances, weights of other versions are never returned.
+         * Is not consulted if additional data in outputs is declared, as it requires the analysis.
+         * Use BoundedWeightCache for size-bounded LRU or W-TinyLFU cache with statistics.
+         */
+        Analyze.Builder withWeightCache(WeightCache weightCache);
+
+        /*
+         * How analyze units are pooled between calls. SHARED is used by default.
+         * THREAD_LOCAL avoids contention on pools when many threads use the same Analyze instance.
+         * CALL_SCOPED retains nothing in threads and suits calls from virtual threads.
+         */
+        Analyze.Builder withPoolingStrategy(PoolingStrategy poolingStrategy);
+
+        /*
+         * How indexed corpus stores its inputs. INPUTS is used by default.
+         * ARENA packs chars of all inputs into a single array and creates inputs only when they are needed.
+         */
+        Analyze.Builder withCorpusStorage(CorpusStorage corpusStorage);
+
         Analyze build();
     }
 
+    /*
+     * Weights the same inputs against a pattern that changes as it is typed. When a new pattern extends
+     * the previous one, inputs that are proven to miss too much pattern chars are not looked at again,
+     * so that weighting scales with the quantity of remaining candidates. Results are the same as
+     * processCorpus would return. Not thread-safe, one session is meant for one typing user.
+     */
+    interface Session {
+
+        List<Output> process(String pattern);
+
+        List<Output> process(String pattern, int limit);
+    }
+
     Version version();
 
     List<Output> processStrings(String pattern, List<String> strings);
@@ -46,8 +106,140 @@ public interface Analyze {
 
     List<Output> processInputs(String pattern, String noWorseThan, List<Input> inputs);
 
+    /*
+     * Return only the best outputs, not more than limit, in the same order as processStrings/processInputs
+     * without limit would return them at the head of its result.
+     */
+    List<Output> processStrings(String pattern, List<String> strings, int limit);
+
+    List<Output> processStrings(String pattern, String noWorseThan, List<String> strings, int limit);
+
+    List<Output> processInputs(String pattern, List<Input> inputs, int limit);
+
+    List<Output> processInputs(String pattern, String noWorseThan, List<Input> inputs, int limit);
+
     Optional<Output> process(String pattern, Input input);
 
     float process(String pattern, String string);
 
+    /*
+     * Analyzes pattern once so that it can be reused in many calls without repeated per-input pattern setup.
+     */
+    PreparedPattern prepare(String pattern);
+
+    List<Output> processInputs(PreparedPattern pattern, List<Input> inputs);
+
+    List<Output> processInputs(PreparedPattern pattern, String noWorseThan, List<Input> inputs);
+
+    List<Output> processInputs(PreparedPattern pattern, List<Input> inputs, int limit);
+
+    float process(PreparedPattern pattern, String string);
+
+    /*
+     * Analyzes inputs once so that they can be weighted against many patterns without repeated
+     * lowercasing and search of separators and words on every call.
+     */
+    IndexedCorpus index(List<Input> inputs);
+
+    /*
+     * Same as index(inputs), but also stores corpus in file, so that it can be later opened by openIndex
+     * without analyzing inputs again. Metadata of inputs is not stored.
+     */
+    IndexedCorpus index(List<Input> inputs, Path file);
+
+    /*
+     * Maps corpus stored by index(inputs, file) into memory and weights inputs against mapped data. If file
+     * was stored by other version of Analyze, its inputs are indexed anew and the file is rewritten.
+     */
+    IndexedCorpus openIndex(Path file);
+
+    Analyze.Session newSession(IndexedCorpus corpus);
+
+    /*
+     * Weights inputs against many patterns at once. Every input is analyzed only once and then is weighted
+     * against all patterns in turn. Returns outputs of each pattern, in order of patterns, the same as
+     * processInputs would return for this pattern.
+     */
+    List<List<Output>> processMany(List<String> patterns, List<Input> inputs);
+
+    List<List<Output>> processMany(List<String> patterns, IndexedCorpus corpus);
+
+    /*
+     * Same as processMany, but combines outputs of all patterns into single ranking where every
+     * input is present once with its best weight among all patterns.
+     */
+    List<Output> processManyBestOf(List<String> patterns, List<Input> inputs);
+
+    List<Output> processManyBestOf(List<String> patterns, IndexedCorpus corpus);
+
+    /*
+     * Weights inputs sequentially, in order of budget priority if specified, until budget is exhausted.
+     * Returns the best outputs of inputs weighted so far and quantity of inputs that were not weighted.
+     */
+    PartialOutputs processInputs(String pattern, List<Input> inputs, Budget budget);
+
+    PartialOutputs processInputs(PreparedPattern pattern, List<Input> inputs, Budget budget);
+
+    PartialOutputs processInputs(PreparedPattern pattern, List<Input> inputs, int limit, Budget budget);
+
+    PartialOutputs processCorpus(PreparedPattern pattern, IndexedCorpus corpus, Budget budget);
+
+    PartialOutputs processCorpus(PreparedPattern pattern, IndexedCorpus corpus, int limit, Budget budget);
+
+    List<Output> processCorpus(String pattern, IndexedCorpus corpus);
+
+    List<Output> processCorpus(String pattern, IndexedCorpus corpus, int limit);
+
+    List<Output> processCorpus(PreparedPattern pattern, IndexedCorpus corpus);
+
+    List<Output> processCorpus(PreparedPattern pattern, String noWorseThan, IndexedCorpus corpus);
+
+    List<Output> processCorpus(PreparedPattern pattern, IndexedCorpus corpus, int limit);
+
+    /*
+     * Passes weights of accepted inputs to collector instead of returning outputs. Inputs of corpus stored
+     * as INPUTS are weighted without creating any object per input.
+     */
+    void processInputs(PreparedPattern pattern, List<Input> inputs, ResultCollector collector);
+
+    void processCorpus(PreparedPattern pattern, IndexedCorpus corpus, ResultCollector collector);
+
+    /*
+     * Analyzes input anew to produce its additional data, e.g. for a few of collected inputs that are shown.
+     */
+    Map<Output.AdditionalData, Object> additionalDataOf(
+            PreparedPattern pattern, Input input, List<Output.AdditionalData> additionalData);
+
+    /*
+     * Index of inputs that finds candidates of pattern without looking at every input. Outputs of
+     * processCandidates are the same as processInputs would return for all inputs of index, in order of ids.
+     */
+    CharsIndex newCharsIndex();
+
+    CharsIndex newCharsIndex(List<Input> inputs);
+
+    List<Output> processCandidates(PreparedPattern pattern, CharsIndex.Candidates candidates);
+
+    List<Output> processCandidates(PreparedPattern pattern, CharsIndex.Candidates candidates, int limit);
+
+    /*
+     * Every subscription weights inputs anew, on the builder executor or ForkJoinPool.commonPool(),
+     * and emits outputs in order of inputs as soon as they are weighted. Inputs are weighted only
+     * while there is unsatisfied demand, cancellation stops weighting before the next input.
+     * Streamed outputs have no index, it is assigned only in the sorted snapshot.
+     */
+    Flow.Publisher<Output> processInputsStreaming(String pattern, List<Input> inputs);
+
+    Flow.Publisher<Output> processInputsStreaming(PreparedPattern pattern, List<Input> inputs);
+
+    /*
+     * After all outputs are emitted and before completion, sortedOutputs receives them sorted and indexed
+     * the same way as processInputs would return them.
+     */
+    Flow.Publisher<Output> processInputsStreaming(
+            String pattern, List<Input> inputs, Consumer<List<Output>> sortedOutputs);
+
+    Flow.Publisher<Output> processInputsStreaming(
+            PreparedPattern pattern, List<Input> inputs, Consumer<List<Output>> sortedOutputs);
+
 }
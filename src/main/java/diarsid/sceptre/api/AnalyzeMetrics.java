@@ -0,0 +1,34 @@
+package diarsid.sceptre.api;
+
+/*
+ * Receives timings of analyze stages and outcomes of every weighted input when inputs lists are weighted.
+ * Is invoked concurrently from all threads weighting inputs, so implementations must be thread-safe
+ * and must not block. See AnalyzeMetricsRecorder for lock-free aggregating implementation.
+ */
+public interface AnalyzeMetrics {
+
+    enum Stage {
+        VARIANT_SETUP,
+        WORDS_AND_SEPARATORS,
+        POSITIONS_SEARCH,
+        POSITIONS_CLUSTERS,
+        WEIGHT_CALCULATION
+    }
+
+    enum Outcome {
+        ACCEPTED,
+        ACCEPTED_AS_EQUAL_TO_PATTERN,
+        ACCEPTED_FROM_CACHE,
+        SKIPPED_AS_MISSING_PATTERN_CHARS,
+        REJECTED_AS_CLUSTERS_WEIGHT_TOO_BAD,
+        REJECTED_AS_TOO_MUCH_POSITIONS_MISSED,
+        REJECTED_AS_VARIANT_TOO_BAD,
+        REJECTED_AS_CACHED_TOO_BAD,
+        REJECTED_AS_WORSE_THAN_NO_WORSE_THAN,
+        REJECTED_AS_WORSE_THAN_RETAINED
+    }
+
+    void stageFinished(Stage stage, long nanos);
+
+    void inputFinished(Outcome outcome);
+}
@@ -0,0 +1,103 @@
+package diarsid.sceptre.api;
+
+import java.time.Duration;
+import java.util.Comparator;
+
+import diarsid.sceptre.api.model.Input;
+
+import static java.util.Objects.nonNull;
+import static java.util.Objects.requireNonNull;
+
+/*
+ * Limits weighting of inputs by time, counted from the start of a call, and/or by quantity of weighted
+ * inputs. If priority is specified, inputs are weighted in its order, e.g. recently used first, so that
+ * partial outputs contain the most relevant inputs. Immutable, can be reused between calls.
+ */
+public final class Budget {
+
+    private static final long NO_TIME_LIMIT = Long.MAX_VALUE;
+    private static final Duration MAX_TIME = Duration.ofNanos(NO_TIME_LIMIT);
+    private static final int NO_INPUTS_LIMIT = Integer.MAX_VALUE;
+
+    private final long timeNanos;
+    private final int maxInputs;
+    private final Comparator<Input> priority;
+
+    private Budget(long timeNanos, int maxInputs, Comparator<Input> priority) {
+        this.timeNanos = timeNanos;
+        this.maxInputs = maxInputs;
+        this.priority = priority;
+    }
+
+    public static Budget ofTime(Duration time) {
+        return new Budget(mustBeValid(time), NO_INPUTS_LIMIT, null);
+    }
+
+    public static Budget ofInputs(int maxInputs) {
+        return new Budget(NO_TIME_LIMIT, mustBeValid(maxInputs), null);
+    }
+
+    /*
+     * Time longer than Long.MAX_VALUE nanos, e.g. ChronoUnit.FOREVER duration, means no time limit.
+     */
+    private static long mustBeValid(Duration time) {
+        if ( time.isNegative() || time.isZero() ) {
+            throw new IllegalArgumentException("Time must be positive, but was: " + time);
+        }
+
+        if ( time.compareTo(MAX_TIME) >= 0 ) {
+            return NO_TIME_LIMIT;
+        }
+
+        return time.toNanos();
+    }
+
+    private static int mustBeValid(int maxInputs) {
+        if ( maxInputs < 1 ) {
+            throw new IllegalArgumentException("Max inputs must be positive, but was: " + maxInputs);
+        }
+
+        return maxInputs;
+    }
+
+    public Budget andTime(Duration time) {
+        return new Budget(mustBeValid(time), this.maxInputs, this.priority);
+    }
+
+    public Budget andInputs(int maxInputs) {
+        return new Budget(this.timeNanos, mustBeValid(maxInputs), this.priority);
+    }
+
+    public Budget prioritizedBy(Comparator<Input> priority) {
+        return new Budget(this.timeNanos, this.maxInputs, requireNonNull(priority));
+    }
+
+    public boolean isLimitedByTime() {
+        return this.timeNanos != NO_TIME_LIMIT;
+    }
+
+    public long timeNanos() {
+        return this.timeNanos;
+    }
+
+    public int maxInputs() {
+        return this.maxInputs;
+    }
+
+    public boolean hasPriority() {
+        return nonNull(this.priority);
+    }
+
+    public Comparator<Input> priority() {
+        return this.priority;
+    }
+
+    @Override
+    public String toString() {
+        return "Budget{" +
+                "time=" + (this.isLimitedByTime() ? Duration.ofNanos(this.timeNanos) : "unlimited") +
+                ", maxInputs=" + (this.maxInputs == NO_INPUTS_LIMIT ? "unlimited" : this.maxInputs) +
+                ", prioritized=" + this.hasPriority() +
+                '}';
+    }
+}
@@ -0,0 +1,18 @@
+package diarsid.sceptre.api;
+
+public enum CorpusStorage {
+
+    /*
+     * Indexed corpus retains given inputs and their lowercased strings.
+     */
+    INPUTS,
+
+    /*
+     * Indexed corpus retains only chars of inputs, packed into a single byte arena, one byte per char if
+     * input has only Latin-1 chars and two bytes per char otherwise. Inputs are not retained, an input is
+     * created anew when it is taken from the corpus, e.g. for an output, so it is never the same object
+     * as the given input and has no metadata. Suits large corpora that must take as little memory as possible.
+     */
+    ARENA
+
+}
@@ -0,0 +1,25 @@
+package diarsid.sceptre.api;
+
+public enum PoolingStrategy {
+
+    /*
+     * Analyze units and objects they use are taken from pools shared by all threads of Analyze instance.
+     */
+    SHARED,
+
+    /*
+     * Analyze units are retained by threads that used them, a few units per thread at most. Every unit
+     * has its own pools of objects it uses, so no pool is shared between threads. Suits many threads
+     * calling the same Analyze instance simultaneously.
+     */
+    THREAD_LOCAL,
+
+    /*
+     * Analyze units are scoped to a call rather than to a thread. They are taken from a small pool,
+     * shared by all threads and sized to available processors, without blocking. If the pool is empty,
+     * a unit is created for the call and is dropped after it. Nothing is retained by threads, so memory
+     * stays bounded when Analyze is called from huge numbers of threads, e.g. virtual threads.
+     */
+    CALL_SCOPED
+
+}
@@ -0,0 +1,13 @@
+package diarsid.sceptre.api;
+
+/*
+ * Receives weights of accepted inputs instead of outputs, so that no output is created for them.
+ * Inputs are weighted sequentially in the calling thread and are collected in order of inputs,
+ * input index is the position of input in given inputs or corpus, not Input.index() that may remain
+ * from other lists. Additional data of collected input can be requested later with Analyze.additionalDataOf.
+ */
+@FunctionalInterface
+public interface ResultCollector {
+
+    void collect(int inputIndex, float weight);
+}
@@ -0,0 +1,17 @@
+package diarsid.sceptre.api;
+
+/*
+ * Weights of (pattern, variant) pairs, shared by all threads weighting inputs. Every weight is cached
+ * with a stamp of analyzer version and configuration, so that a weight computed by another version or
+ * configuration is never returned. Rejected variants are cached with WeightEstimate.TOO_BAD weight.
+ * See BoundedWeightCache for size-bounded implementation.
+ */
+public interface WeightCache {
+
+    /*
+     * Returns Float.NaN if weight is not cached.
+     */
+    float weightOf(long stamp, String pattern, String variant);
+
+    void put(long stamp, String pattern, String variant, float weight);
+}
@@ -0,0 +1,495 @@
+package diarsid.sceptre.api.impl.cache;
+
+import java.util.concurrent.atomic.LongAdder;
+
+import diarsid.sceptre.api.WeightCache;
+
+import static java.util.Arrays.fill;
+
+/*
+ * Cache is split into segments by key hash, every segment is guarded by its own lock. Segment keeps
+ * entries in parallel arrays with weights in float[], slots are found through open-addressing table
+ * of slot indexes and are ordered for eviction by int-linked lists.
+ *
+ * LRU keeps a single list and evicts its least recently used entry.
+ *
+ * W_TINY_LFU keeps new entries in a small LRU window. Entry evicted from window is admitted to the main
+ * segmented LRU only if it was requested more frequently than the main victim, according to a count-min
+ * sketch of recent requests. Main entries requested again are promoted from probation to protected list.
+ */
+public class BoundedWeightCache implements WeightCache {
+
+    public enum Eviction {
+        LRU,
+        W_TINY_LFU
+    }
+
+    private static final int MAX_SEGMENTS = 64;
+
+    private final Segment[] segments;
+    private final int segmentShift;
+    private final LongAdder hits;
+    private final LongAdder misses;
+    private final LongAdder evictions;
+
+    public BoundedWeightCache(int capacity, Eviction eviction) {
+        if ( capacity < 1 ) {
+            throw new IllegalArgumentException("Capacity must be positive, but was: " + capacity);
+        }
+
+        int segmentsQty = 1;
+        while ( segmentsQty < MAX_SEGMENTS && segmentsQty * 2 * 64 <= capacity ) {
+            segmentsQty = segmentsQty * 2;
+        }
+
+        this.segments = new Segment[segmentsQty];
+        int segmentCapacity = capacity / segmentsQty;
+        int segmentCapacityRemainder = capacity % segmentsQty;
+        for ( int i = 0; i < segmentsQty; i++ ) {
+            this.segments[i] = new Segment(
+                    segmentCapacity + ( i < segmentCapacityRemainder ? 1 : 0 ),
+                    eviction == Eviction.W_TINY_LFU);
+        }
+
+        this.segmentShift = 32 - Integer.numberOfTrailingZeros(segmentsQty);
+        this.hits = new LongAdder();
+        this.misses = new LongAdder();
+        this.evictions = new LongAdder();
+    }
+
+    static int hashOf(long stamp, String pattern, String variant) {
+        int h = Long.hashCode(stamp);
+        h = 31 * h + pattern.hashCode();
+        h = 31 * h + variant.hashCode();
+
+        h ^= h >>> 16;
+        h *= 0x85ebca6b;
+        h ^= h >>> 13;
+        h *= 0xc2b2ae35;
+        h ^= h >>> 16;
+
+        return h;
+    }
+
+    private Segment segmentOf(int hash) {
+        if ( this.segments.length == 1 ) {
+            return this.segments[0];
+        }
+
+        return this.segments[hash >>> this.segmentShift];
+    }
+
+    @Override
+    public float weightOf(long stamp, String pattern, String variant) {
+        int hash = hashOf(stamp, pattern, variant);
+        float weight = this.segmentOf(hash).weightOf(hash, stamp, pattern, variant);
+
+        if ( Float.isNaN(weight) ) {
+            this.misses.increment();
+        }
+        else {
+            this.hits.increment();
+        }
+
+        return weight;
+    }
+
+    @Override
+    public void put(long stamp, String pattern, String variant, float weight) {
+        if ( Float.isNaN(weight) ) {
+            throw new IllegalArgumentException("NaN weight cannot be cached");
+        }
+
+        int hash = hashOf(stamp, pattern, variant);
+        boolean evicted = this.segmentOf(hash).put(hash, stamp, pattern, variant, weight);
+
+        if ( evicted ) {
+            this.evictions.increment();
+        }
+    }
+
+    public void invalidateAll() {
+        for ( Segment segment : this.segments ) {
+            segment.clear();
+        }
+    }
+
+    public int size() {
+        int size = 0;
+        for ( Segment segment : this.segments ) {
+            size = size + segment.size();
+        }
+
+        return size;
+    }
+
+    /*
+     * Statistics are not atomic: requests made concurrently with statistics creation may be partially included.
+     */
+    public WeightCacheStatistics statistics() {
+        return new WeightCacheStatistics(
+                this.hits.sum(), this.misses.sum(), this.evictions.sum(), this.size());
+    }
+
+    public void resetStatistics() {
+        this.hits.reset();
+        this.misses.reset();
+        this.evictions.reset();
+    }
+
+    static class Segment {
+
+        static final int NO_SLOT = -1;
+
+        static final byte WINDOW = 0;
+        static final byte PROBATION = 1;
+        static final byte PROTECTED = 2;
+
+        private final int capacity;
+        private final boolean isAdmitting;
+        private final int windowCapacity;
+        private final int mainCapacity;
+        private final int protectedCapacity;
+
+        private final long[] stamps;
+        private final String[] patterns;
+        private final String[] variants;
+        private final int[] hashes;
+        private final float[] weights;
+        private final byte[] regions;
+        private final int[] prev;
+        private final int[] next;
+
+        private final int[] table;
+        private final int tableMask;
+
+        private final int[] heads;
+        private final int[] tails;
+        private final int[] sizes;
+        private int allocated;
+        private int freeSlot;
+
+        private final FrequencySketch sketch;
+
+        Segment(int capacity, boolean isAdmitting) {
+            this.capacity = Math.max(capacity, 1);
+            this.isAdmitting = isAdmitting;
+
+            if ( isAdmitting ) {
+                this.windowCapacity = Math.max(1, this.capacity / 100);
+                this.mainCapacity = this.capacity - this.windowCapacity;
+                this.protectedCapacity = this.mainCapacity * 80 / 100;
+                this.sketch = new FrequencySketch(this.capacity);
+            }
+            else {
+                this.windowCapacity = this.capacity;
+                this.mainCapacity = 0;
+                this.protectedCapacity = 0;
+                this.sketch = null;
+            }
+
+            /* new entry is added before window victim is evicted, so one more slot is needed */
+            int slots = this.capacity + 1;
+            this.stamps = new long[slots];
+            this.patterns = new String[slots];
+            this.variants = new String[slots];
+            this.hashes = new int[slots];
+            this.weights = new float[slots];
+            this.regions = new byte[slots];
+            this.prev = new int[slots];
+            this.next = new int[slots];
+
+            int tableLength = Integer.highestOneBit(slots) * 4;
+            this.table = new int[tableLength];
+            this.tableMask = tableLength - 1;
+
+            this.heads = new int[] {NO_SLOT, NO_SLOT, NO_SLOT};
+            this.tails = new int[] {NO_SLOT, NO_SLOT, NO_SLOT};
+            this.sizes = new int[3];
+            this.allocated = 0;
+            this.freeSlot = NO_SLOT;
+        }
+
+        synchronized float weightOf(int hash, long stamp, String pattern, String variant) {
+            if ( this.isAdmitting ) {
+                this.sketch.increment(hash);
+            }
+
+            int slot = this.find(hash, stamp, pattern, variant);
+            if ( slot == NO_SLOT ) {
+                return Float.NaN;
+            }
+
+            this.touch(slot);
+            return this.weights[slot];
+        }
+
+        /*
+         * Returns true if some entry was evicted.
+         */
+        synchronized boolean put(int hash, long stamp, String pattern, String variant, float weight) {
+            int slot = this.find(hash, stamp, pattern, variant);
+            if ( slot != NO_SLOT ) {
+                this.weights[slot] = weight;
+                this.touch(slot);
+                return false;
+            }
+
+            boolean evicted = false;
+            if ( ! this.isAdmitting && this.sizes[WINDOW] == this.capacity ) {
+                this.evict(this.tails[WINDOW]);
+                evicted = true;
+            }
+
+            slot = this.allocate();
+            this.stamps[slot] = stamp;
+            this.patterns[slot] = pattern;
+            this.variants[slot] = variant;
+            this.hashes[slot] = hash;
+            this.weights[slot] = weight;
+            this.index(slot);
+            this.linkFirst(slot, WINDOW);
+
+            if ( this.isAdmitting && this.sizes[WINDOW] > this.windowCapacity ) {
+                evicted = this.admitFromWindow(this.tails[WINDOW]);
+            }
+
+            return evicted;
+        }
+
+        private boolean admitFromWindow(int candidate) {
+            this.unlink(candidate);
+
+            if ( this.sizes[PROBATION] + this.sizes[PROTECTED] < this.mainCapacity ) {
+                this.linkFirst(candidate, PROBATION);
+                return false;
+            }
+
+            int victim = this.tails[PROBATION] != NO_SLOT ? this.tails[PROBATION] : this.tails[PROTECTED];
+            if ( victim == NO_SLOT ) {
+                this.free(candidate);
+                return true;
+            }
+
+            if ( this.sketch.frequency(this.hashes[candidate]) > this.sketch.frequency(this.hashes[victim]) ) {
+                this.evict(victim);
+                this.linkFirst(candidate, PROBATION);
+            }
+            else {
+                this.free(candidate);
+            }
+
+            return true;
+        }
+
+        private void touch(int slot) {
+            byte region = this.regions[slot];
+            this.unlink(slot);
+
+            if ( region == PROBATION ) {
+                this.linkFirst(slot, PROTECTED);
+                if ( this.sizes[PROTECTED] > this.protectedCapacity ) {
+                    int demoted = this.tails[PROTECTED];
+                    this.unlink(demoted);
+                    this.linkFirst(demoted, PROBATION);
+                }
+            }
+            else {
+                this.linkFirst(slot, region);
+            }
+        }
+
+        private void evict(int slot) {
+            this.unlink(slot);
+            this.free(slot);
+        }
+
+        private int allocate() {
+            if ( this.freeSlot != NO_SLOT ) {
+                int slot = this.freeSlot;
+                this.freeSlot = this.next[slot];
+                return slot;
+            }
+
+            int slot = this.allocated;
+            this.allocated++;
+            return slot;
+        }
+
+        private void free(int slot) {
+            this.unindex(slot);
+            this.patterns[slot] = null;
+            this.variants[slot] = null;
+            this.next[slot] = this.freeSlot;
+            this.freeSlot = slot;
+        }
+
+        private void linkFirst(int slot, byte region) {
+            int head = this.heads[region];
+            this.regions[slot] = region;
+            this.prev[slot] = NO_SLOT;
+            this.next[slot] = head;
+            if ( head == NO_SLOT ) {
+                this.tails[region] = slot;
+            }
+            else {
+                this.prev[head] = slot;
+            }
+            this.heads[region] = slot;
+            this.sizes[region]++;
+        }
+
+        private void unlink(int slot) {
+            byte region = this.regions[slot];
+            int prevSlot = this.prev[slot];
+            int nextSlot = this.next[slot];
+
+            if ( prevSlot == NO_SLOT ) {
+                this.heads[region] = nextSlot;
+            }
+            else {
+                this.next[prevSlot] = nextSlot;
+            }
+
+            if ( nextSlot == NO_SLOT ) {
+                this.tails[region] = prevSlot;
+            }
+            else {
+                this.prev[nextSlot] = prevSlot;
+            }
+
+            this.sizes[region]--;
+        }
+
+        private int find(int hash, long stamp, String pattern, String variant) {
+            int i = hash & this.tableMask;
+            int slot;
+            while ( this.table[i] != 0 ) {
+                slot = this.table[i] - 1;
+                if ( this.hashes[slot] == hash &&
+                        this.stamps[slot] == stamp &&
+                        this.patterns[slot].equals(pattern) &&
+                        this.variants[slot].equals(variant) ) {
+                    return slot;
+                }
+                i = (i + 1) & this.tableMask;
+            }
+
+            return NO_SLOT;
+        }
+
+        private void index(int slot) {
+            int i = this.hashes[slot] & this.tableMask;
+            while ( this.table[i] != 0 ) {
+                i = (i + 1) & this.tableMask;
+            }
+            this.table[i] = slot + 1;
+        }
+
+        /*
+         * Removes slot from linear probing table and shifts following entries of the same
+         * probe sequence back, so that no lookup stops at emptied position too early.
+         */
+        private void unindex(int slot) {
+            int i = this.hashes[slot] & this.tableMask;
+            while ( this.table[i] != slot + 1 ) {
+                i = (i + 1) & this.tableMask;
+            }
+
+            this.table[i] = 0;
+            int j = i;
+            int home;
+            while ( true ) {
+                j = (j + 1) & this.tableMask;
+                if ( this.table[j] == 0 ) {
+                    return;
+                }
+
+                home = this.hashes[this.table[j] - 1] & this.tableMask;
+                boolean isBetween = i <= j ? ( i < home && home <= j ) : ( i < home || home <= j );
+                if ( ! isBetween ) {
+                    this.table[i] = this.table[j];
+                    this.table[j] = 0;
+                    i = j;
+                }
+            }
+        }
+
+        synchronized void clear() {
+            fill(this.table, 0);
+            fill(this.patterns, null);
+            fill(this.variants, null);
+            fill(this.heads, NO_SLOT);
+            fill(this.tails, NO_SLOT);
+            fill(this.sizes, 0);
+            this.allocated = 0;
+            this.freeSlot = NO_SLOT;
+        }
+
+        synchronized int size() {
+            return this.sizes[WINDOW] + this.sizes[PROBATION] + this.sizes[PROTECTED];
+        }
+    }
+
+    /*
+     * Count-min sketch with 4 rows of 4-bit counters. All counters are halved after every
+     * 10 * capacity increments, so that frequency reflects recent requests.
+     */
+    static class FrequencySketch {
+
+        private static final int[] SEEDS = {0x9e3779b9, 0x7f4a7c15, 0x85ebca6b, 0xc2b2ae35};
+        private static final int MAX_COUNT = 15;
+
+        private final byte[][] rows;
+        private final int mask;
+        private final int sampleSize;
+        private int increments;
+
+        FrequencySketch(int capacity) {
+            int width = Integer.highestOneBit(Math.max(capacity, 8) - 1) * 2;
+            this.rows = new byte[SEEDS.length][width];
+            this.mask = width - 1;
+            this.sampleSize = 10 * Math.max(capacity, 8);
+            this.increments = 0;
+        }
+
+        private int indexOf(int hash, int row) {
+            int h = (hash ^ SEEDS[row]) * SEEDS[(row + 1) % SEEDS.length];
+            return (h ^ (h >>> 15)) & this.mask;
+        }
+
+        void increment(int hash) {
+            int i;
+            for ( int row = 0; row < this.rows.length; row++ ) {
+                i = this.indexOf(hash, row);
+                if ( this.rows[row][i] < MAX_COUNT ) {
+                    this.rows[row][i]++;
+                }
+            }
+
+            this.increments++;
+            if ( this.increments == this.sampleSize ) {
+                this.halve();
+            }
+        }
+
+        int frequency(int hash) {
+            int frequency = MAX_COUNT;
+            for ( int row = 0; row < this.rows.length; row++ ) {
+                frequency = Math.min(frequency, this.rows[row][this.indexOf(hash, row)]);
+            }
+
+            return frequency;
+        }
+
+        private void halve() {
+            for ( byte[] row : this.rows ) {
+                for ( int i = 0; i < row.length; i++ ) {
+                    row[i] = (byte) (row[i] >>> 1);
+                }
+            }
+
+            this.increments = this.increments / 2;
+        }
+    }
+}
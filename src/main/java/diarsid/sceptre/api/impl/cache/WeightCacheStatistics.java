@@ -0,0 +1,51 @@
+package diarsid.sceptre.api.impl.cache;
+
+public class WeightCacheStatistics {
+
+    private final long hits;
+    private final long misses;
+    private final long evictions;
+    private final int size;
+
+    WeightCacheStatistics(long hits, long misses, long evictions, int size) {
+        this.hits = hits;
+        this.misses = misses;
+        this.evictions = evictions;
+        this.size = size;
+    }
+
+    public long hits() {
+        return this.hits;
+    }
+
+    public long misses() {
+        return this.misses;
+    }
+
+    public long evictions() {
+        return this.evictions;
+    }
+
+    public int size() {
+        return this.size;
+    }
+
+    public double hitRatio() {
+        long requests = this.hits + this.misses;
+        if ( requests == 0 ) {
+            return 0;
+        }
+
+        return (double) this.hits / requests;
+    }
+
+    @Override
+    public String toString() {
+        return "WeightCacheStatistics{" +
+                "hits=" + hits +
+                ", misses=" + misses +
+                ", evictions=" + evictions +
+                ", size=" + size +
+                '}';
+    }
+}
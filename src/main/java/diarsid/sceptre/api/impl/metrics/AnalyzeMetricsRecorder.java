@@ -0,0 +1,101 @@
+package diarsid.sceptre.api.impl.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+import diarsid.sceptre.api.AnalyzeMetrics;
+
+/*
+ * Aggregates metrics in LongAdders, which keep separate cells for contending threads, so recording
+ * never locks. Stage timings are also aggregated into histograms with power-of-two nanosecond buckets.
+ */
+public class AnalyzeMetricsRecorder implements AnalyzeMetrics {
+
+    static final int BUCKETS = 64;
+
+    private static final int STAGES_QTY = Stage.values().length;
+    private static final int OUTCOMES_QTY = Outcome.values().length;
+
+    private final LongAdder[] stagesCounts;
+    private final LongAdder[] stagesNanos;
+    private final LongAdder[][] stagesHistograms;
+    private final LongAdder[] outcomesCounts;
+
+    public AnalyzeMetricsRecorder() {
+        this.stagesCounts = newAdders(STAGES_QTY);
+        this.stagesNanos = newAdders(STAGES_QTY);
+        this.stagesHistograms = new LongAdder[STAGES_QTY][];
+        for ( int i = 0; i < STAGES_QTY; i++ ) {
+            this.stagesHistograms[i] = newAdders(BUCKETS);
+        }
+        this.outcomesCounts = newAdders(OUTCOMES_QTY);
+    }
+
+    private static LongAdder[] newAdders(int quantity) {
+        LongAdder[] adders = new LongAdder[quantity];
+        for ( int i = 0; i < quantity; i++ ) {
+            adders[i] = new LongAdder();
+        }
+        return adders;
+    }
+
+    /*
+     * Bucket i contains durations from 2^i inclusive to 2^(i+1) exclusive, bucket 0 also contains 0.
+     */
+    static int bucketOf(long nanos) {
+        if ( nanos < 1 ) {
+            return 0;
+        }
+
+        return 63 - Long.numberOfLeadingZeros(nanos);
+    }
+
+    @Override
+    public void stageFinished(Stage stage, long nanos) {
+        int i = stage.ordinal();
+        this.stagesCounts[i].increment();
+        this.stagesNanos[i].add(nanos);
+        this.stagesHistograms[i][bucketOf(nanos)].increment();
+    }
+
+    @Override
+    public void inputFinished(Outcome outcome) {
+        this.outcomesCounts[outcome.ordinal()].increment();
+    }
+
+    /*
+     * Snapshot is not atomic: values recorded concurrently with snapshot creation may be partially included.
+     */
+    public AnalyzeMetricsSnapshot snapshot() {
+        AnalyzeMetricsSnapshot.StageTimings[] stages = new AnalyzeMetricsSnapshot.StageTimings[STAGES_QTY];
+        long[] histogram;
+        for ( int i = 0; i < STAGES_QTY; i++ ) {
+            histogram = new long[BUCKETS];
+            for ( int bucket = 0; bucket < BUCKETS; bucket++ ) {
+                histogram[bucket] = this.stagesHistograms[i][bucket].sum();
+            }
+            stages[i] = new AnalyzeMetricsSnapshot.StageTimings(
+                    this.stagesCounts[i].sum(), this.stagesNanos[i].sum(), histogram);
+        }
+
+        long[] outcomes = new long[OUTCOMES_QTY];
+        for ( int i = 0; i < OUTCOMES_QTY; i++ ) {
+            outcomes[i] = this.outcomesCounts[i].sum();
+        }
+
+        return new AnalyzeMetricsSnapshot(stages, outcomes);
+    }
+
+    public void reset() {
+        for ( int i = 0; i < STAGES_QTY; i++ ) {
+            this.stagesCounts[i].reset();
+            this.stagesNanos[i].reset();
+            for ( LongAdder bucket : this.stagesHistograms[i] ) {
+                bucket.reset();
+            }
+        }
+
+        for ( LongAdder outcome : this.outcomesCounts ) {
+            outcome.reset();
+        }
+    }
+}
@@ -0,0 +1,125 @@
+package diarsid.sceptre.api.impl.metrics;
+
+import java.util.Arrays;
+
+import diarsid.sceptre.api.AnalyzeMetrics;
+
+import static diarsid.sceptre.api.impl.metrics.AnalyzeMetricsRecorder.BUCKETS;
+
+public class AnalyzeMetricsSnapshot {
+
+    public static class StageTimings {
+
+        private final long count;
+        private final long totalNanos;
+        private final long[] histogram;
+
+        StageTimings(long count, long totalNanos, long[] histogram) {
+            this.count = count;
+            this.totalNanos = totalNanos;
+            this.histogram = histogram;
+        }
+
+        public long count() {
+            return this.count;
+        }
+
+        public long totalNanos() {
+            return this.totalNanos;
+        }
+
+        public double meanNanos() {
+            if ( this.count == 0 ) {
+                return 0;
+            }
+
+            return (double) this.totalNanos / this.count;
+        }
+
+        /*
+         * Quantity of durations from 2^bucket inclusive to 2^(bucket+1) exclusive nanoseconds.
+         */
+        public long histogramBucket(int bucket) {
+            return this.histogram[bucket];
+        }
+
+        public long[] histogram() {
+            return Arrays.copyOf(this.histogram, this.histogram.length);
+        }
+
+        /*
+         * Upper bound of histogram bucket containing given percentile, e.g. 0.99
+         */
+        public long percentileNanosNotMoreThan(double percentile) {
+            if ( percentile < 0 || percentile > 1 ) {
+                throw new IllegalArgumentException("Percentile must be in [0, 1], but was: " + percentile);
+            }
+
+            long histogramCount = 0;
+            for ( long bucketCount : this.histogram ) {
+                histogramCount = histogramCount + bucketCount;
+            }
+
+            if ( histogramCount == 0 ) {
+                return 0;
+            }
+
+            long threshold = (long) Math.ceil(percentile * histogramCount);
+            long accumulated = 0;
+            for ( int bucket = 0; bucket < BUCKETS; bucket++ ) {
+                accumulated = accumulated + this.histogram[bucket];
+                if ( accumulated >= threshold && accumulated > 0 ) {
+                    return bucket == BUCKETS - 1 ? Long.MAX_VALUE : (1L << (bucket + 1)) - 1;
+                }
+            }
+
+            return Long.MAX_VALUE;
+        }
+
+        @Override
+        public String toString() {
+            return String.format(
+                    "count: %s, mean: %.0f ns, p50 <= %s ns, p99 <= %s ns",
+                    this.count,
+                    this.meanNanos(),
+                    this.percentileNanosNotMoreThan(0.5),
+                    this.percentileNanosNotMoreThan(0.99));
+        }
+    }
+
+    private final StageTimings[] stages;
+    private final long[] outcomes;
+
+    AnalyzeMetricsSnapshot(StageTimings[] stages, long[] outcomes) {
+        this.stages = stages;
+        this.outcomes = outcomes;
+    }
+
+    public StageTimings stage(AnalyzeMetrics.Stage stage) {
+        return this.stages[stage.ordinal()];
+    }
+
+    public long count(AnalyzeMetrics.Outcome outcome) {
+        return this.outcomes[outcome.ordinal()];
+    }
+
+    public long inputs() {
+        long inputs = 0;
+        for ( long outcome : this.outcomes ) {
+            inputs = inputs + outcome;
+        }
+        return inputs;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder string = new StringBuilder();
+        for ( AnalyzeMetrics.Stage stage : AnalyzeMetrics.Stage.values() ) {
+            string.append(stage).append(" - ").append(this.stage(stage)).append('\n');
+        }
+        for ( AnalyzeMetrics.Outcome outcome : AnalyzeMetrics.Outcome.values() ) {
+            string.append(outcome).append(" - ").append(this.count(outcome)).append('\n');
+        }
+        return string.toString();
+    }
+}
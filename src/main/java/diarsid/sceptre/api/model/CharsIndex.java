@@ -0,0 +1,30 @@
+package diarsid.sceptre.api.model;
+
+import java.util.List;
+
+/*
+ * Inverted index from lowercased chars to ids of inputs containing them. Candidates of a pattern are
+ * only those inputs that contain enough of pattern chars to not be rejected by analysis as missing too
+ * much of it, other inputs are skipped without being looked at. Inputs can be added and removed at any
+ * time, id of input is also its index. Not thread-safe.
+ */
+public interface CharsIndex {
+
+    interface Candidates {
+
+        List<Input> inputs();
+
+        /*
+         * Fraction of indexed inputs that are not candidates and do not have to be weighted at all.
+         */
+        float skippedFraction();
+    }
+
+    int add(Input input);
+
+    boolean remove(int id);
+
+    int size();
+
+    Candidates candidatesOf(PreparedPattern pattern);
+}
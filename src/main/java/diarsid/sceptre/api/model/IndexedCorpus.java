@@ -0,0 +1,14 @@
+package diarsid.sceptre.api.model;
+
+import java.util.List;
+
+/*
+ * Inputs analyzed once and reused by many Analyze calls: lowercased strings, separators and words
+ * of every input are computed only on corpus creation. Immutable and safe to share between threads.
+ */
+public interface IndexedCorpus {
+
+    List<Input> inputs();
+
+    int size();
+}
@@ -0,0 +1,16 @@
+package diarsid.sceptre.api.model;
+
+import java.util.List;
+
+/*
+ * Sorted outputs of inputs weighted within a Budget. If budget was exhausted before all inputs
+ * were weighted, outputs are partial and contain only the best of inputs weighted so far.
+ */
+public interface PartialOutputs {
+
+    List<Output> outputs();
+
+    boolean isPartial();
+
+    int unweightedQty();
+}
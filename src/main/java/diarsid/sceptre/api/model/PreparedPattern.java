@@ -0,0 +1,11 @@
+package diarsid.sceptre.api.model;
+
+/*
+ * Pattern analyzed once and reused by many Analyze calls. Immutable and safe to share between threads.
+ */
+public interface PreparedPattern {
+
+    String string();
+
+    int length();
+}
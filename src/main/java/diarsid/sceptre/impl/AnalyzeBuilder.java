@@ -4,11 +4,17 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
 import java.util.function.Consumer;
 
 import diarsid.sceptre.api.Analyze;
+import diarsid.sceptre.api.AnalyzeMetrics;
+import diarsid.sceptre.api.CorpusStorage;
 import diarsid.sceptre.api.LogSink;
 import diarsid.sceptre.api.LogType;
+import diarsid.sceptre.api.PoolingStrategy;
+import diarsid.sceptre.api.WeightCache;
 import diarsid.sceptre.api.impl.logsinks.LogSinkLineByLine;
 import diarsid.sceptre.api.model.Output;
 import diarsid.support.objects.Pools;
@@ -23,6 +29,12 @@ public class AnalyzeBuilder implements Analyze.Builder {
     public boolean logEnabled;
     public Map<LogType, Boolean> enabledByLogType;
     public List<Output.AdditionalData> additionalData;
+    public int parallelism;
+    public ExecutorService executor;
+    public AnalyzeMetrics metrics;
+    public WeightCache weightCache;
+    public PoolingStrategy poolingStrategy;
+    public CorpusStorage corpusStorage;
 
     public AnalyzeBuilder() {
     }
@@ -84,12 +96,60 @@ public class AnalyzeBuilder implements Analyze.Builder {
         return this;
     }
 
+    @Override
+    public AnalyzeBuilder withParallelism(int parallelism) {
+        if ( parallelism < 1 ) {
+            throw new IllegalArgumentException("Parallelism must be positive, but was: " + parallelism);
+        }
+
+        this.parallelism = parallelism;
+        return this;
+    }
+
+    @Override
+    public AnalyzeBuilder withExecutor(ExecutorService executor) {
+        this.executor = executor;
+        return this;
+    }
+
+    @Override
+    public AnalyzeBuilder withMetrics(AnalyzeMetrics metrics) {
+        this.metrics = metrics;
+        return this;
+    }
+
+    @Override
+    public AnalyzeBuilder withWeightCache(WeightCache weightCache) {
+        this.weightCache = weightCache;
+        return this;
+    }
+
+    @Override
+    public AnalyzeBuilder withPoolingStrategy(PoolingStrategy poolingStrategy) {
+        this.poolingStrategy = poolingStrategy;
+        return this;
+    }
+
+    @Override
+    public AnalyzeBuilder withCorpusStorage(CorpusStorage corpusStorage) {
+        this.corpusStorage = corpusStorage;
+        return this;
+    }
+
     @Override
     public Analyze build() {
         if ( isNull(this.pools) ) {
             this.pools = Pools.pools();
         }
 
+        if ( isNull(this.poolingStrategy) ) {
+            this.poolingStrategy = PoolingStrategy.SHARED;
+        }
+
+        if ( isNull(this.corpusStorage) ) {
+            this.corpusStorage = CorpusStorage.INPUTS;
+        }
+
         if ( isNull(this.enabledByLogType) ) {
             this.enabledByLogType = new HashMap<>();
         }
@@ -106,6 +166,17 @@ public class AnalyzeBuilder implements Analyze.Builder {
             }
         }
 
+        if ( nonNull(this.executor) ) {
+            if ( this.parallelism == 0 ) {
+                this.parallelism = Runtime.getRuntime().availableProcessors();
+            }
+        }
+        else {
+            if ( this.parallelism > 1 ) {
+                this.executor = ForkJoinPool.commonPool();
+            }
+        }
+
         return new AnalyzeImpl(this);
     }
 
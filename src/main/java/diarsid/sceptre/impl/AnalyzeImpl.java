@@ -1,61 +1,102 @@
 package diarsid.sceptre.impl;
 
+import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
 
 import diarsid.sceptre.api.Analyze;
+import diarsid.sceptre.api.AnalyzeMetrics;
+import diarsid.sceptre.api.Budget;
+import diarsid.sceptre.api.ResultCollector;
+import diarsid.sceptre.api.WeightCache;
 import diarsid.sceptre.api.WeightEstimate;
+import diarsid.sceptre.api.model.CharsIndex;
+import diarsid.sceptre.api.model.IndexedCorpus;
 import diarsid.sceptre.api.model.Input;
 import diarsid.sceptre.api.model.Output;
+import diarsid.sceptre.api.model.PartialOutputs;
+import diarsid.sceptre.api.model.PreparedPattern;
 import diarsid.sceptre.impl.logs.Logging;
 import diarsid.support.model.versioning.Version;
-import diarsid.support.objects.GuardedPool;
-import diarsid.support.objects.Pools;
 
-import static java.lang.Float.MAX_VALUE;
-import static java.lang.Float.MIN_VALUE;
+import static java.lang.Float.isNaN;
 import static java.util.Collections.sort;
+import static java.util.Objects.isNull;
 import static java.util.Objects.nonNull;
+import static java.util.Objects.requireNonNull;
 
+import static diarsid.sceptre.api.AnalyzeMetrics.Outcome.ACCEPTED;
+import static diarsid.sceptre.api.AnalyzeMetrics.Outcome.ACCEPTED_AS_EQUAL_TO_PATTERN;
+import static diarsid.sceptre.api.AnalyzeMetrics.Outcome.ACCEPTED_FROM_CACHE;
+import static diarsid.sceptre.api.AnalyzeMetrics.Outcome.REJECTED_AS_CACHED_TOO_BAD;
+import static diarsid.sceptre.api.AnalyzeMetrics.Outcome.REJECTED_AS_CLUSTERS_WEIGHT_TOO_BAD;
+import static diarsid.sceptre.api.AnalyzeMetrics.Outcome.REJECTED_AS_TOO_MUCH_POSITIONS_MISSED;
+import static diarsid.sceptre.api.AnalyzeMetrics.Outcome.REJECTED_AS_VARIANT_TOO_BAD;
+import static diarsid.sceptre.api.AnalyzeMetrics.Outcome.REJECTED_AS_WORSE_THAN_NO_WORSE_THAN;
+import static diarsid.sceptre.api.AnalyzeMetrics.Outcome.REJECTED_AS_WORSE_THAN_RETAINED;
+import static diarsid.sceptre.api.AnalyzeMetrics.Outcome.SKIPPED_AS_MISSING_PATTERN_CHARS;
+import static diarsid.sceptre.api.AnalyzeMetrics.Stage.POSITIONS_CLUSTERS;
+import static diarsid.sceptre.api.AnalyzeMetrics.Stage.POSITIONS_SEARCH;
+import static diarsid.sceptre.api.AnalyzeMetrics.Stage.VARIANT_SETUP;
+import static diarsid.sceptre.api.AnalyzeMetrics.Stage.WEIGHT_CALCULATION;
+import static diarsid.sceptre.api.AnalyzeMetrics.Stage.WORDS_AND_SEPARATORS;
 import static diarsid.sceptre.api.LogType.BASE;
 import static diarsid.sceptre.api.WeightEstimate.BAD;
-import static diarsid.support.strings.StringUtils.lower;
+import static diarsid.sceptre.api.WeightEstimate.TOO_BAD;
+import static diarsid.sceptre.impl.PreparedPatternImpl.mustBeImpl;
 
 public class AnalyzeImpl implements Analyze {
 
     public static final Version VERSION = new Version("1.5.0");
 
-    private final GuardedPool<AnalyzeUnit> analyzeUnitsPool;
+    static final int PARALLEL_CHUNK_MIN_SIZE = 256;
+    static final int NO_LIMIT = 0;
+
+    private final AnalyzeUnitsPool analyzeUnitsPool;
 
     private final Logging log;
     private final AnalyzeBuilder builder;
+    private final AnalyzeMetrics metrics;
+    private final boolean isMeasuring;
+    private final WeightCache weightCache;
+    private final boolean isCaching;
+    private final long weightCacheStamp;
     
     public AnalyzeImpl(AnalyzeBuilder builder) {
-        Pools pools = builder.pools;
         this.log = new Logging(builder);
-
-        GuardedPool<Cluster> clusterPool = pools.createPool(
-                Cluster.class, 
-                () -> new Cluster(this.log));
-
-        GuardedPool<WordInInput> wordPool = pools.createPool(
-                WordInInput.class,
-                () -> new WordInInput());
-
-        GuardedPool<WordsInInput.WordsInRange> wordsInRangePool = pools.createPool(
-                WordsInInput.WordsInRange.class,
-                () -> new WordsInInput.WordsInRange());
-
-        GuardedPool<Step2LoopCandidatePosition> step2LoopCandidatePositionsPool = pools.createPool(
-                Step2LoopCandidatePosition.class,
-                () -> new Step2LoopCandidatePosition());
-
-        this.analyzeUnitsPool = pools.createPool(
-                AnalyzeUnit.class,
-                () -> new AnalyzeUnit(this.log, clusterPool, wordPool, wordsInRangePool, step2LoopCandidatePositionsPool));
+        this.analyzeUnitsPool = AnalyzeUnitsPool.of(builder.poolingStrategy, builder.pools, this.log);
 
         this.builder = builder;
+        this.metrics = builder.metrics;
+        this.isMeasuring = nonNull(builder.metrics);
+        this.weightCache = builder.weightCache;
+        this.isCaching = nonNull(builder.weightCache) && ! builder.isDeclaringAdditionalData();
+        this.weightCacheStamp = weightCacheStampOf(VERSION);
+    }
+
+    /*
+     * 64-bit FNV-1a hash of the full version string. None of builder settings affects weights now,
+     * any setting that will affect them must be included into this stamp, so that cached weights
+     * of different versions or configurations are not mixed.
+     */
+    private static long weightCacheStampOf(Version version) {
+        String versionString = version.toString();
+        long stamp = 0xcbf29ce484222325L;
+        for ( int i = 0; i < versionString.length(); i++ ) {
+            stamp = (stamp ^ versionString.charAt(i)) * 0x100000001b3L;
+        }
+        return stamp;
     }
 
     @Override
@@ -75,18 +116,28 @@ public class AnalyzeImpl implements Analyze {
         return inputs;
     }
     
+    @Override
+    public PreparedPattern prepare(String pattern) {
+        return new PreparedPatternImpl(pattern);
+    }
+    
     @Override
     public Optional<Output> process(String pattern, Input input) {
-        return this.weightInputInternally(pattern, input);
+        return this.weightInputInternally(new PreparedPatternImpl(pattern), input);
     }
 
     @Override
     public float process(String pattern, String string) {
-        return this.weightStringInternally(pattern, string);
+        return this.weightStringInternally(new PreparedPatternImpl(pattern), string);
+    }
+
+    @Override
+    public float process(PreparedPattern pattern, String string) {
+        return this.weightStringInternally(mustBeImpl(pattern), string);
     }
 
     private Optional<Output> weightInputInternally(
-            String pattern, Input input) {
+            PreparedPatternImpl pattern, Input input) {
         float weight = this.weightStringInternally(pattern, input.string());
         if ( WeightEstimate.of(weight).isBetterThan(BAD) ) {
             Output output = new OutputImpl(input, 0, weight);
@@ -99,71 +150,358 @@ public class AnalyzeImpl implements Analyze {
     @Override
     public List<Output> processInputs(String pattern, List<Input> inputs) {
         return this.weightInputsListInternally(
-                pattern, null, inputs);
+                new PreparedPatternImpl(pattern), null, inputs, NO_LIMIT);
     }
     
     @Override
     public List<Output> processInputs(
             String pattern, String noWorseThan, List<Input> inputs) {
         return this.weightInputsListInternally(
-                pattern, noWorseThan, inputs);
+                new PreparedPatternImpl(pattern), noWorseThan, inputs, NO_LIMIT);
+    }
+
+    @Override
+    public List<Output> processInputs(String pattern, List<Input> inputs, int limit) {
+        return this.weightInputsListInternally(
+                new PreparedPatternImpl(pattern), null, inputs, mustBeValid(limit));
+    }
+
+    @Override
+    public List<Output> processInputs(
+            String pattern, String noWorseThan, List<Input> inputs, int limit) {
+        return this.weightInputsListInternally(
+                new PreparedPatternImpl(pattern), noWorseThan, inputs, mustBeValid(limit));
     }
     
     @Override
     public List<Output> processStrings(String pattern, List<String> strings) {
         return this.weightInputsListInternally(
-                pattern, null, stringsToInputs(strings));
+                new PreparedPatternImpl(pattern), null, stringsToInputs(strings), NO_LIMIT);
     }
     
     @Override
     public List<Output> processStrings(
             String pattern, String noWorseThan, List<String> strings) {
         return this.weightInputsListInternally(
-                pattern, noWorseThan, stringsToInputs(strings));
+                new PreparedPatternImpl(pattern), noWorseThan, stringsToInputs(strings), NO_LIMIT);
     }
 
-    private float weightStringInternally(
-            String pattern, String target) {
+    @Override
+    public List<Output> processStrings(String pattern, List<String> strings, int limit) {
+        return this.weightInputsListInternally(
+                new PreparedPatternImpl(pattern), null, stringsToInputs(strings), mustBeValid(limit));
+    }
+
+    @Override
+    public List<Output> processStrings(
+            String pattern, String noWorseThan, List<String> strings, int limit) {
+        return this.weightInputsListInternally(
+                new PreparedPatternImpl(pattern), noWorseThan, stringsToInputs(strings), mustBeValid(limit));
+    }
+
+    @Override
+    public List<Output> processInputs(PreparedPattern pattern, List<Input> inputs) {
+        return this.weightInputsListInternally(
+                mustBeImpl(pattern), null, inputs, NO_LIMIT);
+    }
+
+    @Override
+    public List<Output> processInputs(PreparedPattern pattern, String noWorseThan, List<Input> inputs) {
+        return this.weightInputsListInternally(
+                mustBeImpl(pattern), noWorseThan, inputs, NO_LIMIT);
+    }
+
+    @Override
+    public List<Output> processInputs(PreparedPattern pattern, List<Input> inputs, int limit) {
+        return this.weightInputsListInternally(
+                mustBeImpl(pattern), null, inputs, mustBeValid(limit));
+    }
+
+    @Override
+    public IndexedCorpus index(List<Input> inputs) {
+        return this.indexInternally(inputs);
+    }
+
+    @Override
+    public IndexedCorpus index(List<Input> inputs, Path file) {
+        IndexedCorpusImpl corpus = this.indexInternally(inputs);
+        IndexedCorpusFile.write(corpus, file);
+        return corpus;
+    }
+
+    @Override
+    public IndexedCorpus openIndex(Path file) {
+        IndexedCorpusFile corpusFile = IndexedCorpusFile.open(file);
+
+        if ( corpusFile.isOf(VERSION) ) {
+            return corpusFile.corpus(this.builder.corpusStorage);
+        }
+
+        /*
+         * Stale file is read into heap, not mapped, so that it can be replaced on any platform.
+         */
+        return this.index(corpusFile.inputs(), file);
+    }
+
+    private IndexedCorpusImpl indexInternally(List<Input> inputs) {
+        indexing(inputs);
+
+        AnalyzeUnit analyzeUnit = this.analyzeUnitsPool.give();
+        try {
+            return new IndexedCorpusImpl(inputs, analyzeUnit, this.builder.corpusStorage);
+        }
+        finally {
+            this.analyzeUnitsPool.takeBack(analyzeUnit);
+        }
+    }
+
+    @Override
+    public List<List<Output>> processMany(List<String> patterns, List<Input> inputs) {
+        return sortedOfEach(this.weightManyInternally(preparedOf(patterns), this.indexInternally(inputs)));
+    }
+
+    @Override
+    public List<List<Output>> processMany(List<String> patterns, IndexedCorpus corpus) {
+        return sortedOfEach(this.weightManyInternally(preparedOf(patterns), IndexedCorpusImpl.mustBeImpl(corpus)));
+    }
+
+    @Override
+    public List<Output> processManyBestOf(List<String> patterns, List<Input> inputs) {
+        return sortedBestOf(this.weightManyBestInternally(preparedOf(patterns), this.indexInternally(inputs)));
+    }
+
+    @Override
+    public List<Output> processManyBestOf(List<String> patterns, IndexedCorpus corpus) {
+        return sortedBestOf(this.weightManyBestInternally(preparedOf(patterns), IndexedCorpusImpl.mustBeImpl(corpus)));
+    }
+
+    @Override
+    public Analyze.Session newSession(IndexedCorpus corpus) {
+        return new SessionImpl(this, IndexedCorpusImpl.mustBeImpl(corpus));
+    }
+
+    @Override
+    public List<Output> processCorpus(String pattern, IndexedCorpus corpus) {
+        return this.weightCorpusInternally(
+                new PreparedPatternImpl(pattern), null, IndexedCorpusImpl.mustBeImpl(corpus), NO_LIMIT);
+    }
+
+    @Override
+    public List<Output> processCorpus(String pattern, IndexedCorpus corpus, int limit) {
+        return this.weightCorpusInternally(
+                new PreparedPatternImpl(pattern), null, IndexedCorpusImpl.mustBeImpl(corpus), mustBeValid(limit));
+    }
+
+    @Override
+    public List<Output> processCorpus(PreparedPattern pattern, IndexedCorpus corpus) {
+        return this.weightCorpusInternally(
+                mustBeImpl(pattern), null, IndexedCorpusImpl.mustBeImpl(corpus), NO_LIMIT);
+    }
+
+    @Override
+    public List<Output> processCorpus(PreparedPattern pattern, String noWorseThan, IndexedCorpus corpus) {
+        return this.weightCorpusInternally(
+                mustBeImpl(pattern), noWorseThan, IndexedCorpusImpl.mustBeImpl(corpus), NO_LIMIT);
+    }
+
+    @Override
+    public List<Output> processCorpus(PreparedPattern pattern, IndexedCorpus corpus, int limit) {
+        return this.weightCorpusInternally(
+                mustBeImpl(pattern), null, IndexedCorpusImpl.mustBeImpl(corpus), mustBeValid(limit));
+    }
+
+    @Override
+    public void processInputs(PreparedPattern pattern, List<Input> inputs, ResultCollector collector) {
+        indexing(inputs);
+        this.weightCollected(mustBeImpl(pattern), inputs, null, requireNonNull(collector));
+    }
 
+    @Override
+    public void processCorpus(PreparedPattern pattern, IndexedCorpus corpus, ResultCollector collector) {
+        IndexedCorpusImpl corpusImpl = IndexedCorpusImpl.mustBeImpl(corpus);
+        this.weightCollected(mustBeImpl(pattern), corpusImpl.inputs, corpusImpl, requireNonNull(collector));
+    }
+
+    @Override
+    public Map<Output.AdditionalData, Object> additionalDataOf(
+            PreparedPattern pattern, Input input, List<Output.AdditionalData> additionalData) {
         AnalyzeUnit analyze = this.analyzeUnitsPool.give();
 
         this.log.begins();
         try {
-            analyze.set(pattern, target);
-            if ( analyze.isVariantEqualsPattern() ) {
-                return analyze.weight.sum();
-            }
-            analyze.checkIfVariantTextContainsPatternDirectly();
-            analyze.findWordsAndPathAndTextSeparators();
-            analyze.setPatternCharsAndPositions();
-            analyze.findPatternCharsPositions();
-//            analyze.checkUnsortedPositionsNormality();
-            analyze.logUnsortedPositions();
-            analyze.sortPositions();
-            analyze.findPositionsClusters();
-            analyze.areAllPositionsPresentSortedAndNotPathSeparatorsBetween();
-            analyze.ifSingleWordAbbreviation();
-
-            if ( analyze.ifClustersPresentButWeightTooBad() ) {
-                log.add(BASE, "  %s is too bad.", analyze.variant);
-                return WeightEstimate.TOO_BAD;
-            }
+            this.weightAnalyzing(analyze, mustBeImpl(pattern), input.string());
+            return analyze.produceAdditionalData(additionalData);
+        }
+        finally {
+            this.log.finished();
+            this.analyzeUnitsPool.takeBack(analyze);
+        }
+    }
 
-            if ( analyze.areTooMuchPositionsMissed() ) {
-                return WeightEstimate.TOO_BAD;
-            }
+    @Override
+    public CharsIndex newCharsIndex() {
+        return new CharsIndexImpl();
+    }
 
-            analyze.calculateClustersImportance();
-            analyze.isFirstCharMatchInVariantAndPattern(pattern);
-            analyze.calculateWeight();
-            analyze.logState();
+    @Override
+    public CharsIndex newCharsIndex(List<Input> inputs) {
+        CharsIndex index = new CharsIndexImpl();
+        for ( Input input : inputs ) {
+            index.add(input);
+        }
+        return index;
+    }
 
-            if ( analyze.isVariantTooBad() ) {
-                log.add(BASE, "%s is too bad.", analyze.variant);
-                return WeightEstimate.TOO_BAD;
+    @Override
+    public List<Output> processCandidates(PreparedPattern pattern, CharsIndex.Candidates candidates) {
+        return this.weightInternally(
+                mustBeImpl(pattern), null, candidates.inputs(), null, null, NO_LIMIT);
+    }
+
+    @Override
+    public List<Output> processCandidates(PreparedPattern pattern, CharsIndex.Candidates candidates, int limit) {
+        return this.weightInternally(
+                mustBeImpl(pattern), null, candidates.inputs(), null, null, mustBeValid(limit));
+    }
+
+    @Override
+    public PartialOutputs processInputs(String pattern, List<Input> inputs, Budget budget) {
+        indexing(inputs);
+        return this.weightWithinBudget(
+                new PreparedPatternImpl(pattern), inputs, null, NO_LIMIT, requireNonNull(budget));
+    }
+
+    @Override
+    public PartialOutputs processInputs(PreparedPattern pattern, List<Input> inputs, Budget budget) {
+        indexing(inputs);
+        return this.weightWithinBudget(
+                mustBeImpl(pattern), inputs, null, NO_LIMIT, requireNonNull(budget));
+    }
+
+    @Override
+    public PartialOutputs processInputs(PreparedPattern pattern, List<Input> inputs, int limit, Budget budget) {
+        indexing(inputs);
+        return this.weightWithinBudget(
+                mustBeImpl(pattern), inputs, null, mustBeValid(limit), requireNonNull(budget));
+    }
+
+    @Override
+    public PartialOutputs processCorpus(PreparedPattern pattern, IndexedCorpus corpus, Budget budget) {
+        IndexedCorpusImpl corpusImpl = IndexedCorpusImpl.mustBeImpl(corpus);
+        return this.weightWithinBudget(
+                mustBeImpl(pattern), corpusImpl.inputs, corpusImpl, NO_LIMIT, requireNonNull(budget));
+    }
+
+    @Override
+    public PartialOutputs processCorpus(PreparedPattern pattern, IndexedCorpus corpus, int limit, Budget budget) {
+        IndexedCorpusImpl corpusImpl = IndexedCorpusImpl.mustBeImpl(corpus);
+        return this.weightWithinBudget(
+                mustBeImpl(pattern), corpusImpl.inputs, corpusImpl, mustBeValid(limit), requireNonNull(budget));
+    }
+
+    @Override
+    public Flow.Publisher<Output> processInputsStreaming(String pattern, List<Input> inputs) {
+        return this.weightInputsStreaming(new PreparedPatternImpl(pattern), inputs, null);
+    }
+
+    @Override
+    public Flow.Publisher<Output> processInputsStreaming(PreparedPattern pattern, List<Input> inputs) {
+        return this.weightInputsStreaming(mustBeImpl(pattern), inputs, null);
+    }
+
+    @Override
+    public Flow.Publisher<Output> processInputsStreaming(
+            String pattern, List<Input> inputs, Consumer<List<Output>> sortedOutputs) {
+        return this.weightInputsStreaming(new PreparedPatternImpl(pattern), inputs, requireNonNull(sortedOutputs));
+    }
+
+    @Override
+    public Flow.Publisher<Output> processInputsStreaming(
+            PreparedPattern pattern, List<Input> inputs, Consumer<List<Output>> sortedOutputs) {
+        return this.weightInputsStreaming(mustBeImpl(pattern), inputs, requireNonNull(sortedOutputs));
+    }
+
+    static int mustBeValid(int limit) {
+        if ( limit < 1 ) {
+            throw new IllegalArgumentException("Limit must be positive, but was: " + limit);
+        }
+
+        return limit;
+    }
+
+    private static PreparedPatternImpl[] preparedOf(List<String> patterns) {
+        if ( patterns.isEmpty() ) {
+            throw new IllegalArgumentException("Patterns must not be empty");
+        }
+
+        PreparedPatternImpl[] preparedPatterns = new PreparedPatternImpl[patterns.size()];
+        for ( int i = 0; i < preparedPatterns.length; i++ ) {
+            preparedPatterns[i] = new PreparedPatternImpl(patterns.get(i));
+        }
+
+        return preparedPatterns;
+    }
+
+    private static List<List<Output>> sortedOfEach(WeightedOutputs[] weightedOutputsOfPatterns) {
+        List<List<Output>> outputsOfPatterns = new ArrayList<>(weightedOutputsOfPatterns.length);
+        List<OutputImpl> outputs;
+        for ( WeightedOutputs weightedOutputs : weightedOutputsOfPatterns ) {
+            outputs = weightedOutputs.sorted();
+            indexing(outputs);
+            Object list = outputs;
+            outputsOfPatterns.add((List<Output>) list);
+        }
+
+        return outputsOfPatterns;
+    }
+
+    private static List<Output> sortedBestOf(OutputImpl[] bestByPosition) {
+        List<OutputImpl> outputs = new ArrayList<>();
+        for ( OutputImpl output : bestByPosition ) {
+            if ( nonNull(output) ) {
+                outputs.add(output);
             }
+        }
 
-            return analyze.weight.sum();
+        sort(outputs);
+        indexing(outputs);
+
+        Object list = outputs;
+        return (List<Output>) list;
+    }
+
+    private static WeightedOutputs newWeightedOutputs(int limit) {
+        if ( limit == NO_LIMIT ) {
+            return WeightedOutputs.all();
+        }
+        else {
+            return WeightedOutputs.best(limit);
+        }
+    }
+
+    private float weightStringInternally(
+            PreparedPatternImpl pattern, String target) {
+        if ( ! this.isCaching ) {
+            return this.weightStringAnalyzing(pattern, target);
+        }
+
+        float weight = this.weightCache.weightOf(this.weightCacheStamp, pattern.pattern, target);
+        if ( isNaN(weight) ) {
+            weight = this.weightStringAnalyzing(pattern, target);
+            this.weightCache.put(this.weightCacheStamp, pattern.pattern, target, weight);
+        }
+
+        return weight;
+    }
+
+    private float weightStringAnalyzing(
+            PreparedPatternImpl pattern, String target) {
+
+        AnalyzeUnit analyze = this.analyzeUnitsPool.give();
+
+        this.log.begins();
+        try {
+            return this.weightAnalyzing(analyze, pattern, target);
         }
         finally {
             this.log.finished();
@@ -171,6 +509,44 @@ public class AnalyzeImpl implements Analyze {
         }
     }
 
+    private float weightAnalyzing(AnalyzeUnit analyze, PreparedPatternImpl pattern, String target) {
+        analyze.set(pattern, target);
+        if ( analyze.isVariantEqualsPattern() ) {
+            return analyze.weight.sum();
+        }
+        analyze.checkIfVariantTextContainsPatternDirectly();
+        analyze.findWordsAndPathAndTextSeparators();
+        analyze.setPositions();
+        analyze.findPatternCharsPositions();
+//        analyze.checkUnsortedPositionsNormality();
+        analyze.logUnsortedPositions();
+        analyze.sortPositions();
+        analyze.findPositionsClusters();
+        analyze.areAllPositionsPresentSortedAndNotPathSeparatorsBetween();
+        analyze.ifSingleWordAbbreviation();
+
+        if ( analyze.ifClustersPresentButWeightTooBad() ) {
+            log.add(BASE, "  %s is too bad.", analyze.variant);
+            return WeightEstimate.TOO_BAD;
+        }
+
+        if ( analyze.areTooMuchPositionsMissed() ) {
+            return WeightEstimate.TOO_BAD;
+        }
+
+        analyze.calculateClustersImportance();
+        analyze.isFirstCharMatchInVariantAndPattern(pattern.pattern);
+        analyze.calculateWeight();
+        analyze.logState();
+
+        if ( analyze.isVariantTooBad() ) {
+            log.add(BASE, "%s is too bad.", analyze.variant);
+            return WeightEstimate.TOO_BAD;
+        }
+
+        return analyze.weight.sum();
+    }
+
     private static void indexing(List<? extends Indexable> inputs) {
         if ( inputs.isEmpty() ) {
             return;
@@ -188,125 +564,809 @@ public class AnalyzeImpl implements Analyze {
     }
     
     private List<Output> weightInputsListInternally(
-            String pattern, String noWorseThan, List<Input> inputs) {
+            PreparedPatternImpl pattern, String noWorseThan, List<Input> inputs, int limit) {
         indexing(inputs);
 
-        boolean weightLimitPresent;
-        float weightLimit = 0.0f;
+        return this.weightInternally(pattern, noWorseThan, inputs, null, null, limit);
+    }
+
+    private List<Output> weightCorpusInternally(
+            PreparedPatternImpl pattern, String noWorseThan, IndexedCorpusImpl corpus, int limit) {
+        return this.weightInternally(pattern, noWorseThan, corpus.inputs, corpus, null, limit);
+    }
+
+    List<Output> weightCorpusSelectionInternally(
+            PreparedPatternImpl pattern, IndexedCorpusImpl corpus, int[] selection, int limit) {
+        return this.weightInternally(pattern, null, corpus.inputs, corpus, selection, limit);
+    }
+
+    /*
+     * If corpus is present, inputs are its inputs and their separators and words are taken from it.
+     * If selection is present, only inputs with selected indexes, in ascending order, are weighted.
+     */
+    private List<Output> weightInternally(
+            PreparedPatternImpl pattern,
+            String noWorseThan,
+            List<Input> inputs,
+            IndexedCorpusImpl corpus,
+            int[] selection,
+            int limit) {
+        WeightLimit weightLimit;
         if ( nonNull(noWorseThan) ) {
-            weightLimit = weightStringInternally(pattern, noWorseThan);
-            weightLimitPresent = WeightEstimate.of(weightLimit).isBetterThan(BAD);
+            float noWorseThanWeight = weightStringInternally(pattern, noWorseThan);
+            weightLimit = new WeightLimit(
+                    noWorseThan,
+                    noWorseThanWeight,
+                    WeightEstimate.of(noWorseThanWeight).isBetterThan(BAD));
         } else {
-            weightLimitPresent = false;
+            weightLimit = WeightLimit.ABSENT;
         }
-        
-        pattern = lower(pattern);
 
-        String inputString;
-        
-        List<OutputImpl> weightedOutputs = new ArrayList<>();
+        List<OutputImpl> weightedOutputs;
+
+        this.log.begins();
+        try {
+            int weightedQty = isNull(selection) ? inputs.size() : selection.length;
+            if ( this.isParallelApplicableTo(weightedQty) ) {
+                weightedOutputs = this.weightInputsInParallel(
+                        pattern, weightLimit, inputs, corpus, selection, weightedQty, limit).sorted();
+            }
+            else {
+                weightedOutputs = this.weightInputsChunk(
+                        pattern, weightLimit, inputs, corpus, selection, 0, weightedQty, limit).sorted();
+            }
+
+            indexing(weightedOutputs);
+
+            if ( this.log.isEnabled(BASE) ) {
+                this.log.add(BASE, "outputs qty: %s", weightedOutputs.size());
+
+                OutputImpl output;
+                for ( int i = 0; i < weightedOutputs.size(); i++ ) {
+                    output = weightedOutputs.get(i);
+                    this.log.add(BASE, "    %.3f : %s", output.weight(), output.input().string);
+                }
+            }
+        }
+        finally {
+            this.log.finished();
+        }
+
+        Object list = weightedOutputs;
+        return (List<Output>) list;
+    }
+
+    /*
+     * Time is checked before every input, so that budget is exceeded by no more than the time
+     * of weighting of one input. Inputs are weighted in the calling thread even if parallelism
+     * is specified, as budgets are meant for short interactive lookups.
+     */
+    private PartialOutputs weightWithinBudget(
+            PreparedPatternImpl pattern,
+            List<Input> inputs,
+            IndexedCorpusImpl corpus,
+            int limit,
+            Budget budget) {
+        long deadline = System.nanoTime() + budget.timeNanos();
+        boolean isLimitedByTime = budget.isLimitedByTime();
+        int[] order = budget.hasPriority() ? orderOf(inputs, budget.priority()) : null;
+        int budgetQty = Math.min(inputs.size(), budget.maxInputs());
+
+        WeightedOutputs weightedOutputs = newWeightedOutputs(limit);
+        List<OutputImpl> sortedOutputs;
+        int weightedQty = 0;
+
+        this.log.begins();
         AnalyzeUnit analyzeUnit = this.analyzeUnitsPool.give();
-        
-        float minWeight = MAX_VALUE;
-        float maxWeight = MIN_VALUE;
+        try {
+            int i;
+            for ( int position = 0; position < budgetQty; position++ ) {
+                if ( isLimitedByTime && System.nanoTime() - deadline >= 0 ) {
+                    break;
+                }
+                i = isNull(order) ? position : order[position];
+                this.weightInput(analyzeUnit, pattern, WeightLimit.ABSENT, inputs, corpus, i, weightedOutputs);
+                weightedQty++;
+            }
+
+            sortedOutputs = weightedOutputs.sorted();
+            indexing(sortedOutputs);
+
+            if ( this.log.isEnabled(BASE) ) {
+                this.log.add(BASE, "outputs qty: %s, unweighted qty: %s", sortedOutputs.size(), inputs.size() - weightedQty);
+            }
+        }
+        finally {
+            this.analyzeUnitsPool.takeBack(analyzeUnit);
+            this.log.finished();
+        }
+
+        Object list = sortedOutputs;
+        return new PartialOutputsImpl((List<Output>) list, inputs.size() - weightedQty);
+    }
+
+    private void weightCollected(
+            PreparedPatternImpl pattern, List<Input> inputs, IndexedCorpusImpl corpus, ResultCollector collector) {
+        WeightedOutputs collected = WeightedOutputs.collected(collector);
 
         this.log.begins();
+        AnalyzeUnit analyzeUnit = this.analyzeUnitsPool.give();
         try {
-            OutputImpl output;
-            inputsWeighting: for (Input input : inputs) {
-                inputString = input.string();
-                
-                log.add(BASE, "");
-                log.add(BASE, "===== Pattern:'%s' Input:'%s' ===== ", pattern, inputString);
+            for ( int i = 0; i < inputs.size(); i++ ) {
+                this.weightInput(analyzeUnit, pattern, WeightLimit.ABSENT, inputs, corpus, i, collected);
+            }
 
-                analyzeUnit.set(pattern, inputString);
+            if ( this.log.isEnabled(BASE) ) {
+                this.log.add(BASE, "collected qty: %s", collected.size());
+            }
+        }
+        finally {
+            this.analyzeUnitsPool.takeBack(analyzeUnit);
+            this.log.finished();
+        }
+    }
 
-                if ( analyzeUnit.isVariantNotEqualsPattern() ) {
-                    analyzeUnit.checkIfVariantTextContainsPatternDirectly();
-                    analyzeUnit.findWordsAndPathAndTextSeparators();
-                    analyzeUnit.setPatternCharsAndPositions();
-                    analyzeUnit.findPatternCharsPositions();
-                    analyzeUnit.logUnsortedPositions();
-                    analyzeUnit.sortPositions();
-                    analyzeUnit.findPositionsClusters();
-                    analyzeUnit.areAllPositionsPresentSortedAndNotPathSeparatorsBetween();
-                    analyzeUnit.ifSingleWordAbbreviation();
-
-                    if ( analyzeUnit.ifClustersPresentButWeightTooBad() ) {
-                        log.add(BASE, "  %s is too bad.", analyzeUnit.variant);
-                        
-                        analyzeUnit.clearForReuse();
-                        continue inputsWeighting;
-                    }
+    private static int[] orderOf(List<Input> inputs, Comparator<Input> priority) {
+        Integer[] order = new Integer[inputs.size()];
+        for ( int i = 0; i < order.length; i++ ) {
+            order[i] = i;
+        }
 
-                    if ( analyzeUnit.areTooMuchPositionsMissed() ) {
-                        
-                        analyzeUnit.clearForReuse();
-                        continue inputsWeighting;
-                    }
+        Arrays.sort(order, (i1, i2) -> priority.compare(inputs.get(i1), inputs.get(i2)));
 
-                    analyzeUnit.calculateClustersImportance();
-                    analyzeUnit.isFirstCharMatchInVariantAndPattern(pattern);
-                    analyzeUnit.calculateWeight();  
-                    analyzeUnit.logState();
+        int[] orderInts = new int[order.length];
+        for ( int i = 0; i < order.length; i++ ) {
+            orderInts[i] = order[i];
+        }
 
-                    if ( analyzeUnit.isVariantTooBad() ) {
-                        log.add(BASE, "  %s is too bad.", analyzeUnit.variant);
-                        
-                        analyzeUnit.clearForReuse();                        
-                        continue inputsWeighting;
-                    }
+        return orderInts;
+    }
 
-                    if ( analyzeUnit.weight.sum() < minWeight ) {
-                        minWeight = analyzeUnit.weight.sum();
-                    }
+    /*
+     * Inputs are weighted one by one against all patterns, so that data of input, which separators
+     * and words are taken from corpus, remains in CPU cache while it is weighted against every pattern.
+     */
+    private WeightedOutputs[] weightManyInternally(PreparedPatternImpl[] patterns, IndexedCorpusImpl corpus) {
+        this.log.begins();
+        try {
+            if ( this.isParallelApplicableTo(corpus.size()) ) {
+                return this.weightManyInParallel(patterns, corpus);
+            }
+            else {
+                return this.weightManyChunk(patterns, corpus, 0, corpus.size());
+            }
+        }
+        finally {
+            this.log.finished();
+        }
+    }
+
+    private WeightedOutputs[] weightManyInParallel(PreparedPatternImpl[] patterns, IndexedCorpusImpl corpus) {
+        int[] chunksBounds = this.chunksBoundsOf(corpus.size());
+        int chunksQty = chunksBounds.length - 1;
 
-                    if ( analyzeUnit.weight.sum() > maxWeight ) {
-                        maxWeight = analyzeUnit.weight.sum();
-                    }                
+        List<Future<WeightedOutputs[]>> chunksWeighting = new ArrayList<>(chunksQty - 1);
+        for ( int i = 1; i < chunksQty; i++ ) {
+            int chunkStart = chunksBounds[i];
+            int chunkEnd = chunksBounds[i + 1];
+            chunksWeighting.add(this.builder.executor.submit(() -> {
+                this.log.begins();
+                try {
+                    return this.weightManyChunk(patterns, corpus, chunkStart, chunkEnd);
                 }
+                finally {
+                    this.log.finished();
+                }
+            }));
+        }
+
+        WeightedOutputs[] weightedOutputsOfPatterns;
+        try {
+            weightedOutputsOfPatterns = this.weightManyChunk(patterns, corpus, chunksBounds[0], chunksBounds[1]);
+        }
+        catch (RuntimeException e) {
+            chunksWeighting.forEach(chunkWeighting -> chunkWeighting.cancel(true));
+            throw e;
+        }
+
+        WeightedOutputs[] chunkWeightedOutputsOfPatterns;
+        for ( int i = 0; i < chunksWeighting.size(); i++ ) {
+            chunkWeightedOutputsOfPatterns = awaitChunk(chunksWeighting.get(i), chunksWeighting);
+            for ( int p = 0; p < patterns.length; p++ ) {
+                weightedOutputsOfPatterns[p].addAll(chunkWeightedOutputsOfPatterns[p]);
+            }
+        }
+
+        return weightedOutputsOfPatterns;
+    }
+
+    private WeightedOutputs[] weightManyChunk(
+            PreparedPatternImpl[] patterns, IndexedCorpusImpl corpus, int chunkStart, int chunkEnd) {
+        WeightedOutputs[] weightedOutputsOfPatterns = new WeightedOutputs[patterns.length];
+        for ( int p = 0; p < patterns.length; p++ ) {
+            weightedOutputsOfPatterns[p] = WeightedOutputs.all();
+        }
 
-                if ( this.builder.isDeclaringAdditionalData() ) {
-                    output = new OutputImpl(
-                            input,
-                            analyzeUnit.weight.sum(),
-                            analyzeUnit.produceAdditionalData(this.builder.additionalData));
+        AnalyzeUnit analyzeUnit = this.analyzeUnitsPool.give();
+        try {
+            for ( int i = chunkStart; i < chunkEnd; i++ ) {
+                for ( int p = 0; p < patterns.length; p++ ) {
+                    this.weightInput(
+                            analyzeUnit, patterns[p], WeightLimit.ABSENT, corpus.inputs, corpus, i,
+                            weightedOutputsOfPatterns[p]);
                 }
-                else {
-                    output = new OutputImpl(input, analyzeUnit.weight.sum());
+            }
+        }
+        finally {
+            this.analyzeUnitsPool.takeBack(analyzeUnit);
+        }
+
+        return weightedOutputsOfPatterns;
+    }
+
+    /*
+     * Every input is included once, with the best of its weights among all patterns.
+     * If weights are equal, output of the pattern that is earlier in patterns list is taken.
+     * Best outputs are kept by position of input in corpus, not by index of input, because
+     * inputs are owned by caller and may keep indexes of other lists.
+     */
+    private OutputImpl[] weightManyBestInternally(PreparedPatternImpl[] patterns, IndexedCorpusImpl corpus) {
+        OutputImpl[] bestByPosition = new OutputImpl[corpus.size()];
+
+        this.log.begins();
+        try {
+            if ( this.isParallelApplicableTo(corpus.size()) ) {
+                this.weightManyBestInParallel(patterns, corpus, bestByPosition);
+            }
+            else {
+                this.weightManyBestChunk(patterns, corpus, 0, corpus.size(), bestByPosition);
+            }
+        }
+        finally {
+            this.log.finished();
+        }
+
+        return bestByPosition;
+    }
+
+    private void weightManyBestInParallel(
+            PreparedPatternImpl[] patterns, IndexedCorpusImpl corpus, OutputImpl[] bestByPosition) {
+        int[] chunksBounds = this.chunksBoundsOf(corpus.size());
+        int chunksQty = chunksBounds.length - 1;
+
+        List<Future<OutputImpl[]>> chunksWeighting = new ArrayList<>(chunksQty - 1);
+        for ( int i = 1; i < chunksQty; i++ ) {
+            int chunkStart = chunksBounds[i];
+            int chunkEnd = chunksBounds[i + 1];
+            chunksWeighting.add(this.builder.executor.submit(() -> {
+                this.log.begins();
+                try {
+                    return this.weightManyBestChunk(patterns, corpus, chunkStart, chunkEnd, bestByPosition);
                 }
+                finally {
+                    this.log.finished();
+                }
+            }));
+        }
+
+        try {
+            this.weightManyBestChunk(patterns, corpus, chunksBounds[0], chunksBounds[1], bestByPosition);
+        }
+        catch (RuntimeException e) {
+            chunksWeighting.forEach(chunkWeighting -> chunkWeighting.cancel(true));
+            throw e;
+        }
+
+        for ( int i = 0; i < chunksWeighting.size(); i++ ) {
+            awaitChunk(chunksWeighting.get(i), chunksWeighting);
+        }
+    }
+
+    /*
+     * Chunks fill disjoint ranges of positions, completion of chunk is awaited before outputs are read.
+     */
+    private OutputImpl[] weightManyBestChunk(
+            PreparedPatternImpl[] patterns,
+            IndexedCorpusImpl corpus,
+            int chunkStart,
+            int chunkEnd,
+            OutputImpl[] bestByPosition) {
+        WeightedOutputs.Streamed weightedOutputs = WeightedOutputs.streamed(false);
 
-                if ( weightLimitPresent ) {
-                    if ( output.weight() <= weightLimit ) {
-                        weightedOutputs.add(output);
-                    } else {
-                        log.add(BASE, "%s is worse than: %s", inputString, noWorseThan);
+        AnalyzeUnit analyzeUnit = this.analyzeUnitsPool.give();
+        try {
+            OutputImpl output;
+            OutputImpl best;
+            for ( int i = chunkStart; i < chunkEnd; i++ ) {
+                best = null;
+                for ( int p = 0; p < patterns.length; p++ ) {
+                    this.weightInput(
+                            analyzeUnit, patterns[p], WeightLimit.ABSENT, corpus.inputs, corpus, i, weightedOutputs);
+                    output = weightedOutputs.extractAdded();
+                    if ( nonNull(output) && ( isNull(best) || output.weight() < best.weight() ) ) {
+                        best = output;
                     }
-                } else {
-                    weightedOutputs.add(output);
                 }
-                
-                analyzeUnit.clearForReuse();
+                bestByPosition[i] = best;
             }
-        
-            sort(weightedOutputs);
+        }
+        finally {
+            this.analyzeUnitsPool.takeBack(analyzeUnit);
+        }
 
-            indexing(weightedOutputs);
+        return bestByPosition;
+    }
+
+    private boolean isParallelApplicableTo(int weightedQty) {
+        return
+                this.builder.parallelism > 1 &&
+                weightedQty >= PARALLEL_CHUNK_MIN_SIZE * 2;
+    }
+
+    private WeightedOutputs weightInputsInParallel(
+            PreparedPatternImpl pattern,
+            WeightLimit weightLimit,
+            List<Input> inputs,
+            IndexedCorpusImpl corpus,
+            int[] selection,
+            int weightedQty,
+            int limit) {
+        int[] chunksBounds = this.chunksBoundsOf(weightedQty);
+        int chunksQty = chunksBounds.length - 1;
 
-            this.log.add(BASE, "outputs qty: " + weightedOutputs.size());
+        List<Future<WeightedOutputs>> chunksWeighting = new ArrayList<>(chunksQty - 1);
+        for ( int i = 1; i < chunksQty; i++ ) {
+            int chunkStart = chunksBounds[i];
+            int chunkEnd = chunksBounds[i + 1];
+            chunksWeighting.add(this.builder.executor.submit(() -> {
+                this.log.begins();
+                try {
+                    return this.weightInputsChunk(
+                            pattern, weightLimit, inputs, corpus, selection, chunkStart, chunkEnd, limit);
+                }
+                finally {
+                    this.log.finished();
+                }
+            }));
+        }
 
-            for ( int i = 0; i < weightedOutputs.size(); i++ ) {
-                output = weightedOutputs.get(i);
-                this.log.add(BASE, "    %.3f : %s", output.weight(), output.input().string);
+        WeightedOutputs weightedOutputs;
+        try {
+            weightedOutputs = this.weightInputsChunk(
+                    pattern, weightLimit, inputs, corpus, selection, chunksBounds[0], chunksBounds[1], limit);
+        }
+        catch (RuntimeException e) {
+            chunksWeighting.forEach(chunkWeighting -> chunkWeighting.cancel(true));
+            throw e;
+        }
+
+        for ( int i = 0; i < chunksWeighting.size(); i++ ) {
+            weightedOutputs.addAll(awaitChunk(chunksWeighting.get(i), chunksWeighting));
+        }
+
+        return weightedOutputs;
+    }
+
+    private int[] chunksBoundsOf(int weightedQty) {
+        int chunksQty = Math.min(this.builder.parallelism, weightedQty / PARALLEL_CHUNK_MIN_SIZE);
+        int chunkSize = weightedQty / chunksQty;
+        int chunkSizeRemainder = weightedQty % chunksQty;
+
+        int[] chunksBounds = new int[chunksQty + 1];
+        for ( int i = 0; i < chunksQty; i++ ) {
+            chunksBounds[i + 1] = chunksBounds[i] + chunkSize + ( i < chunkSizeRemainder ? 1 : 0 );
+        }
+
+        return chunksBounds;
+    }
+
+    private static <T> T awaitChunk(
+            Future<T> chunkWeighting, List<Future<T>> allChunksWeighting) {
+        try {
+            return chunkWeighting.get();
+        }
+        catch (InterruptedException e) {
+            allChunksWeighting.forEach(otherChunkWeighting -> otherChunkWeighting.cancel(true));
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for inputs weighting", e);
+        }
+        catch (ExecutionException e) {
+            allChunksWeighting.forEach(otherChunkWeighting -> otherChunkWeighting.cancel(true));
+            Throwable cause = e.getCause();
+            if ( cause instanceof RuntimeException ) {
+                throw (RuntimeException) cause;
+            }
+            else if ( cause instanceof Error ) {
+                throw (Error) cause;
+            }
+            else {
+                throw new IllegalStateException(cause);
+            }
+        }
+    }
+
+    private WeightedOutputs weightInputsChunk(
+            PreparedPatternImpl pattern,
+            WeightLimit weightLimit,
+            List<Input> inputs,
+            IndexedCorpusImpl corpus,
+            int[] selection,
+            int chunkStart,
+            int chunkEnd,
+            int limit) {
+        WeightedOutputs weightedOutputs = newWeightedOutputs(limit);
+        AnalyzeUnit analyzeUnit = this.analyzeUnitsPool.give();
+
+        try {
+            int i;
+            for ( int position = chunkStart; position < chunkEnd; position++ ) {
+                i = isNull(selection) ? position : selection[position];
+                this.weightInput(analyzeUnit, pattern, weightLimit, inputs, corpus, i, weightedOutputs);
             }
         }
         finally {
-            this.log.finished();
             this.analyzeUnitsPool.takeBack(analyzeUnit);
         }
 
-        Object list = weightedOutputs;
-        return (List<Output>) list;
+        return weightedOutputs;
+    }
+
+    private void weightInput(
+            AnalyzeUnit analyzeUnit,
+            PreparedPatternImpl pattern,
+            WeightLimit weightLimit,
+            List<Input> inputs,
+            IndexedCorpusImpl corpus,
+            int i,
+            WeightedOutputs weightedOutputs) {
+        boolean isMissedTooMuch = isNull(corpus) ?
+                pattern.isMissedTooMuchIn(inputs.get(i)) :
+                corpus.isMissedTooMuchBy(pattern, i);
+
+        if ( isMissedTooMuch ) {
+            if ( this.log.isEnabled(BASE) ) {
+                String inputString = inputs.get(i).string();
+                log.add(BASE, "");
+                log.add(BASE, "===== Pattern:'%s' Input:'%s' ===== ", pattern, inputString);
+                log.add(BASE, "    %s, too much absent pattern chars, skip variant!", inputString);
+            }
+            this.inputFinished(SKIPPED_AS_MISSING_PATTERN_CHARS);
+            return;
+        }
+
+        Input input = inputs.get(i);
+        String inputString = input.string();
+
+        log.add(BASE, "");
+        log.add(BASE, "===== Pattern:'%s' Input:'%s' ===== ", pattern, inputString);
+
+        if ( this.isCaching ) {
+            float cachedWeight = this.weightCache.weightOf(this.weightCacheStamp, pattern.pattern, inputString);
+            if ( ! isNaN(cachedWeight) ) {
+                if ( cachedWeight == TOO_BAD ) {
+                    log.add(BASE, "  %s is too bad, cached.", inputString);
+                    this.inputFinished(REJECTED_AS_CACHED_TOO_BAD);
+                }
+                else {
+                    this.offer(analyzeUnit, input, i, cachedWeight, weightLimit, weightedOutputs, ACCEPTED_FROM_CACHE);
+                }
+                return;
+            }
+        }
+
+        try {
+            long stageStart = this.stageStarts();
+
+            if ( isNull(corpus) ) {
+                analyzeUnit.set(pattern, inputString);
+            }
+            else {
+                analyzeUnit.set(pattern, inputString, corpus.loweredOf(i, input));
+            }
+
+            boolean variantNotEqualsPattern = analyzeUnit.isVariantNotEqualsPattern();
+            stageStart = this.stageFinished(VARIANT_SETUP, stageStart);
+
+            if ( variantNotEqualsPattern ) {
+                analyzeUnit.checkIfVariantTextContainsPatternDirectly();
+                if ( isNull(corpus) ) {
+                    analyzeUnit.findWordsAndPathAndTextSeparators();
+                }
+                else {
+                    analyzeUnit.setWordsAndPathAndTextSeparators(corpus, i);
+                }
+                stageStart = this.stageFinished(WORDS_AND_SEPARATORS, stageStart);
+
+                analyzeUnit.setPositions();
+                analyzeUnit.findPatternCharsPositions();
+                analyzeUnit.logUnsortedPositions();
+                analyzeUnit.sortPositions();
+                stageStart = this.stageFinished(POSITIONS_SEARCH, stageStart);
+
+                analyzeUnit.findPositionsClusters();
+                analyzeUnit.areAllPositionsPresentSortedAndNotPathSeparatorsBetween();
+                analyzeUnit.ifSingleWordAbbreviation();
+                stageStart = this.stageFinished(POSITIONS_CLUSTERS, stageStart);
+
+                if ( analyzeUnit.ifClustersPresentButWeightTooBad() ) {
+                    log.add(BASE, "  %s is too bad.", analyzeUnit.variant);
+                    this.cache(pattern, inputString, TOO_BAD);
+                    this.inputFinished(REJECTED_AS_CLUSTERS_WEIGHT_TOO_BAD);
+                    return;
+                }
+
+                if ( analyzeUnit.areTooMuchPositionsMissed() ) {
+                    this.cache(pattern, inputString, TOO_BAD);
+                    this.inputFinished(REJECTED_AS_TOO_MUCH_POSITIONS_MISSED);
+                    return;
+                }
+
+                analyzeUnit.calculateClustersImportance();
+                analyzeUnit.isFirstCharMatchInVariantAndPattern(pattern.pattern);
+                analyzeUnit.calculateWeight();
+                analyzeUnit.logState();
+                this.stageFinished(WEIGHT_CALCULATION, stageStart);
+
+                if ( analyzeUnit.isVariantTooBad() ) {
+                    log.add(BASE, "  %s is too bad.", analyzeUnit.variant);
+                    this.cache(pattern, inputString, TOO_BAD);
+                    this.inputFinished(REJECTED_AS_VARIANT_TOO_BAD);
+                    return;
+                }
+            }
+
+            float weight = analyzeUnit.weight.sum();
+            this.cache(pattern, inputString, weight);
+
+            this.offer(
+                    analyzeUnit, input, i, weight, weightLimit, weightedOutputs,
+                    variantNotEqualsPattern ? ACCEPTED : ACCEPTED_AS_EQUAL_TO_PATTERN);
+        }
+        finally {
+            analyzeUnit.clearForReuse();
+        }
+    }
+
+    /*
+     * Analyze unit is used only to produce additional data, which is never declared if weight is cached.
+     */
+    private void offer(
+            AnalyzeUnit analyzeUnit,
+            Input input,
+            int position,
+            float weight,
+            WeightLimit weightLimit,
+            WeightedOutputs weightedOutputs,
+            AnalyzeMetrics.Outcome acceptedOutcome) {
+        if ( weightLimit.isPresent && weight > weightLimit.weight ) {
+            log.add(BASE, "%s is worse than: %s", input.string(), weightLimit.noWorseThan);
+            this.inputFinished(REJECTED_AS_WORSE_THAN_NO_WORSE_THAN);
+            return;
+        }
+
+        if ( ! weightedOutputs.isAcceptable(weight, position) ) {
+            log.add(BASE, "%s is worse than retained outputs", input.string());
+            this.inputFinished(REJECTED_AS_WORSE_THAN_RETAINED);
+            return;
+        }
+
+        if ( weightedOutputs.collect(position, weight) ) {
+            this.inputFinished(acceptedOutcome);
+            return;
+        }
+
+        OutputImpl output;
+        if ( this.builder.isDeclaringAdditionalData() ) {
+            output = new OutputImpl(
+                    input,
+                    weight,
+                    analyzeUnit.produceAdditionalData(this.builder.additionalData));
+        }
+        else {
+            output = new OutputImpl(input, weight);
+        }
+
+        weightedOutputs.add(position, output);
+        this.inputFinished(acceptedOutcome);
+    }
+
+    private void cache(PreparedPatternImpl pattern, String inputString, float weight) {
+        if ( this.isCaching ) {
+            this.weightCache.put(this.weightCacheStamp, pattern.pattern, inputString, weight);
+        }
+    }
+
+    private Flow.Publisher<Output> weightInputsStreaming(
+            PreparedPatternImpl pattern, List<Input> inputs, Consumer<List<Output>> sortedOutputs) {
+        indexing(inputs);
+
+        Executor executor = nonNull(this.builder.executor) ? this.builder.executor : ForkJoinPool.commonPool();
+
+        return subscriber -> {
+            requireNonNull(subscriber);
+            subscriber.onSubscribe(new StreamedWeighting(pattern, inputs, sortedOutputs, subscriber, executor));
+        };
+    }
+
+    private long stageStarts() {
+        if ( this.isMeasuring ) {
+            return System.nanoTime();
+        }
+
+        return 0;
+    }
+
+    private long stageFinished(AnalyzeMetrics.Stage stage, long stageStart) {
+        if ( this.isMeasuring ) {
+            long now = System.nanoTime();
+            this.metrics.stageFinished(stage, now - stageStart);
+            return now;
+        }
+
+        return 0;
+    }
+
+    private void inputFinished(AnalyzeMetrics.Outcome outcome) {
+        if ( this.isMeasuring ) {
+            this.metrics.inputFinished(outcome);
+        }
+    }
+
+    private static class WeightLimit {
+
+        static final WeightLimit ABSENT = new WeightLimit(null, 0.0f, false);
+
+        final String noWorseThan;
+        final float weight;
+        final boolean isPresent;
+
+        WeightLimit(String noWorseThan, float weight, boolean isPresent) {
+            this.noWorseThan = noWorseThan;
+            this.weight = weight;
+            this.isPresent = isPresent;
+        }
     }
     
+
+    /*
+     * Weighting loop runs on executor only while there is demand, so that executor thread is not blocked
+     * by a slow subscriber. Demand transition from zero schedules the loop and loop exits when demand
+     * is satisfied, so there is never more than one loop running for a subscription.
+     */
+    private class StreamedWeighting implements Flow.Subscription, Runnable {
+
+        private final PreparedPatternImpl pattern;
+        private final List<Input> inputs;
+        private final Consumer<List<Output>> sortedOutputs;
+        private final Flow.Subscriber<? super Output> subscriber;
+        private final Executor executor;
+        private final WeightedOutputs.Streamed weightedOutputs;
+        private final AtomicLong requested;
+        private volatile boolean cancelled;
+        private volatile IllegalArgumentException requestError;
+        private int nextInput;
+
+        StreamedWeighting(
+                PreparedPatternImpl pattern,
+                List<Input> inputs,
+                Consumer<List<Output>> sortedOutputs,
+                Flow.Subscriber<? super Output> subscriber,
+                Executor executor) {
+            this.pattern = pattern;
+            this.inputs = inputs;
+            this.sortedOutputs = sortedOutputs;
+            this.subscriber = subscriber;
+            this.executor = executor;
+            this.weightedOutputs = WeightedOutputs.streamed(nonNull(sortedOutputs));
+            this.requested = new AtomicLong();
+            this.cancelled = false;
+            this.requestError = null;
+            this.nextInput = 0;
+        }
+
+        @Override
+        public void request(long n) {
+            if ( n < 1 ) {
+                this.requestError = new IllegalArgumentException("Requested quantity must be positive, but was: " + n);
+                n = 1;
+            }
+
+            long demand;
+            long increasedDemand;
+            do {
+                demand = this.requested.get();
+                increasedDemand = demand + n;
+                if ( increasedDemand < 0 ) {
+                    increasedDemand = Long.MAX_VALUE;
+                }
+            } while ( ! this.requested.compareAndSet(demand, increasedDemand) );
+
+            if ( demand == 0 ) {
+                this.executor.execute(this);
+            }
+        }
+
+        @Override
+        public void cancel() {
+            this.cancelled = true;
+        }
+
+        @Override
+        public void run() {
+            AnalyzeUnit analyzeUnit = analyzeUnitsPool.give();
+            log.begins();
+            try {
+                this.weightWhileRequested(analyzeUnit);
+            }
+            catch (RuntimeException | Error e) {
+                if ( ! this.cancelled ) {
+                    this.cancelled = true;
+                    this.subscriber.onError(e);
+                }
+            }
+            finally {
+                log.finished();
+                analyzeUnitsPool.takeBack(analyzeUnit);
+            }
+        }
+
+        private void weightWhileRequested(AnalyzeUnit analyzeUnit) {
+            long demand = this.requested.get();
+            long emitted = 0;
+            OutputImpl output;
+
+            while ( true ) {
+                while ( emitted < demand && this.nextInput < this.inputs.size() ) {
+                    if ( this.cancelled || nonNull(this.requestError) ) {
+                        break;
+                    }
+
+                    weightInput(
+                            analyzeUnit, this.pattern, WeightLimit.ABSENT, this.inputs, null,
+                            this.nextInput, this.weightedOutputs);
+                    this.nextInput++;
+
+                    output = this.weightedOutputs.extractAdded();
+                    if ( nonNull(output) ) {
+                        this.subscriber.onNext(output);
+                        emitted++;
+                    }
+                }
+
+                if ( this.cancelled ) {
+                    return;
+                }
+
+                if ( nonNull(this.requestError) ) {
+                    this.cancelled = true;
+                    this.subscriber.onError(this.requestError);
+                    return;
+                }
+
+                if ( this.nextInput == this.inputs.size() ) {
+                    this.complete();
+                    return;
+                }
+
+                demand = this.requested.addAndGet(-emitted);
+                emitted = 0;
+
+                if ( demand == 0 ) {
+                    return;
+                }
+            }
+        }
+
+        private void complete() {
+            if ( nonNull(this.sortedOutputs) ) {
+                List<OutputImpl> outputs = this.weightedOutputs.sorted();
+                indexing(outputs);
+                Object list = outputs;
+                this.sortedOutputs.accept((List<Output>) list);
+            }
+
+            this.cancelled = true;
+            this.subscriber.onComplete();
+        }
+    }
 }
@@ -1,5 +1,6 @@
 package diarsid.sceptre.impl;
 
+import java.nio.IntBuffer;
 import java.util.ArrayList;
 import java.util.EnumMap;
 import java.util.List;
@@ -9,13 +10,11 @@ import java.util.function.IntFunction;
 import diarsid.sceptre.api.model.Output;
 import diarsid.sceptre.api.model.Word;
 import diarsid.sceptre.impl.collections.ArrayChar;
-import diarsid.sceptre.impl.collections.CharsCount;
 import diarsid.sceptre.impl.collections.Ints;
 import diarsid.sceptre.impl.collections.MapIntInt;
 import diarsid.sceptre.impl.collections.SetInt;
 import diarsid.sceptre.impl.collections.impl.ArrayCharImpl;
-import diarsid.sceptre.impl.collections.impl.CharsCountImpl;
-import diarsid.sceptre.impl.collections.impl.SetIntImpl;
+import diarsid.sceptre.impl.collections.impl.SetIntBitsetImpl;
 import diarsid.sceptre.impl.logs.Logging;
 import diarsid.sceptre.impl.weight.Weight;
 import diarsid.support.objects.GuardedPool;
@@ -32,8 +31,11 @@ import static diarsid.sceptre.api.WeightEstimate.BAD;
 import static diarsid.sceptre.api.WeightEstimate.of;
 import static diarsid.sceptre.api.WeightEstimate.preliminarilyOf;
 import static diarsid.sceptre.api.model.Output.AdditionalData.WORDS;
+import static diarsid.sceptre.impl.AnalyzeUtil.lengthDeltaOf;
 import static diarsid.sceptre.impl.AnalyzeUtil.lengthImportanceRatio;
 import static diarsid.sceptre.impl.AnalyzeUtil.missedTooMuch;
+import static diarsid.sceptre.impl.AnalyzeUtil.variantTextSeparatorsWeightOf;
+import static diarsid.sceptre.impl.IndexedCorpusImpl.DEPENDENT_WORD;
 import static diarsid.sceptre.impl.PositionsAnalyze.POS_NOT_FOUND;
 import static diarsid.sceptre.impl.PositionsAnalyze.POS_UNINITIALIZED;
 import static diarsid.sceptre.impl.WordInInput.Placing.DEPENDENT;
@@ -79,6 +81,7 @@ class AnalyzeUnit extends PooledReusable {
 
     final PositionsAnalyze positionsAnalyze;
     final WordsInInput wordsInInput;
+    final VariantCharsPositions variantCharsPositions;
 
     final SetInt variantSeparators;
     final SetInt variantPathSeparators;
@@ -98,7 +101,7 @@ class AnalyzeUnit extends PooledReusable {
     
     final ArrayChar patternChars;
     String pattern;
-    final CharsCount patternCharsCount;
+    PreparedPatternImpl preparedPattern;
     
     int notMissedPercent;
         
@@ -116,18 +119,27 @@ class AnalyzeUnit extends PooledReusable {
                 new PositionCandidate(this),
                 candidatePositionsPool);
         this.patternChars = new ArrayCharImpl();
-        this.variantSeparators = new SetIntImpl();
-        this.variantPathSeparators = new SetIntImpl();
-        this.variantTextSeparators = new SetIntImpl();
+        this.variantSeparators = new SetIntBitsetImpl();
+        this.variantPathSeparators = new SetIntBitsetImpl();
+        this.variantTextSeparators = new SetIntBitsetImpl();
         this.wordsInInput = new WordsInInput(wordPool, wordsInRangePool);
-        this.weight = new Weight(this.log);
-        this.patternCharsCount = new CharsCountImpl();
+        this.variantCharsPositions = new VariantCharsPositions();
+        this.weight = new Weight(this.log, this.log.isEnabled(POSITIONS_CLUSTERS));
     }
     
-    void set(String pattern, String variant) {
-        this.variant = lower(variant);
+    void set(PreparedPatternImpl pattern, String variant) {
+        this.set(pattern, variant, lower(variant));
+    }
+
+    void set(PreparedPatternImpl pattern, String variant, String variantLowered) {
+        this.variant = variantLowered;
         this.variantOriginal = variant;
-        this.pattern = pattern;
+        this.variantCharsPositions.set(variantLowered);
+        this.pattern = pattern.pattern;
+        if ( this.preparedPattern != pattern ) {
+            this.preparedPattern = pattern;
+            this.patternChars.fillFrom(pattern.chars);
+        }
         this.checkIfVariantEqualsToPatternAndAssignWeight();
     }
 
@@ -157,7 +169,7 @@ class AnalyzeUnit extends PooledReusable {
         this.allPositionsPresentSortedAndNotPathSeparatorsBetween = false;
         this.notMissedPercent = 0;
         this.wordsInInput.clear();
-        this.patternCharsCount.clear();
+        this.variantCharsPositions.clear();
     }
 
     void calculateWeight() {        
@@ -299,37 +311,11 @@ class AnalyzeUnit extends PooledReusable {
     }
 
     private void addWeightForVariantTextSeparators() {
-        int textSeparatorsCount = this.variantTextSeparators.size();
-
-        float weight;
-        if ( textSeparatorsCount < 10 ) {
-            weight = textSeparatorsCount;
-        }
-        else if ( textSeparatorsCount < 30 ) {
-            weight = 10 + (float) Math.pow(textSeparatorsCount - 10, 0.8);
-        }
-        else if ( textSeparatorsCount < 100 ) {
-            weight = 10
-                    + (float) Math.pow(29, 0.8)
-                    + (float) Math.pow(textSeparatorsCount - 29, 0.33);
-        }
-        else {
-            weight = 10
-                    + (float) Math.pow(29, 0.8)
-                    + (float) Math.pow(70 /* 99 - 29 */ , 0.33)
-                    + (float) Math.pow(textSeparatorsCount - 99, 0.33);
-        }
-
-        this.weight.add(weight, VARIANT_TEXT_SEPARATORS);
+        this.weight.add(variantTextSeparatorsWeightOf(this.variantTextSeparators.size()), VARIANT_TEXT_SEPARATORS);
     }
 
     private void calculateLengthDelta() {
-        int otherLength = this.variant.length() - this.positionsAnalyze.filledPositions.size();
-        this.lengthDelta = (float) Math.pow(otherLength, 0.75);
-
-        if ( this.lengthDelta > 25 ) {
-            this.lengthDelta = 25 + (float) Math.pow(otherLength, 0.25);
-        }
+        this.lengthDelta = lengthDeltaOf(this.variant.length() - this.positionsAnalyze.filledPositions.size());
     }
 
     private void calculateAsSeparatedCharsWithoutClusters() {        
@@ -384,24 +370,26 @@ class AnalyzeUnit extends PooledReusable {
     void logState() {  
         log.add(BASE, "  variant       : %s", this.variant);
         
-        String patternCharsString = this.positionsAnalyze.positions
-                .stream()
-                .mapToObj(position -> {
-                    if ( position < 0 ) {
-                        return "*";
-                    } else {
-                        return String.valueOf(this.variant.charAt(position));
-                    }                    
-                })
-                .map(s -> s.length() == 1 ? " " + s : s)
-                .collect(joining(" "));
-        String positionsString =  this.positionsAnalyze.positions
-                .stream()
-                .mapToObj(POSITION_INT_TO_STRING)
-                .map(s -> s.length() == 1 ? " " + s : s)
-                .collect(joining(" "));
-        log.add(BASE, "  pattern chars : %s", patternCharsString);
-        log.add(BASE, "  positions     : %s", positionsString);
+        if ( log.isEnabled(BASE) ) {
+            String patternCharsString = this.positionsAnalyze.positions
+                    .stream()
+                    .mapToObj(position -> {
+                        if ( position < 0 ) {
+                            return "*";
+                        } else {
+                            return String.valueOf(this.variant.charAt(position));
+                        }                    
+                    })
+                    .map(s -> s.length() == 1 ? " " + s : s)
+                    .collect(joining(" "));
+            String positionsString =  this.positionsAnalyze.positions
+                    .stream()
+                    .mapToObj(POSITION_INT_TO_STRING)
+                    .map(s -> s.length() == 1 ? " " + s : s)
+                    .collect(joining(" "));
+            log.add(BASE, "  pattern chars : %s", patternCharsString);
+            log.add(BASE, "  positions     : %s", positionsString);
+        }
                 
         if ( nonEmpty(this.positionsAnalyze.badReason) ) {
             log.add(BASE, "    %1$-25s %2$s", "bad reason", this.positionsAnalyze.badReason);
@@ -428,6 +416,10 @@ class AnalyzeUnit extends PooledReusable {
     }
     
     private void logClustersState() {
+        if ( log.isNotEnabled(BASE) ) {
+            return;
+        }
+
         log.add(BASE, "    %1$-25s %2$s", "clusters", positionsAnalyze.clustersQty);
         log.add(BASE, "    %1$-25s %2$s", "clustered", positionsAnalyze.clustered.count());
         log.add(BASE, "    %1$-25s %2$s", "length delta", this.lengthDelta);
@@ -628,8 +620,49 @@ class AnalyzeUnit extends PooledReusable {
         }
     }
 
-    void setPatternCharsAndPositions() {
-        this.patternChars.fillFrom(this.pattern);
+    void setWordsAndPathAndTextSeparators(IndexedCorpusImpl corpus, int inputInCorpus) {
+        IntBuffer separators = corpus.pathSeparators;
+        IntBuffer offsets = corpus.pathSeparatorsOffsets;
+        for ( int i = offsets.get(inputInCorpus); i < offsets.get(inputInCorpus + 1); i++ ) {
+            this.variantPathSeparators.add(separators.get(i));
+        }
+
+        separators = corpus.textSeparators;
+        offsets = corpus.textSeparatorsOffsets;
+        for ( int i = offsets.get(inputInCorpus); i < offsets.get(inputInCorpus + 1); i++ ) {
+            this.variantTextSeparators.add(separators.get(i));
+        }
+
+        String s = this.variantOriginal;
+        WordInInput wordInInput;
+        int wordStart;
+        int wordEnd;
+        for ( int w = corpus.wordsOffsets.get(inputInCorpus); w < corpus.wordsOffsets.get(inputInCorpus + 1); w++ ) {
+            wordInInput = wordsInInput.next(corpus.wordsDependency.get(w) == DEPENDENT_WORD ? DEPENDENT : INDEPENDENT);
+            wordStart = corpus.wordsStarts.get(w);
+            if ( wordStart == WordInInput.NOT_SET ) {
+                continue;
+            }
+            wordEnd = corpus.wordsEnds.get(w);
+            for ( int i = wordStart; i <= wordEnd; i++ ) {
+                wordInInput.set(i, s.charAt(i));
+            }
+            wordInInput.complete();
+        }
+
+        wordsInInput.variantLength = s.length();
+        wordsInInput.complete();
+
+        if ( this.variantPathSeparators.isNotEmpty() ) {
+            this.variantSeparators.addAll(this.variantPathSeparators);
+        }
+
+        if ( this.variantTextSeparators.isNotEmpty() ) {
+            this.variantSeparators.addAll(this.variantTextSeparators);
+        }
+    }
+
+    void setPositions() {
         this.positionsAnalyze.positions.setSize(this.patternChars.size());
         this.positionsAnalyze.positions.fill(POS_UNINITIALIZED);
     }
@@ -658,6 +691,10 @@ class AnalyzeUnit extends PooledReusable {
     }
 
     private void logUnsortedPositionsOf(PositionsAnalyze data) {
+        if ( log.isNotEnabled(BASE) ) {
+            return;
+        }
+
         String positionsS = data.positions
                 .stream()
                 .mapToObj(POSITION_INT_TO_STRING)
@@ -0,0 +1,179 @@
+package diarsid.sceptre.impl;
+
+import java.util.ArrayDeque;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import diarsid.sceptre.api.PoolingStrategy;
+import diarsid.sceptre.impl.logs.Logging;
+import diarsid.support.objects.GuardedPool;
+import diarsid.support.objects.Pools;
+
+abstract class AnalyzeUnitsPool {
+
+    static final int UNITS_RETAINED_PER_THREAD = 2;
+
+    static class Shared extends AnalyzeUnitsPool {
+
+        private final GuardedPool<AnalyzeUnit> units;
+
+        Shared(Pools pools, Logging log) {
+            GuardedPool<Cluster> clusterPool = pools.createPool(
+                    Cluster.class,
+                    () -> new Cluster(log));
+
+            GuardedPool<WordInInput> wordPool = pools.createPool(
+                    WordInInput.class,
+                    () -> new WordInInput());
+
+            GuardedPool<WordsInInput.WordsInRange> wordsInRangePool = pools.createPool(
+                    WordsInInput.WordsInRange.class,
+                    () -> new WordsInInput.WordsInRange());
+
+            GuardedPool<Step2LoopCandidatePosition> step2LoopCandidatePositionsPool = pools.createPool(
+                    Step2LoopCandidatePosition.class,
+                    () -> new Step2LoopCandidatePosition());
+
+            this.units = pools.createPool(
+                    AnalyzeUnit.class,
+                    () -> new AnalyzeUnit(log, clusterPool, wordPool, wordsInRangePool, step2LoopCandidatePositionsPool));
+        }
+
+        @Override
+        AnalyzeUnit give() {
+            return this.units.give();
+        }
+
+        @Override
+        void takeBack(AnalyzeUnit unit) {
+            this.units.takeBack(unit);
+        }
+    }
+
+    /*
+     * Unit is used by one thread at a time, so pools it owns are never contended. Units are kept
+     * in stack of the thread that takes them back, units above UNITS_RETAINED_PER_THREAD are dropped.
+     */
+    static class ThreadBound extends AnalyzeUnitsPool {
+
+        private final Logging log;
+        private final ThreadLocal<ArrayDeque<AnalyzeUnit>> unitsOfThread;
+
+        ThreadBound(Logging log) {
+            this.log = log;
+            this.unitsOfThread = ThreadLocal.withInitial(() -> new ArrayDeque<>(UNITS_RETAINED_PER_THREAD));
+        }
+
+        @Override
+        AnalyzeUnit give() {
+            AnalyzeUnit unit = this.unitsOfThread.get().pollFirst();
+            if ( unit == null ) {
+                unit = unitWithOwnPools(this.log);
+            }
+
+            return unit;
+        }
+
+        @Override
+        void takeBack(AnalyzeUnit unit) {
+            unit.clear();
+            ArrayDeque<AnalyzeUnit> units = this.unitsOfThread.get();
+            if ( units.size() < UNITS_RETAINED_PER_THREAD ) {
+                units.addFirst(unit);
+            }
+        }
+
+        int retainedByCurrentThread() {
+            return this.unitsOfThread.get().size();
+        }
+    }
+
+    /*
+     * Units are kept in slots of fixed array and are acquired and released with CAS only, so that
+     * a caller never waits for other callers. If no unit is available, caller gets a new one, which
+     * is dropped on return if all slots are occupied.
+     */
+    static class CallScoped extends AnalyzeUnitsPool {
+
+        private final Logging log;
+        private final AtomicReferenceArray<AnalyzeUnit> slots;
+
+        CallScoped(Logging log, int size) {
+            if ( size < 1 ) {
+                throw new IllegalArgumentException("Size must be positive, but was: " + size);
+            }
+
+            this.log = log;
+            this.slots = new AtomicReferenceArray<>(size);
+        }
+
+        private int firstSlot() {
+            return (int) (Thread.currentThread().getId() % this.slots.length());
+        }
+
+        @Override
+        AnalyzeUnit give() {
+            int size = this.slots.length();
+            int slot = this.firstSlot();
+            AnalyzeUnit unit;
+            for ( int i = 0; i < size; i++ ) {
+                unit = this.slots.get(slot);
+                if ( unit != null && this.slots.compareAndSet(slot, unit, null) ) {
+                    return unit;
+                }
+                slot = slot + 1 == size ? 0 : slot + 1;
+            }
+
+            return unitWithOwnPools(this.log);
+        }
+
+        @Override
+        void takeBack(AnalyzeUnit unit) {
+            unit.clear();
+            int size = this.slots.length();
+            int slot = this.firstSlot();
+            for ( int i = 0; i < size; i++ ) {
+                if ( this.slots.get(slot) == null && this.slots.compareAndSet(slot, null, unit) ) {
+                    return;
+                }
+                slot = slot + 1 == size ? 0 : slot + 1;
+            }
+        }
+
+        int retained() {
+            int retained = 0;
+            for ( int i = 0; i < this.slots.length(); i++ ) {
+                if ( this.slots.get(i) != null ) {
+                    retained++;
+                }
+            }
+
+            return retained;
+        }
+    }
+
+    private static AnalyzeUnit unitWithOwnPools(Logging log) {
+        return new AnalyzeUnit(
+                log,
+                new GuardedPool<>(() -> new Cluster(log)),
+                new GuardedPool<>(WordInInput::new),
+                new GuardedPool<>(WordsInInput.WordsInRange::new),
+                new GuardedPool<>(Step2LoopCandidatePosition::new));
+    }
+
+    static AnalyzeUnitsPool of(PoolingStrategy strategy, Pools pools, Logging log) {
+        switch ( strategy ) {
+            case SHARED:
+                return new AnalyzeUnitsPool.Shared(pools, log);
+            case THREAD_LOCAL:
+                return new AnalyzeUnitsPool.ThreadBound(log);
+            case CALL_SCOPED:
+                return new AnalyzeUnitsPool.CallScoped(log, Runtime.getRuntime().availableProcessors());
+            default:
+                throw new IllegalArgumentException("Unknown pooling strategy: " + strategy);
+        }
+    }
+
+    abstract AnalyzeUnit give();
+
+    abstract void takeBack(AnalyzeUnit unit);
+}
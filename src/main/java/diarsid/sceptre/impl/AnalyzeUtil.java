@@ -141,6 +141,39 @@ class AnalyzeUtil {
         return result;
     }
     
+    static float variantTextSeparatorsWeightOf(int textSeparatorsCount) {
+        if ( textSeparatorsCount < 10 ) {
+            return textSeparatorsCount;
+        }
+        else if ( textSeparatorsCount < 30 ) {
+            return 10 + (float) Math.pow(textSeparatorsCount - 10, 0.8);
+        }
+        else if ( textSeparatorsCount < 100 ) {
+            return 10
+                    + (float) Math.pow(29, 0.8)
+                    + (float) Math.pow(textSeparatorsCount - 29, 0.33);
+        }
+        else {
+            return 10
+                    + (float) Math.pow(29, 0.8)
+                    + (float) Math.pow(70 /* 99 - 29 */ , 0.33)
+                    + (float) Math.pow(textSeparatorsCount - 99, 0.33);
+        }
+    }
+
+    /*
+     * Non-decreasing function of quantity of variant chars that are not filled by pattern chars.
+     */
+    static float lengthDeltaOf(int otherLength) {
+        float lengthDelta = (float) Math.pow(otherLength, 0.75);
+
+        if ( lengthDelta > 25 ) {
+            lengthDelta = 25 + (float) Math.pow(otherLength, 0.25);
+        }
+
+        return lengthDelta;
+    }
+
     static float lengthImportanceRatio(int length) {
         int lengthSteps = length / 5;
         float ratio = 0.5f + (lengthSteps * 0.07f);
@@ -0,0 +1,252 @@
+package diarsid.sceptre.impl;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import diarsid.sceptre.api.model.CharsIndex;
+import diarsid.sceptre.api.model.Input;
+import diarsid.sceptre.api.model.PreparedPattern;
+
+import static java.util.Collections.unmodifiableList;
+import static java.util.Objects.isNull;
+import static java.util.Objects.requireNonNull;
+
+import static diarsid.sceptre.impl.PreparedPatternImpl.mustBeImpl;
+import static diarsid.support.strings.StringUtils.lower;
+
+/*
+ * Input that misses missedTooMuchQty of pattern chars is rejected by analysis. If input is absent in posting
+ * lists of any missedTooMuchQty pattern chars, it misses all of them, so it is enough to take candidates only
+ * from posting lists of that many rarest pattern chars, however frequent the other chars are.
+ *
+ * Removed inputs are only marked as removed, posting lists are rebuilt when removed inputs outnumber
+ * the present ones. Ids are never reused.
+ */
+public class CharsIndexImpl implements CharsIndex {
+
+    private static final int ASCII = 128;
+    private static final int COMPACTION_MIN_REMOVED = 64;
+
+    private final List<Input> inputs;
+    private final Postings[] asciiPostings;
+    private final Map<Character, Postings> otherPostings;
+    private int size;
+    private int removedQty;
+
+    CharsIndexImpl() {
+        this.inputs = new ArrayList<>();
+        this.asciiPostings = new Postings[ASCII];
+        this.otherPostings = new HashMap<>();
+        this.size = 0;
+        this.removedQty = 0;
+    }
+
+    @Override
+    public int add(Input input) {
+        requireNonNull(input);
+        int id = this.inputs.size();
+        this.inputs.add(input);
+
+        InputIndexable inputIndexable = (InputIndexable) input;
+        inputIndexable.setIndex(id);
+        String lowered = lower(input.string());
+        inputIndexable.computeCharsMask(lowered);
+        this.post(id, lowered);
+
+        this.size++;
+        return id;
+    }
+
+    private void post(int id, String lowered) {
+        char c;
+        Postings postings;
+        for ( int i = 0; i < lowered.length(); i++ ) {
+            c = lowered.charAt(i);
+            if ( c < ASCII ) {
+                postings = this.asciiPostings[c];
+                if ( isNull(postings) ) {
+                    postings = new Postings();
+                    this.asciiPostings[c] = postings;
+                }
+            }
+            else {
+                postings = this.otherPostings.computeIfAbsent(c, (key) -> new Postings());
+            }
+
+            if ( postings.lastId != id ) {
+                postings.add(id);
+            }
+        }
+    }
+
+    @Override
+    public boolean remove(int id) {
+        if ( id < 0 || id >= this.inputs.size() || isNull(this.inputs.get(id)) ) {
+            return false;
+        }
+
+        this.inputs.set(id, null);
+        this.size--;
+        this.removedQty++;
+
+        if ( this.removedQty >= COMPACTION_MIN_REMOVED && this.removedQty > this.size ) {
+            this.compact();
+        }
+
+        return true;
+    }
+
+    private void compact() {
+        Arrays.fill(this.asciiPostings, null);
+        this.otherPostings.clear();
+
+        Input input;
+        for ( int id = 0; id < this.inputs.size(); id++ ) {
+            input = this.inputs.get(id);
+            if ( input != null ) {
+                this.post(id, lower(input.string()));
+            }
+        }
+
+        this.removedQty = 0;
+    }
+
+    @Override
+    public int size() {
+        return this.size;
+    }
+
+    @Override
+    public Candidates candidatesOf(PreparedPattern pattern) {
+        PreparedPatternImpl patternImpl = mustBeImpl(pattern);
+        char[] chars = patternImpl.chars;
+
+        Postings[] postingsOfChars = new Postings[chars.length];
+        for ( int i = 0; i < chars.length; i++ ) {
+            postingsOfChars[i] = this.postingsOf(chars[i]);
+        }
+        Arrays.sort(postingsOfChars, (postings1, postings2) -> Integer.compare(countOf(postings1), countOf(postings2)));
+
+        long[] marked = new long[(this.inputs.size() + 63) >>> 6];
+        int rarestQty = Math.min(patternImpl.missedTooMuchQty, chars.length);
+        for ( int i = 0; i < rarestQty; i++ ) {
+            if ( postingsOfChars[i] != null ) {
+                postingsOfChars[i].markIn(marked);
+            }
+        }
+
+        List<Input> candidates = new ArrayList<>();
+        long word;
+        int id;
+        Input input;
+        for ( int w = 0; w < marked.length; w++ ) {
+            word = marked[w];
+            while ( word != 0 ) {
+                id = (w << 6) + Long.numberOfTrailingZeros(word);
+                word = word & (word - 1);
+                input = this.inputs.get(id);
+                if ( input != null && ! patternImpl.isMissedTooMuchIn((InputIndexable) input) ) {
+                    candidates.add(input);
+                }
+            }
+        }
+
+        float skippedFraction = this.size == 0 ? 0 : 1f - ((float) candidates.size() / this.size);
+
+        return new CandidatesImpl(unmodifiableList(candidates), skippedFraction);
+    }
+
+    private Postings postingsOf(char c) {
+        if ( c < ASCII ) {
+            return this.asciiPostings[c];
+        }
+        else {
+            return this.otherPostings.get(c);
+        }
+    }
+
+    private static int countOf(Postings postings) {
+        return isNull(postings) ? 0 : postings.count;
+    }
+
+    /*
+     * Ascending ids stored as varint-encoded deltas, most of them take a single byte.
+     */
+    static class Postings {
+
+        private byte[] bytes;
+        private int length;
+        int count;
+        int lastId;
+
+        Postings() {
+            this.bytes = new byte[8];
+            this.length = 0;
+            this.count = 0;
+            this.lastId = -1;
+        }
+
+        void add(int id) {
+            if ( id <= this.lastId ) {
+                throw new IllegalArgumentException("Ids must be ascending");
+            }
+
+            if ( this.length + 5 > this.bytes.length ) {
+                this.bytes = Arrays.copyOf(this.bytes, this.bytes.length * 2);
+            }
+
+            int delta = id - this.lastId;
+            while ( (delta & ~0x7F) != 0 ) {
+                this.bytes[this.length++] = (byte) ((delta & 0x7F) | 0x80);
+                delta = delta >>> 7;
+            }
+            this.bytes[this.length++] = (byte) delta;
+
+            this.lastId = id;
+            this.count++;
+        }
+
+        void markIn(long[] marked) {
+            int id = -1;
+            int delta;
+            int shift;
+            byte b;
+            int i = 0;
+            while ( i < this.length ) {
+                delta = 0;
+                shift = 0;
+                do {
+                    b = this.bytes[i++];
+                    delta = delta | ((b & 0x7F) << shift);
+                    shift += 7;
+                } while ( b < 0 );
+                id += delta;
+                marked[id >>> 6] = marked[id >>> 6] | (1L << id);
+            }
+        }
+    }
+
+    private static class CandidatesImpl implements Candidates {
+
+        private final List<Input> inputs;
+        private final float skippedFraction;
+
+        private CandidatesImpl(List<Input> inputs, float skippedFraction) {
+            this.inputs = inputs;
+            this.skippedFraction = skippedFraction;
+        }
+
+        @Override
+        public List<Input> inputs() {
+            return this.inputs;
+        }
+
+        @Override
+        public float skippedFraction() {
+            return this.skippedFraction;
+        }
+    }
+}
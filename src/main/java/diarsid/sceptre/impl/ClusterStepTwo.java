@@ -1,8 +1,9 @@
 package diarsid.sceptre.impl;
 
-import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Objects;
+import java.util.StringJoiner;
 
 import diarsid.sceptre.impl.collections.ListChar;
 import diarsid.sceptre.impl.collections.ListInt;
@@ -12,8 +13,6 @@ import diarsid.support.objects.CommonEnum;
 import diarsid.support.objects.references.Possible;
 import diarsid.support.objects.references.References;
 
-import static java.lang.Boolean.FALSE;
-import static java.lang.Boolean.TRUE;
 import static java.lang.Math.abs;
 import static java.lang.Math.min;
 import static java.lang.String.format;
@@ -56,6 +55,7 @@ class ClusterStepTwo {
     
     private static final int UNINITIALIZED = -9;
     private static final int BEFORE_START = -1;
+    private static final int DEFAULT_POSITIONS_CAPACITY = 16;
     
     static class StepTwoClusterPositionView implements PositionIterableView {
 
@@ -181,21 +181,15 @@ class ClusterStepTwo {
             this.cluster
                     .chars
                     .set(this.i, this.character);
-            this.cluster
-                    .fillingsInVariant
-                    .set(this.i, this.filled);
-            this.cluster
-                    .fillingsInPattern
-                    .set(this.i, this.filledInPattern);
+            this.cluster.fillingsInVariant[this.i] = this.filled;
+            this.cluster.fillingsInPattern[this.i] = this.filledInPattern;
             this.cluster
                     .patternPositions
                     .set(this.i, this.patternPosition);
             this.cluster
                     .variantPositions
                     .set(this.i, this.variantPosition);
-            this.cluster
-                    .matches
-                    .set(this.i, this.matchType);
+            this.cluster.matches[this.i] = (byte) this.matchType.ordinal();
             
             this.cluster.matchStrength = this.cluster.matchStrength + this.matchType.strength();
 
@@ -206,11 +200,11 @@ class ClusterStepTwo {
 
         private StepTwoClusterPositionView fillFromSubcluster(int i) {
             this.character = this.cluster.chars.get(i);
-            this.filled = this.cluster.fillingsInVariant.get(i);
-            this.filledInPattern = this.cluster.fillingsInPattern.get(i);
+            this.filled = this.cluster.fillingsInVariant[i];
+            this.filledInPattern = this.cluster.fillingsInPattern[i];
             this.patternPosition = this.cluster.patternPositions.get(i);
             this.variantPosition = this.cluster.variantPositions.get(i);
-            this.matchType = this.cluster.matches.get(i);
+            this.matchType = this.cluster.matchAt(i);
             
             this.i = i;
             this.filledFromSubcluster = true;
@@ -309,10 +303,14 @@ class ClusterStepTwo {
     private final ListChar chars;
     private final ListInt patternPositions;
     private final ListInt variantPositions;
-    private final List<Boolean> candidates;
-    private final List<MatchType> matches;
-    private final List<Boolean> fillingsInVariant;
-    private final List<Boolean> fillingsInPattern;
+    /*
+     * State of every clustered position is kept in parallel arrays, aligned by index with
+     * chars, patternPositions and variantPositions. Match types are stored as ordinals.
+     */
+    private boolean[] candidates;
+    private byte[] matches;
+    private boolean[] fillingsInVariant;
+    private boolean[] fillingsInPattern;
     
     private final StepTwoClusterPositionView existingPositionView;
     private final StepTwoClusterPositionView possiblePositionView;
@@ -335,10 +333,10 @@ class ClusterStepTwo {
         this.chars = new ListCharImpl();
         this.patternPositions = new ListIntImpl();
         this.variantPositions = new ListIntImpl();
-        this.candidates = new ArrayList<>();
-        this.matches = new ArrayList<>();
-        this.fillingsInVariant = new ArrayList<>();
-        this.fillingsInPattern = new ArrayList<>();
+        this.candidates = new boolean[DEFAULT_POSITIONS_CAPACITY];
+        this.matches = new byte[DEFAULT_POSITIONS_CAPACITY];
+        this.fillingsInVariant = new boolean[DEFAULT_POSITIONS_CAPACITY];
+        this.fillingsInPattern = new boolean[DEFAULT_POSITIONS_CAPACITY];
         this.filledInVariantQty = 0;
         this.matchStrength = 0;
         this.mergedDuplicates = 0;
@@ -400,7 +398,9 @@ class ClusterStepTwo {
 
     String assessedCharBestMatch() {
         MatchType match = null;
-        for ( MatchType iMatch : this.matches ) {
+        MatchType iMatch;
+        for ( int i = 0; i < this.positionsQty(); i++ ) {
+            iMatch = this.matchAt(i);
             if ( match == null ) {
                 match = iMatch;
             }
@@ -467,7 +467,13 @@ class ClusterStepTwo {
     }
 
     boolean containsAlreadyFilledPositions() {
-        return this.fillingsInPattern.contains(true);
+        for ( int i = 0; i < this.positionsQty(); i++ ) {
+            if ( this.fillingsInPattern[i] ) {
+                return true;
+            }
+        }
+
+        return false;
     }
 
     int foundQty() {
@@ -497,7 +503,7 @@ class ClusterStepTwo {
             boolean isFilled,
             boolean isFilledInPattern,
             MatchType matchType) {
-        this.addInternal(c, patternPosition, variantPosition, isFilled, isFilledInPattern, matchType, FALSE);
+        this.addInternal(c, patternPosition, variantPosition, isFilled, isFilledInPattern, matchType, false);
     }
 
     void addAsCandidate(Step2LoopCandidatePosition step2LoopCandidatePosition) {
@@ -508,7 +514,7 @@ class ClusterStepTwo {
                 step2LoopCandidatePosition.isFilledInVariant,
                 step2LoopCandidatePosition.isFilledInPattern,
                 MATCH_TYPO_LOOP,
-                TRUE);
+                true);
     }
 
     void setCandidatesOrderEstimate(int iPattern, int iVariant) {
@@ -518,8 +524,8 @@ class ClusterStepTwo {
     void finalizeOrdersEstimate() {
         int qualityCorrelation = 0;
         MatchType matchType;
-        for ( int i = 0; i < this.matches.size(); i++ ) {
-            matchType = this.matches.get(i);
+        for ( int i = 0; i < this.positionsQty(); i++ ) {
+            matchType = this.matchAt(i);
             if ( matchType.isNot(MATCH_TYPO_LOOP) && ! matchType.isBackward ) {
                 qualityCorrelation++;
             }
@@ -538,16 +544,14 @@ class ClusterStepTwo {
         this.analyze.data.log.add(
                 POSITIONS_SEARCH,
                 "          [info] approve candidates ");
-        for ( int i = 0; i < this.candidates.size(); i++ ) {
-            if ( this.candidates.get(i) ) {
-                this.candidates.set(i, FALSE);
-            }
+        for ( int i = 0; i < this.positionsQty(); i++ ) {
+            this.candidates[i] = false;
         }
     }
 
     void rejectCandidates() {
-        for ( int i = 0; i < this.candidates.size(); i++ ) {
-            if ( this.candidates.get(i) ) {
+        for ( int i = 0; i < this.positionsQty(); i++ ) {
+            if ( this.candidates[i] ) {
                 this.remove(i);
                 i--;
             }
@@ -559,8 +563,8 @@ class ClusterStepTwo {
         int patternPosition;
         int variantPosition;
         int rejectedCount = 0;
-        for ( int i = 0; i < this.fillingsInPattern.size(); i++ ) {
-            if ( this.fillingsInPattern.get(i) ) {
+        for ( int i = 0; i < this.positionsQty(); i++ ) {
+            if ( this.fillingsInPattern[i] ) {
                 patternPosition = this.patternPositions.get(i);
                 variantPosition = this.analyze.positions.i(patternPosition);
                 wordOfCandidate = this.analyze.data.wordsInInput.wordOf(variantPosition);
@@ -587,14 +591,49 @@ class ClusterStepTwo {
         return false;
     }
 
+    private int positionsQty() {
+        return this.variantPositions.size();
+    }
+
+    private MatchType matchAt(int i) {
+        return MatchType.ofOrdinal(this.matches[i]);
+    }
+
+    private boolean hasMatch(MatchType matchType) {
+        byte ordinal = (byte) matchType.ordinal();
+        for ( int i = 0; i < this.positionsQty(); i++ ) {
+            if ( this.matches[i] == ordinal ) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    private void ensurePositionsCapacity(int qty) {
+        if ( qty <= this.matches.length ) {
+            return;
+        }
+
+        int capacity = Math.max(qty, this.matches.length * 2);
+        this.candidates = Arrays.copyOf(this.candidates, capacity);
+        this.matches = Arrays.copyOf(this.matches, capacity);
+        this.fillingsInVariant = Arrays.copyOf(this.fillingsInVariant, capacity);
+        this.fillingsInPattern = Arrays.copyOf(this.fillingsInPattern, capacity);
+    }
+
     private void remove(int i) {
+        int qty = this.positionsQty();
         char c = this.chars.remove(i);
         int patternPosition = this.patternPositions.remove(i);
         int variantPosition = this.variantPositions.remove(i);
-        MatchType matchType = this.matches.remove(i);
-        boolean isFilledInVariant = this.fillingsInVariant.remove(i);
-        this.fillingsInPattern.remove(i);
-        this.candidates.remove(i);
+        MatchType matchType = this.matchAt(i);
+        boolean isFilledInVariant = this.fillingsInVariant[i];
+        int shifted = qty - i - 1;
+        System.arraycopy(this.matches, i + 1, this.matches, i, shifted);
+        System.arraycopy(this.fillingsInVariant, i + 1, this.fillingsInVariant, i, shifted);
+        System.arraycopy(this.fillingsInPattern, i + 1, this.fillingsInPattern, i, shifted);
+        System.arraycopy(this.candidates, i + 1, this.candidates, i, shifted);
         if ( isFilledInVariant ) {
             this.filledInVariantQty--;
         }
@@ -602,10 +641,12 @@ class ClusterStepTwo {
         if ( nonNull(this.candidatesOrderEstimator) ) {
             this.candidatesOrderEstimator.remove(patternPosition);
         }
-        this.analyze.data.log.add(
-                POSITIONS_SEARCH,
-                "          [info] reject candidate '%s' pattern:%s, variant:%s, included: %s, %s",
-                c, patternPosition, variantPosition, isFilledInVariant, matchType.name());
+        if ( this.analyze.data.log.isEnabled(POSITIONS_SEARCH) ) {
+            this.analyze.data.log.add(
+                    POSITIONS_SEARCH,
+                    "          [info] reject candidate '%s' pattern:%s, variant:%s, included: %s, %s",
+                    c, patternPosition, variantPosition, isFilledInVariant, matchType.name());
+        }
     }
     
     private void addInternal(
@@ -615,7 +656,7 @@ class ClusterStepTwo {
             boolean isFilledInVariant,
             boolean isFilledInPattern,
             MatchType matchType,
-            Boolean isCandidate) {
+            boolean isCandidate) {
         int alreadyExistedInPattern = this.patternPositions.indexOf(patternPosition);
 
         if ( c == 'e' && patternPosition == 4) {
@@ -631,10 +672,12 @@ class ClusterStepTwo {
                 if ( ! wordOfFilledChar.equals(wordAnother) ) {
                     int distance = abs(wordOfFilledChar.index - wordAnother.index);
                     if ( distance > 1 ) {
-                        this.analyze.data.log.add(
-                                POSITIONS_SEARCH,
-                                "          [info] positions-in-cluster false-positive '%s' pattern:%s, variant:%s, included: %s, %s",
-                                c, patternPosition, variantPosition, isFilledInVariant, matchType.name());
+                        if ( this.analyze.data.log.isEnabled(POSITIONS_SEARCH) ) {
+                            this.analyze.data.log.add(
+                                    POSITIONS_SEARCH,
+                                    "          [info] positions-in-cluster false-positive '%s' pattern:%s, variant:%s, included: %s, %s",
+                                    c, patternPosition, variantPosition, isFilledInVariant, matchType.name());
+                        }
                         return;
                     }
                 }
@@ -645,11 +688,13 @@ class ClusterStepTwo {
             StepTwoClusterPositionView existingPosition = this.positionViewAt(alreadyExistedInPattern);
             StepTwoClusterPositionView possiblePosition = this.possiblePositionView.fill(c, patternPosition, variantPosition, isFilledInVariant, isFilledInPattern, matchType);
 
-            this.analyze.data.log.add(
-                    POSITIONS_SEARCH,
-                    "          [info] positions-in-cluster duplicate: new '%s' pattern:%s, variant:%s -vs- existed '%s' pattern:%s, variant:%s",
-                    possiblePosition.character, possiblePosition.patternPosition, possiblePosition.variantPosition,
-                    existingPosition.character, existingPosition.patternPosition, existingPosition.variantPosition);
+            if ( this.analyze.data.log.isEnabled(POSITIONS_SEARCH) ) {
+                this.analyze.data.log.add(
+                        POSITIONS_SEARCH,
+                        "          [info] positions-in-cluster duplicate: new '%s' pattern:%s, variant:%s -vs- existed '%s' pattern:%s, variant:%s",
+                        possiblePosition.character, possiblePosition.patternPosition, possiblePosition.variantPosition,
+                        existingPosition.character, existingPosition.patternPosition, existingPosition.variantPosition);
+            }
 
             boolean skip = existingPosition.isSameCharAs(possiblePosition);
 
@@ -747,22 +792,26 @@ class ClusterStepTwo {
             }
 
             if ( writeGivenAsNew ) {
+                int i = this.positionsQty();
+                this.ensurePositionsCapacity(i + 1);
+                this.matches[i] = (byte) matchType.ordinal();
+                this.fillingsInVariant[i] = isFilledInVariant;
+                this.fillingsInPattern[i] = isFilledInPattern;
+                this.candidates[i] = isCandidate;
                 this.chars.add(c);
                 this.patternPositions.add(patternPosition);
                 this.variantPositions.add(variantPosition);
-                this.matches.add(matchType);
-                this.fillingsInVariant.add(isFilledInVariant);
-                this.fillingsInPattern.add(isFilledInPattern);
-                this.candidates.add(isCandidate);
                 if ( isFilledInVariant ) {
                     this.filledInVariantQty++;
                 }
                 this.directMatchesCount = this.directMatchesCount + this.countDirectMatchesWith(patternPosition, variantPosition);
                 this.matchStrength = this.matchStrength + matchType.strength();
-                this.analyze.data.log.add(
-                        POSITIONS_SEARCH,
-                        "          [info] positions-in-cluster '%s' pattern:%s, variant:%s, included(variant:%s pattern:%s), %s, candidate:%s",
-                        c, patternPosition, variantPosition, isFilledInVariant, isFilledInPattern, matchType.name(), isCandidate);
+                if ( this.analyze.data.log.isEnabled(POSITIONS_SEARCH) ) {
+                    this.analyze.data.log.add(
+                            POSITIONS_SEARCH,
+                            "          [info] positions-in-cluster '%s' pattern:%s, variant:%s, included(variant:%s pattern:%s), %s, candidate:%s",
+                            c, patternPosition, variantPosition, isFilledInVariant, isFilledInPattern, matchType.name(), isCandidate);
+                }
                 this.candidatesOrderEstimator.add(patternPosition, variantPosition);
             }
         }        
@@ -821,17 +870,10 @@ class ClusterStepTwo {
     }
 
     private int countDirectMatches() {
-        if ( this.matches.isEmpty() ) {
-            return 0;
-        }
-
-        if ( this.matches.size() == 1 ) {
-            return this.matches.get(0).is(MATCH_DIRECTLY) ? 1 : 0;
-        }
-
+        byte matchDirectly = (byte) MATCH_DIRECTLY.ordinal();
         int count = 0;
-        for (int i = 0; i < this.matches.size(); i++) {
-            if ( this.matches.get(i).is(MATCH_DIRECTLY) ) {
+        for ( int i = 0; i < this.positionsQty(); i++ ) {
+            if ( this.matches[i] == matchDirectly ) {
                 count++;
             }
         }
@@ -920,7 +962,7 @@ class ClusterStepTwo {
         if ( hasStart ) {
             if ( word.startIndex != this.assessedCharVariantPosition ) {
                 int i = this.variantPositions.indexOf(word.startIndex);
-                MatchType startCharMatchType = this.matches.get(i);
+                MatchType startCharMatchType = this.matchAt(i);
                 if ( startCharMatchType.isBackward ) {
                     hasStart = false;
                     if ( ! hasMiddle ) {
@@ -1026,9 +1068,9 @@ class ClusterStepTwo {
         boolean same = true;
         int sameCount = 0;
 
-        for ( int i = 0; i < this.matches.size() && i < other.matches.size(); i++ ) {
-            thisType = this.matches.get(i);
-            otherType = other.matches.get(i);
+        for ( int i = 0; i < this.positionsQty() && i < other.positionsQty(); i++ ) {
+            thisType = this.matchAt(i);
+            otherType = other.matchAt(i);
 
             if ( thisType.isNot(MATCH_TYPO_LOOP) && otherType.isNot(MATCH_TYPO_LOOP) ) {
                 thisChar = this.chars.get(i);
@@ -1063,8 +1105,8 @@ class ClusterStepTwo {
     }
 
     private boolean allNoLoopMatchesBelongTo(WordInInput word) {
-        for ( int i = 0; i < this.matches.size(); i++ ) {
-            if ( this.matches.get(i).isNot(MATCH_TYPO_LOOP) ) {
+        for ( int i = 0; i < this.positionsQty(); i++ ) {
+            if ( this.matchAt(i).isNot(MATCH_TYPO_LOOP) ) {
                 if ( ! word.hasIndex(this.variantPositions.get(i)) ) {
                     return false;
                 }
@@ -1094,10 +1136,12 @@ class ClusterStepTwo {
             return false;
         }
 
-        this.analyze.data.log.add(
-                POSITIONS_SEARCH,
-                "             [word start searching] %s",
-                this.word.get().charsString());
+        if ( this.analyze.data.log.isEnabled(POSITIONS_SEARCH) ) {
+            this.analyze.data.log.add(
+                    POSITIONS_SEARCH,
+                    "             [word start searching] %s",
+                    this.word.get().charsString());
+        }
 
         char cVariant;
         char cPattern;
@@ -1341,7 +1385,7 @@ class ClusterStepTwo {
                             }
                         }
 
-                        if ( this.matches.contains(MATCH_TYPO_NEXT_IN_PATTERN_PREVIOUS_IN_VARIANT) || this.matches.contains(MATCH_TYPO_PREVIOUS_IN_PATTERN_PREVIOUSx2_IN_VARIANT) ) {
+                        if ( this.hasMatch(MATCH_TYPO_NEXT_IN_PATTERN_PREVIOUS_IN_VARIANT) || this.hasMatch(MATCH_TYPO_PREVIOUS_IN_PATTERN_PREVIOUSx2_IN_VARIANT) ) {
                             thisPriorityAdj = thisPriorityAdj + 1;
                         }
                     }
@@ -1371,7 +1415,7 @@ class ClusterStepTwo {
                             }
                         }
 
-                        if ( other.matches.contains(MATCH_TYPO_NEXT_IN_PATTERN_PREVIOUS_IN_VARIANT) || other.matches.contains(MATCH_TYPO_PREVIOUS_IN_PATTERN_PREVIOUSx2_IN_VARIANT) ) {
+                        if ( other.hasMatch(MATCH_TYPO_NEXT_IN_PATTERN_PREVIOUS_IN_VARIANT) || other.hasMatch(MATCH_TYPO_PREVIOUS_IN_PATTERN_PREVIOUSx2_IN_VARIANT) ) {
                             otherPriorityAdj = otherPriorityAdj + 1;
                         }
                     }
@@ -1686,10 +1730,6 @@ class ClusterStepTwo {
         this.chars.clear();
         this.patternPositions.clear();
         this.variantPositions.clear();
-        this.candidates.clear();
-        this.matches.clear();
-        this.fillingsInVariant.clear();
-        this.fillingsInPattern.clear();
         this.filledInVariantQty = 0;
         this.matchStrength = 0;
         this.mergedDuplicates = 0;
@@ -1708,6 +1748,25 @@ class ClusterStepTwo {
     public String toString() {
         return format(
                 "['%s' variant:%s[included:%s], word:%s, clustered:['%s', pattern:%s, variant:%s, variant-included:%s, pattern-included:%s, matches:%s]]",
-                this.assessedChar, this.assessedCharVariantPosition, this.assessedCharFilledInVariant, this.word.isPresent() ? this.word.orThrow().charsString() : null, this.chars, this.patternPositions, this.variantPositions, this.fillingsInVariant, this.fillingsInPattern, this.matches);
+                this.assessedChar, this.assessedCharVariantPosition, this.assessedCharFilledInVariant, this.word.isPresent() ? this.word.orThrow().charsString() : null, this.chars, this.patternPositions, this.variantPositions,
+                booleansToString(this.fillingsInVariant, this.positionsQty()),
+                booleansToString(this.fillingsInPattern, this.positionsQty()),
+                this.matchesToString());
+    }
+
+    private static String booleansToString(boolean[] booleans, int qty) {
+        StringJoiner joiner = new StringJoiner(", ", "[", "]");
+        for ( int i = 0; i < qty; i++ ) {
+            joiner.add(String.valueOf(booleans[i]));
+        }
+        return joiner.toString();
+    }
+
+    private String matchesToString() {
+        StringJoiner joiner = new StringJoiner(", ", "[", "]");
+        for ( int i = 0; i < this.positionsQty(); i++ ) {
+            joiner.add(this.matchAt(i).name());
+        }
+        return joiner.toString();
     }
 }
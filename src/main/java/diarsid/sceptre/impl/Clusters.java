@@ -313,19 +313,23 @@ class Clusters implements StatefulClearable {
     }
     
     int lookupForTearDowns() {
-        for (Cluster cluster : this.clustersMarkedTeardown) {
-            Cluster exchangeCluster = this.clustersMarkedTeardown
-                    .stream()
-                    .filter(otherCluster -> {
-                        return 
-                                otherCluster != cluster &&
-                                otherCluster.ordersDiffSumReal() == negateExact(cluster.ordersDiffSumReal()) &&
-                                containsAnyCommonElement(
-                                        otherCluster.repeatQties(),
-                                        cluster.repeatQties());
-                    })
-                    .findFirst()
-                    .orElse(null);
+        Cluster cluster;
+        Cluster otherCluster;
+        Cluster exchangeCluster;
+        for ( int i = 0; i < this.clustersMarkedTeardown.size(); i++ ) {
+            cluster = this.clustersMarkedTeardown.get(i);
+            exchangeCluster = null;
+            for ( int j = 0; j < this.clustersMarkedTeardown.size(); j++ ) {
+                otherCluster = this.clustersMarkedTeardown.get(j);
+                if ( otherCluster != cluster &&
+                     otherCluster.ordersDiffSumReal() == negateExact(cluster.ordersDiffSumReal()) &&
+                     containsAnyCommonElement(
+                             otherCluster.repeatQties(),
+                             cluster.repeatQties()) ) {
+                    exchangeCluster = otherCluster;
+                    break;
+                }
+            }
             
             if ( nonNull(exchangeCluster) ) {
                 this.clustersMarkedTeardownRejected.add(cluster);
@@ -338,14 +342,12 @@ class Clusters implements StatefulClearable {
             this.clustersMarkedTeardown.removeAll(this.clustersMarkedTeardownRejected);
         }
         
-        if ( isNotEmpty(this.clustersMarkedTeardown) ) {
-            return this.clustersMarkedTeardown
-                    .stream()
-                    .mapToInt(cluster -> cluster.teardown())
-                    .sum();
-        } else {
-            return 0;
+        int teardown = 0;
+        for ( int i = 0; i < this.clustersMarkedTeardown.size(); i++ ) {
+            teardown = teardown + this.clustersMarkedTeardown.get(i).teardown();
         }
+        
+        return teardown;
     }
     
     private void loopThroughClustersAndCollectData() {
@@ -1349,6 +1351,10 @@ class Clusters implements StatefulClearable {
     }
 
     void logState() {
+        if ( data.log.isNotEnabled(POSITIONS_CLUSTERS) ) {
+            return;
+        }
+
         data.log.add(POSITIONS_CLUSTERS, "    [cluster placing] %s", this.toString());
         if ( placingBonusNotApplicableReason.isNotPresent() ) {
             data.log.add(POSITIONS_CLUSTERS, "    [cluster placing] placing case       : %s ", placingCase.orThrow());
@@ -0,0 +1,420 @@
+package diarsid.sceptre.impl;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import diarsid.sceptre.api.CorpusStorage;
+import diarsid.sceptre.api.model.Input;
+import diarsid.support.model.versioning.Version;
+
+import static java.nio.ByteOrder.LITTLE_ENDIAN;
+import static java.nio.channels.FileChannel.MapMode.READ_ONLY;
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+import static java.nio.file.StandardOpenOption.CREATE_NEW;
+import static java.nio.file.StandardOpenOption.READ;
+import static java.nio.file.StandardOpenOption.WRITE;
+
+import static diarsid.sceptre.api.CorpusStorage.ARENA;
+
+/*
+ * IndexedCorpusImpl stored in a single file that is mapped into memory as a whole, so that strings,
+ * lowered strings, chars masks, separators and words of inputs are read by analysis directly from the
+ * mapped file. With ARENA, opening creates nothing per input. With INPUTS, inputs are created from
+ * mapped strings when file is opened and get their chars masks from the file. Metadata of inputs is not stored.
+ *
+ * Layout, all numbers are little-endian and every section starts at a multiple of 8 bytes:
+ *   header: magic, format, inputs qty, qty of chars in strings and in lowered strings, qty of path separators,
+ *           of text separators and of words, length of Analyze version and its chars
+ *   strings: offsets int[qty + 1], chars char[]
+ *   lowered strings: offsets int[qty + 1], chars char[]
+ *   chars masks: low and high masks long[qty * 2]
+ *   path separators: offsets int[qty + 1], separators int[]
+ *   text separators: offsets int[qty + 1], separators int[]
+ *   words: offsets int[qty + 1], starts int[], ends int[], dependency byte[]
+ *
+ * Format changes with layout, Analyze version changes with the way separators and words are found, so
+ * that file of other format cannot be read at all, while file of other version is still readable but stale.
+ *
+ * Mapped file cannot be replaced or renamed on some platforms until its mapping is garbage-collected, so
+ * file is written from heap buffer and never mapped for writing, and stale file is read into heap instead
+ * of being mapped, so that it can be rewritten when its inputs are indexed anew.
+ */
+class IndexedCorpusFile {
+
+    static final int MAGIC = 0x53435054;
+    static final int FORMAT = 2;
+
+    private static final int HEADER_INTS = 9;
+
+    private final Path file;
+    private final String version;
+    private final ByteBuffer buffer;
+    private final Layout layout;
+
+    private IndexedCorpusFile(Path file, String version, ByteBuffer buffer, Layout layout) {
+        this.file = file;
+        this.version = version;
+        this.buffer = buffer;
+        this.layout = layout;
+    }
+
+    static void write(IndexedCorpusImpl corpus, Path file) {
+        int size = corpus.size();
+        String version = AnalyzeImpl.VERSION.toString();
+
+        int stringsChars = 0;
+        int loweredCharsQty = 0;
+        Input input;
+        for ( int i = 0; i < size; i++ ) {
+            input = corpus.inputs.get(i);
+            stringsChars = stringsChars + input.string().length();
+            loweredCharsQty = loweredCharsQty + corpus.loweredOf(i, input).length();
+        }
+
+        Layout layout = new Layout(
+                version.length(),
+                size,
+                stringsChars,
+                loweredCharsQty,
+                corpus.pathSeparators.limit(),
+                corpus.textSeparators.limit(),
+                corpus.wordsStarts.limit());
+
+        ByteBuffer buffer = ByteBuffer.allocate(layout.length).order(LITTLE_ENDIAN);
+
+        buffer
+                .putInt(MAGIC)
+                .putInt(FORMAT)
+                .putInt(size)
+                .putInt(stringsChars)
+                .putInt(loweredCharsQty)
+                .putInt(layout.pathSeparatorsQty)
+                .putInt(layout.textSeparatorsQty)
+                .putInt(layout.wordsQty)
+                .putInt(version.length());
+        buffer.asCharBuffer().put(version);
+
+        IntBuffer offsets = ints(buffer, layout.stringsOffsets, size + 1);
+        CharBuffer chars = chars(buffer, layout.strings, stringsChars);
+        IntBuffer loweredOffsets = ints(buffer, layout.loweredOffsets, size + 1);
+        CharBuffer loweredChars = chars(buffer, layout.lowered, loweredCharsQty);
+        LongBuffer charsMasks = longs(buffer, layout.charsMasks, size * 2);
+        long[] charsMask = new long[2];
+        String lowered;
+        offsets.put(0);
+        loweredOffsets.put(0);
+        for ( int i = 0; i < size; i++ ) {
+            input = corpus.inputs.get(i);
+            lowered = corpus.loweredOf(i, input);
+            chars.put(input.string());
+            offsets.put(chars.position());
+            loweredChars.put(lowered);
+            loweredOffsets.put(loweredChars.position());
+            InputIndexable.computeCharsMask(lowered, charsMask, 0);
+            charsMasks.put(charsMask);
+        }
+
+        copy(corpus.pathSeparatorsOffsets, ints(buffer, layout.pathSeparatorsOffsets, size + 1));
+        copy(corpus.pathSeparators, ints(buffer, layout.pathSeparators, layout.pathSeparatorsQty));
+        copy(corpus.textSeparatorsOffsets, ints(buffer, layout.textSeparatorsOffsets, size + 1));
+        copy(corpus.textSeparators, ints(buffer, layout.textSeparators, layout.textSeparatorsQty));
+        copy(corpus.wordsOffsets, ints(buffer, layout.wordsOffsets, size + 1));
+        copy(corpus.wordsStarts, ints(buffer, layout.wordsStarts, layout.wordsQty));
+        copy(corpus.wordsEnds, ints(buffer, layout.wordsEnds, layout.wordsQty));
+        bytes(buffer, layout.wordsDependency, layout.wordsQty).put(corpus.wordsDependency.duplicate().clear());
+
+        buffer.clear();
+
+        Path temporary = file.resolveSibling(file.getFileName() + ".tmp");
+        try {
+            Files.deleteIfExists(temporary);
+            try (FileChannel channel = FileChannel.open(temporary, CREATE_NEW, WRITE)) {
+                while ( buffer.hasRemaining() ) {
+                    channel.write(buffer);
+                }
+                channel.force(true);
+            }
+            Files.move(temporary, file, REPLACE_EXISTING, ATOMIC_MOVE);
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /*
+     * File of the current version is mapped, stale file is read into heap.
+     */
+    static IndexedCorpusFile open(Path file) {
+        try (FileChannel channel = FileChannel.open(file, READ)) {
+            long fileLength = channel.size();
+            int headerLength = HEADER_INTS * Integer.BYTES;
+
+            if ( fileLength < headerLength ) {
+                throw new IllegalArgumentException(file + " is not an indexed corpus file");
+            }
+
+            IntBuffer header = read(channel, 0, headerLength).asIntBuffer();
+
+            if ( header.get(0) != MAGIC ) {
+                throw new IllegalArgumentException(file + " is not an indexed corpus file");
+            }
+
+            int format = header.get(1);
+            if ( format != FORMAT ) {
+                throw new IllegalStateException(file + " has unsupported format " + format + ", expected " + FORMAT);
+            }
+
+            int size = header.get(2);
+            int versionLength = header.get(8);
+
+            Layout layout = new Layout(
+                    versionLength,
+                    size,
+                    header.get(3),
+                    header.get(4),
+                    header.get(5),
+                    header.get(6),
+                    header.get(7));
+
+            if ( layout.length != fileLength ) {
+                throw new IllegalStateException(file + " is corrupted");
+            }
+
+            String version = read(channel, headerLength, versionLength * Character.BYTES).asCharBuffer().toString();
+
+            ByteBuffer buffer;
+            if ( version.equals(AnalyzeImpl.VERSION.toString()) ) {
+                buffer = channel.map(READ_ONLY, 0, fileLength).order(LITTLE_ENDIAN);
+            }
+            else {
+                buffer = read(channel, 0, layout.length);
+            }
+
+            return new IndexedCorpusFile(file, version, buffer, layout);
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static ByteBuffer read(FileChannel channel, long position, int length) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(length).order(LITTLE_ENDIAN);
+        while ( buffer.hasRemaining() ) {
+            if ( channel.read(buffer, position + buffer.position()) < 0 ) {
+                throw new EOFException();
+            }
+        }
+        buffer.flip();
+        return buffer;
+    }
+
+    boolean isMapped() {
+        return this.buffer.isDirect();
+    }
+
+    boolean isOf(Version version) {
+        return this.version.equals(version.toString());
+    }
+
+    List<Input> inputs() {
+        MappedStrings strings = this.strings(this.layout.stringsOffsets, this.layout.strings);
+
+        List<Input> inputs = new ArrayList<>(strings.size());
+        Input input;
+        for ( int i = 0; i < strings.size(); i++ ) {
+            input = new Input(strings.stringOf(i));
+            ((InputIndexable) input).setIndex(i);
+            inputs.add(input);
+        }
+
+        return inputs;
+    }
+
+    /*
+     * Corpus of the current version only, stale corpus must be indexed anew from its inputs.
+     */
+    IndexedCorpusImpl corpus(CorpusStorage storage) {
+        if ( ! this.isOf(AnalyzeImpl.VERSION) ) {
+            throw new IllegalStateException(
+                    this.file + " is of version " + this.version + ", expected " + AnalyzeImpl.VERSION);
+        }
+
+        Layout layout = this.layout;
+        ByteBuffer buffer = this.buffer;
+        int size = layout.size;
+
+        List<Input> inputs = null;
+        MappedStrings strings = null;
+        MappedStrings lowered = this.strings(layout.loweredOffsets, layout.lowered);
+        LongBuffer charsMasks = longs(buffer, layout.charsMasks, size * 2);
+
+        if ( storage == ARENA ) {
+            strings = this.strings(layout.stringsOffsets, layout.strings);
+        }
+        else {
+            inputs = this.inputs();
+            for ( int i = 0; i < size; i++ ) {
+                ((InputIndexable) inputs.get(i)).setCharsMask(charsMasks.get(i * 2), charsMasks.get(i * 2 + 1));
+            }
+            charsMasks = null;
+        }
+
+        return new IndexedCorpusImpl(
+                inputs,
+                strings,
+                lowered,
+                charsMasks,
+                ints(buffer, layout.pathSeparatorsOffsets, size + 1),
+                ints(buffer, layout.pathSeparators, layout.pathSeparatorsQty),
+                ints(buffer, layout.textSeparatorsOffsets, size + 1),
+                ints(buffer, layout.textSeparators, layout.textSeparatorsQty),
+                ints(buffer, layout.wordsOffsets, size + 1),
+                ints(buffer, layout.wordsStarts, layout.wordsQty),
+                ints(buffer, layout.wordsEnds, layout.wordsQty),
+                bytes(buffer, layout.wordsDependency, layout.wordsQty));
+    }
+
+    private MappedStrings strings(int offsetsPosition, int charsPosition) {
+        IntBuffer offsets = ints(this.buffer, offsetsPosition, this.layout.size + 1);
+        CharBuffer chars = chars(this.buffer, charsPosition, offsets.get(this.layout.size));
+        return new MappedStrings(offsets, chars);
+    }
+
+    private static void copy(IntBuffer source, IntBuffer target) {
+        target.put(source.duplicate().clear());
+    }
+
+    private static ByteBuffer bytes(ByteBuffer buffer, int position, int qty) {
+        return buffer
+                .duplicate()
+                .position(position)
+                .limit(position + qty)
+                .slice();
+    }
+
+    private static IntBuffer ints(ByteBuffer buffer, int position, int qty) {
+        return bytes(buffer, position, qty * Integer.BYTES)
+                .order(LITTLE_ENDIAN)
+                .asIntBuffer();
+    }
+
+    private static LongBuffer longs(ByteBuffer buffer, int position, int qty) {
+        return bytes(buffer, position, qty * Long.BYTES)
+                .order(LITTLE_ENDIAN)
+                .asLongBuffer();
+    }
+
+    private static CharBuffer chars(ByteBuffer buffer, int position, int qty) {
+        return bytes(buffer, position, qty * Character.BYTES)
+                .order(LITTLE_ENDIAN)
+                .asCharBuffer();
+    }
+
+    /*
+     * Views of mapped file are never repositioned, so strings can be taken from many threads.
+     */
+    private static class MappedStrings implements StoredStrings {
+
+        private final IntBuffer offsets;
+        private final CharBuffer chars;
+
+        MappedStrings(IntBuffer offsets, CharBuffer chars) {
+            this.offsets = offsets;
+            this.chars = chars;
+        }
+
+        @Override
+        public int size() {
+            return this.offsets.limit() - 1;
+        }
+
+        @Override
+        public String stringOf(int i) {
+            return this.chars.subSequence(this.offsets.get(i), this.offsets.get(i + 1)).toString();
+        }
+    }
+
+    private static class Layout {
+
+        final int size;
+        final int pathSeparatorsQty;
+        final int textSeparatorsQty;
+        final int wordsQty;
+
+        final int stringsOffsets;
+        final int strings;
+        final int loweredOffsets;
+        final int lowered;
+        final int charsMasks;
+        final int pathSeparatorsOffsets;
+        final int pathSeparators;
+        final int textSeparatorsOffsets;
+        final int textSeparators;
+        final int wordsOffsets;
+        final int wordsStarts;
+        final int wordsEnds;
+        final int wordsDependency;
+        final int length;
+
+        private long next;
+
+        Layout(
+                int versionLength,
+                int size,
+                int stringsChars,
+                int loweredChars,
+                int pathSeparatorsQty,
+                int textSeparatorsQty,
+                int wordsQty) {
+            this.size = size;
+            this.pathSeparatorsQty = pathSeparatorsQty;
+            this.textSeparatorsQty = textSeparatorsQty;
+            this.wordsQty = wordsQty;
+
+            long offsetsLength = (size + 1L) * Integer.BYTES;
+
+            this.next = 0;
+            this.section((long) HEADER_INTS * Integer.BYTES + (long) versionLength * Character.BYTES);
+            this.stringsOffsets = this.section(offsetsLength);
+            this.strings = this.section((long) stringsChars * Character.BYTES);
+            this.loweredOffsets = this.section(offsetsLength);
+            this.lowered = this.section((long) loweredChars * Character.BYTES);
+            this.charsMasks = this.section((size * 2L) * Long.BYTES);
+            this.pathSeparatorsOffsets = this.section(offsetsLength);
+            this.pathSeparators = this.section((long) pathSeparatorsQty * Integer.BYTES);
+            this.textSeparatorsOffsets = this.section(offsetsLength);
+            this.textSeparators = this.section((long) textSeparatorsQty * Integer.BYTES);
+            this.wordsOffsets = this.section(offsetsLength);
+            this.wordsStarts = this.section((long) wordsQty * Integer.BYTES);
+            this.wordsEnds = this.section((long) wordsQty * Integer.BYTES);
+            this.wordsDependency = this.section(wordsQty);
+            this.length = (int) this.next;
+        }
+
+        private int section(long length) {
+            if ( length < 0 ) {
+                throw new IllegalStateException("Negative section length");
+            }
+
+            long position = this.next;
+            long next = (position + length + 7) & ~7L;
+            if ( next > Integer.MAX_VALUE ) {
+                throw new IllegalArgumentException("Corpus is too large to be stored in a single mapped file");
+            }
+
+            this.next = next;
+            return (int) position;
+        }
+    }
+}
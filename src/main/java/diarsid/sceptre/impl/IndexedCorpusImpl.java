@@ -0,0 +1,298 @@
+package diarsid.sceptre.impl;
+
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.RandomAccess;
+
+import diarsid.sceptre.api.CorpusStorage;
+import diarsid.sceptre.api.model.IndexedCorpus;
+import diarsid.sceptre.api.model.Input;
+import diarsid.sceptre.impl.collections.Ints;
+import diarsid.sceptre.impl.collections.SetInt;
+
+import static java.util.Collections.unmodifiableList;
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
+
+import static diarsid.sceptre.api.CorpusStorage.ARENA;
+
+import static diarsid.sceptre.impl.WordInInput.Placing.DEPENDENT;
+import static diarsid.support.strings.StringUtils.lower;
+
+/*
+ * Data of all inputs is stored in flat buffers. Separators and words of input i
+ * are located between offsets[i] and offsets[i + 1] of corresponding buffers.
+ * Buffers wrap arrays if corpus is created from inputs, or are views of IndexedCorpusFile mapped
+ * into memory if corpus is opened from file.
+ *
+ * Strings of inputs are stored according to CorpusStorage. With ARENA, there are neither inputs nor
+ * lowercased strings, inputs are created from stored strings when taken, lowercased strings are created
+ * for analysis and chars masks for prefiltering are stored separately, two longs per input. If corpus is
+ * opened from file, stored strings, lowercased strings and chars masks are read from the mapped file.
+ */
+public class IndexedCorpusImpl implements IndexedCorpus {
+
+    private static final int INITIAL_CAPACITY_PER_INPUT = 4;
+
+    static final byte INDEPENDENT_WORD = 0;
+    static final byte DEPENDENT_WORD = 1;
+
+    final List<Input> inputs;
+    final String[] lowered;
+    private final StoredStrings strings;
+    private final StoredStrings loweredStrings;
+    private final LongBuffer charsMasks;
+
+    final IntBuffer pathSeparatorsOffsets;
+    final IntBuffer pathSeparators;
+    final IntBuffer textSeparatorsOffsets;
+    final IntBuffer textSeparators;
+
+    final IntBuffer wordsOffsets;
+    final IntBuffer wordsStarts;
+    final IntBuffer wordsEnds;
+    final ByteBuffer wordsDependency;
+
+    IndexedCorpusImpl(List<Input> inputs, AnalyzeUnit analyzeUnit, CorpusStorage storage) {
+        int size = inputs.size();
+        int capacity = Math.max(size * INITIAL_CAPACITY_PER_INPUT, INITIAL_CAPACITY_PER_INPUT);
+        boolean isArena = storage == ARENA;
+
+        long[] charsMasks = null;
+        if ( isArena ) {
+            this.strings = new StringsArena(size, (i) -> inputs.get(i).string());
+            charsMasks = new long[size * 2];
+            this.charsMasks = LongBuffer.wrap(charsMasks);
+            this.inputs = new StoredInputs();
+            this.lowered = null;
+        }
+        else {
+            this.strings = null;
+            this.charsMasks = null;
+            this.inputs = unmodifiableList(new ArrayList<>(inputs));
+            this.lowered = new String[size];
+        }
+        this.loweredStrings = null;
+
+        int[] pathSeparatorsOffsets = new int[size + 1];
+        int[] textSeparatorsOffsets = new int[size + 1];
+        int[] wordsOffsets = new int[size + 1];
+
+        int[] pathSeparators = new int[capacity];
+        int[] textSeparators = new int[capacity];
+        int[] wordsStarts = new int[capacity];
+        int[] wordsEnds = new int[capacity];
+        byte[] wordsDependency = new byte[capacity];
+
+        int pathSeparatorsQty = 0;
+        int textSeparatorsQty = 0;
+        int wordsQty = 0;
+
+        Input input;
+        String string;
+        String lowered;
+        List<WordInInput> words;
+        WordInInput word;
+        for ( int i = 0; i < size; i++ ) {
+            input = inputs.get(i);
+            string = input.string();
+            lowered = lower(string);
+            if ( isArena ) {
+                InputIndexable.computeCharsMask(lowered, charsMasks, i * 2);
+            }
+            else {
+                this.lowered[i] = lowered;
+                ((InputIndexable) input).computeCharsMask(lowered);
+            }
+
+            try {
+                analyzeUnit.variantOriginal = string;
+                analyzeUnit.findWordsAndPathAndTextSeparators();
+
+                pathSeparators = ensureCapacity(
+                        pathSeparators, pathSeparatorsQty + analyzeUnit.variantPathSeparators.size());
+                pathSeparatorsQty = copy(analyzeUnit.variantPathSeparators, pathSeparators, pathSeparatorsQty);
+
+                textSeparators = ensureCapacity(
+                        textSeparators, textSeparatorsQty + analyzeUnit.variantTextSeparators.size());
+                textSeparatorsQty = copy(analyzeUnit.variantTextSeparators, textSeparators, textSeparatorsQty);
+
+                words = analyzeUnit.wordsInInput.all;
+                if ( wordsQty + words.size() > wordsStarts.length ) {
+                    wordsStarts = ensureCapacity(wordsStarts, wordsQty + words.size());
+                    wordsEnds = ensureCapacity(wordsEnds, wordsQty + words.size());
+                    wordsDependency = Arrays.copyOf(wordsDependency, wordsStarts.length);
+                }
+
+                for ( int w = 0; w < words.size(); w++ ) {
+                    word = words.get(w);
+                    wordsStarts[wordsQty] = word.startIndex;
+                    wordsEnds[wordsQty] = word.endIndex;
+                    wordsDependency[wordsQty] = word.placing.is(DEPENDENT) ? DEPENDENT_WORD : INDEPENDENT_WORD;
+                    wordsQty++;
+                }
+            }
+            finally {
+                analyzeUnit.clearForReuse();
+            }
+
+            pathSeparatorsOffsets[i + 1] = pathSeparatorsQty;
+            textSeparatorsOffsets[i + 1] = textSeparatorsQty;
+            wordsOffsets[i + 1] = wordsQty;
+        }
+
+        this.pathSeparatorsOffsets = IntBuffer.wrap(pathSeparatorsOffsets);
+        this.textSeparatorsOffsets = IntBuffer.wrap(textSeparatorsOffsets);
+        this.wordsOffsets = IntBuffer.wrap(wordsOffsets);
+        this.pathSeparators = IntBuffer.wrap(Arrays.copyOf(pathSeparators, pathSeparatorsQty));
+        this.textSeparators = IntBuffer.wrap(Arrays.copyOf(textSeparators, textSeparatorsQty));
+        this.wordsStarts = IntBuffer.wrap(Arrays.copyOf(wordsStarts, wordsQty));
+        this.wordsEnds = IntBuffer.wrap(Arrays.copyOf(wordsEnds, wordsQty));
+        this.wordsDependency = ByteBuffer.wrap(Arrays.copyOf(wordsDependency, wordsQty));
+    }
+
+    /*
+     * Either inputs with their chars masks already set, or stored strings with chars masks are given.
+     */
+    IndexedCorpusImpl(
+            List<Input> inputs,
+            StoredStrings strings,
+            StoredStrings loweredStrings,
+            LongBuffer charsMasks,
+            IntBuffer pathSeparatorsOffsets,
+            IntBuffer pathSeparators,
+            IntBuffer textSeparatorsOffsets,
+            IntBuffer textSeparators,
+            IntBuffer wordsOffsets,
+            IntBuffer wordsStarts,
+            IntBuffer wordsEnds,
+            ByteBuffer wordsDependency) {
+        if ( isNull(strings) ) {
+            this.inputs = unmodifiableList(inputs);
+            this.strings = null;
+            this.charsMasks = null;
+        }
+        else {
+            this.inputs = new StoredInputs();
+            this.strings = strings;
+            this.charsMasks = charsMasks;
+        }
+        this.lowered = null;
+        this.loweredStrings = loweredStrings;
+        this.pathSeparatorsOffsets = pathSeparatorsOffsets;
+        this.pathSeparators = pathSeparators;
+        this.textSeparatorsOffsets = textSeparatorsOffsets;
+        this.textSeparators = textSeparators;
+        this.wordsOffsets = wordsOffsets;
+        this.wordsStarts = wordsStarts;
+        this.wordsEnds = wordsEnds;
+        this.wordsDependency = wordsDependency;
+    }
+
+    private static int[] ensureCapacity(int[] array, int required) {
+        if ( required <= array.length ) {
+            return array;
+        }
+
+        return Arrays.copyOf(array, Math.max(required, array.length * 2));
+    }
+
+    private static int copy(SetInt set, int[] array, int from) {
+        int i = from;
+        Ints.Elements elements = set.elements();
+        while ( elements.hasNext() ) {
+            elements.next();
+            array[i] = elements.current();
+            i++;
+        }
+        return i;
+    }
+
+    boolean isMissedTooMuchBy(PreparedPatternImpl pattern, int i) {
+        boolean isMissedTooMuch;
+        if ( isNull(this.charsMasks) ) {
+            InputIndexable input = (InputIndexable) this.inputs.get(i);
+            isMissedTooMuch = pattern.isMissedTooMuchIn(input.charsMaskLow(), input.charsMaskHigh());
+        }
+        else {
+            isMissedTooMuch = pattern.isMissedTooMuchIn(this.charsMasks.get(i * 2), this.charsMasks.get(i * 2 + 1));
+        }
+
+        if ( isMissedTooMuch || ! pattern.hasNonAsciiChars ) {
+            return isMissedTooMuch;
+        }
+
+        return pattern.isMissedTooMuchIn(this.loweredOf(i, this.inputs.get(i)));
+    }
+
+    int absentCharsOf(PreparedPatternImpl pattern, int i, int fromIndex) {
+        if ( isNull(this.charsMasks) ) {
+            return pattern.absentCharsIn((InputIndexable) this.inputs.get(i), fromIndex);
+        }
+        else {
+            return pattern.absentCharsIn(this.charsMasks.get(i * 2), this.charsMasks.get(i * 2 + 1), fromIndex);
+        }
+    }
+
+    /*
+     * Input i of this corpus must be given, so that with ARENA its string is not created again.
+     */
+    String loweredOf(int i, Input input) {
+        if ( nonNull(this.lowered) ) {
+            return this.lowered[i];
+        }
+        else if ( nonNull(this.loweredStrings) ) {
+            return this.loweredStrings.stringOf(i);
+        }
+        else {
+            return lower(input.string());
+        }
+    }
+
+    static IndexedCorpusImpl mustBeImpl(IndexedCorpus corpus) {
+        if ( corpus instanceof IndexedCorpusImpl ) {
+            return (IndexedCorpusImpl) corpus;
+        }
+
+        throw new IllegalArgumentException(
+                "Unknown " + IndexedCorpus.class.getSimpleName() + " implementation, use Analyze.index()");
+    }
+
+    @Override
+    public List<Input> inputs() {
+        return this.inputs;
+    }
+
+    @Override
+    public int size() {
+        return this.inputs.size();
+    }
+
+    private class StoredInputs extends AbstractList<Input> implements RandomAccess {
+
+        @Override
+        public Input get(int i) {
+            Objects.checkIndex(i, this.size());
+
+            Input input = new Input(IndexedCorpusImpl.this.strings.stringOf(i));
+            InputIndexable inputIndexable = input;
+            inputIndexable.setIndex(i);
+            inputIndexable.setCharsMask(
+                    IndexedCorpusImpl.this.charsMasks.get(i * 2),
+                    IndexedCorpusImpl.this.charsMasks.get(i * 2 + 1));
+
+            return input;
+        }
+
+        @Override
+        public int size() {
+            return IndexedCorpusImpl.this.strings.size();
+        }
+    }
+}
@@ -1,10 +1,21 @@
 package diarsid.sceptre.impl;
 
+import static diarsid.support.strings.StringUtils.lower;
+
 public class InputIndexable extends Indexable {
 
     protected final String string;
     protected final Object metadata;
 
+    /*
+     * 128-bit mask of chars present in lowercased string, computed once on demand.
+     * Char is mapped to bit by its lowest 7 bits, so ASCII chars are exact and other chars
+     * may collide, which can only make an absent char look present.
+     */
+    private long charsMaskLow;
+    private long charsMaskHigh;
+    private volatile boolean charsMaskComputed;
+
     public InputIndexable(String string) {
         this.string = string;
         this.metadata = null;
@@ -23,4 +34,62 @@ public class InputIndexable extends Indexable {
         return this.metadata;
     }
 
+    void computeCharsMask(String lowered) {
+        long[] charsMask = new long[2];
+        computeCharsMask(lowered, charsMask, 0);
+        this.setCharsMask(charsMask[0], charsMask[1]);
+    }
+
+    /*
+     * Writes low and high halves of chars mask into masks[at] and masks[at + 1].
+     */
+    static void computeCharsMask(String lowered, long[] masks, int at) {
+        long low = 0;
+        long high = 0;
+        char c;
+        for ( int i = 0; i < lowered.length(); i++ ) {
+            c = lowered.charAt(i);
+            if ( (c & 64) == 0 ) {
+                low = low | (1L << (c & 63));
+            }
+            else {
+                high = high | (1L << (c & 63));
+            }
+        }
+
+        masks[at] = low;
+        masks[at + 1] = high;
+    }
+
+    void setCharsMask(long charsMaskLow, long charsMaskHigh) {
+        this.charsMaskLow = charsMaskLow;
+        this.charsMaskHigh = charsMaskHigh;
+        this.charsMaskComputed = true;
+    }
+
+    long charsMaskLow() {
+        if ( ! this.charsMaskComputed ) {
+            this.computeCharsMask(lower(this.string));
+        }
+
+        return this.charsMaskLow;
+    }
+
+    long charsMaskHigh() {
+        if ( ! this.charsMaskComputed ) {
+            this.computeCharsMask(lower(this.string));
+        }
+
+        return this.charsMaskHigh;
+    }
+
+    static boolean mayContain(long charsMaskLow, long charsMaskHigh, char loweredChar) {
+        if ( (loweredChar & 64) == 0 ) {
+            return (charsMaskLow & (1L << (loweredChar & 63))) != 0;
+        }
+        else {
+            return (charsMaskHigh & (1L << (loweredChar & 63))) != 0;
+        }
+    }
+
 }
@@ -14,6 +14,8 @@ public enum MatchType implements CommonEnum<MatchType> {
     MATCH_TYPO_NEXTx2_IN_PATTERN_NEXTx3_IN_VARIANT(1),
     MATCH_TYPO_NEXTx3_IN_PATTERN_NEXT_IN_VARIANT(1);
     
+    private static final MatchType[] BY_ORDINAL = values();
+
     private final int strength;
     public boolean isBackward;
 
@@ -30,4 +32,8 @@ public enum MatchType implements CommonEnum<MatchType> {
     int strength() {
         return this.strength;
     }
+
+    static MatchType ofOrdinal(byte ordinal) {
+        return BY_ORDINAL[ordinal];
+    }
 }
@@ -73,14 +73,10 @@ public class OutputImpl extends Indexable implements Output {
             return 1;
         } else if ( this.weight < otherWeight ) {
             return -1;
+        } else if ( other instanceof Output ) {
+            return Integer.compare(this.index, ((Output) other).index());
         } else {
-            if ( this.index >  otherWeight ) {
-                return 1;
-            } else if ( this.index < otherWeight ) {
-                return -1;
-            } else {
-                return 0;
-            }
+            return 0;
         }
     }
 }
@@ -0,0 +1,40 @@
+package diarsid.sceptre.impl;
+
+import java.util.List;
+
+import diarsid.sceptre.api.model.Output;
+import diarsid.sceptre.api.model.PartialOutputs;
+
+class PartialOutputsImpl implements PartialOutputs {
+
+    private final List<Output> outputs;
+    private final int unweightedQty;
+
+    PartialOutputsImpl(List<Output> outputs, int unweightedQty) {
+        this.outputs = outputs;
+        this.unweightedQty = unweightedQty;
+    }
+
+    @Override
+    public List<Output> outputs() {
+        return this.outputs;
+    }
+
+    @Override
+    public boolean isPartial() {
+        return this.unweightedQty > 0;
+    }
+
+    @Override
+    public int unweightedQty() {
+        return this.unweightedQty;
+    }
+
+    @Override
+    public String toString() {
+        return "PartialOutputs{" +
+                "outputs=" + this.outputs.size() +
+                ", unweighted=" + this.unweightedQty +
+                '}';
+    }
+}
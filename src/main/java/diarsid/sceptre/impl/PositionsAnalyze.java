@@ -17,7 +17,7 @@ import diarsid.sceptre.impl.collections.impl.ArrayIntImpl;
 import diarsid.sceptre.impl.collections.impl.ListCharImpl;
 import diarsid.sceptre.impl.collections.impl.ListIntImpl;
 import diarsid.sceptre.impl.collections.impl.MapIntImpl;
-import diarsid.sceptre.impl.collections.impl.MapIntIntImpl;
+import diarsid.sceptre.impl.collections.impl.MapIntIntHashImpl;
 import diarsid.sceptre.impl.collections.impl.SetIntImpl;
 import diarsid.sceptre.impl.weight.Weight;
 import diarsid.support.misc.MathFunctions;
@@ -130,6 +130,9 @@ class PositionsAnalyze {
         logEnabled = true;
     }    
     
+    /* DEBUG UTIL */ /* conditions are allocated on every check, switch on only while debugging */
+    /* DEBUG UTIL */ static final boolean DEBUG_BREAKPOINTS = false;
+    /* DEBUG UTIL */
     /* DEBUG UTIL */ static interface DebugCondition {
     /* DEBUG UTIL */     
     /* DEBUG UTIL */     boolean isMatch();
@@ -242,8 +245,8 @@ class PositionsAnalyze {
     private final ListInt misplacingCheckMergedPositions = new ListIntImpl();
     
     // v.3
-    final MapIntInt positionUnsortedOrders = new MapIntIntImpl();
-    final MapIntInt patternIndexesByVariantPosition = new MapIntIntImpl();
+    final MapIntInt positionUnsortedOrders = new MapIntIntHashImpl();
+    final MapIntInt patternIndexesByVariantPosition = new MapIntIntHashImpl();
     final MapInt<Step> positionFoundSteps = new MapIntImpl<>();
     final MapInt.Keys filledPositions = positionFoundSteps.keys();
     private final PositionCandidate positionCandidate;
@@ -310,7 +313,7 @@ class PositionsAnalyze {
         this.keyChars = new ListIntImpl();
         this.singlePositions = new SinglePositions();
         this.singlePositionsOrdersEstimator = new OrdersEstimator(this.data.log);
-        this.weight = new Weight(this.data.log);
+        this.weight = new Weight(this.data.log, true);
 
         this.currStepOneCluster = new ClusterStepOne(this.data.log);
         this.prevStepOneCluster = new ClusterStepOne(this.data.log);
@@ -693,13 +696,15 @@ class PositionsAnalyze {
                 }
 
                 if ( this.singlePositionsOrdersEstimator.isOk() ) {
-                    data.log.add(
-                            POSITIONS_CLUSTERS,
-                            "    [single position] %s_%s (chars '%s_%s') enclose word %s",
-                            firstPosition, lastPosition,
-                            this.data.variant.charAt(firstPosition),
-                            this.data.variant.charAt(lastPosition),
-                            word.charsString());
+                    if ( data.log.isEnabled(POSITIONS_CLUSTERS) ) {
+                        data.log.add(
+                                POSITIONS_CLUSTERS,
+                                "    [single position] %s_%s (chars '%s_%s') enclose word %s",
+                                firstPosition, lastPosition,
+                                this.data.variant.charAt(firstPosition),
+                                this.data.variant.charAt(lastPosition),
+                                word.charsString());
+                    }
                     this.weight.add(-word.length*2, SINGLE_POSITIONS_DENOTE_WORD);
                 }
                 else {
@@ -951,7 +956,6 @@ class PositionsAnalyze {
         while ( elements.hasNext() ) {
             elements.next();
             character = elements.current();
-            this.data.patternCharsCount.increment(character);
             this.notFoundPatternChars.add(character);
         }
     }
@@ -961,7 +965,7 @@ class PositionsAnalyze {
     }
 
     private boolean isAllowedToProceedOnCurrentStep() {
-        boolean allowed = findPositionsStep.canProceedWith(data.pattern.length());
+        boolean allowed = data.preparedPattern.canProceedWith(findPositionsStep);
         if ( ! allowed ) {
             data.log.add(POSITIONS_SEARCH, "    %s is not allowed for pattern with length %s", findPositionsStep, data.pattern.length());
         }
@@ -1019,7 +1023,7 @@ class PositionsAnalyze {
     
     private void processCurrentPatternCharOf(int currentPatternCharIndex, int charsRemained) {
         currentChar = data.patternChars.i(currentPatternCharIndex);
-        currentCharIsUniqueInPattern = data.patternCharsCount.countOf(currentChar) == 1;
+        currentCharIsUniqueInPattern = data.preparedPattern.isUniqueAt(currentPatternCharIndex);
         data.log.add(POSITIONS_SEARCH, "      [explore] '%s'(%s in pattern)", this.currentChar, currentPatternCharIndex);
 
         if ( isWordsSeparator(currentChar) ) {
@@ -1063,7 +1067,9 @@ class PositionsAnalyze {
                             charInWordPosition = word.charPositionOf(currentChar);
                             if ( doesExist(charInWordPosition) ) {
                                 if ( ! filledPositions.contains(charInWordPosition) ) {
-                                    data.log.add(POSITIONS_SEARCH, "             [word possible change] %s -> %s", savedPositionWord.charsString(), word.charsString());
+                                    if ( data.log.isEnabled(POSITIONS_SEARCH) ) {
+                                        data.log.add(POSITIONS_SEARCH, "             [word possible change] %s -> %s", savedPositionWord.charsString(), word.charsString());
+                                    }
                                 }
                             }
                         }
@@ -1077,7 +1083,7 @@ class PositionsAnalyze {
         hasPreviousInPattern = currentPatternCharIndex > 0;
         hasNextInPattern = currentPatternCharIndex < data.patternChars.size() - 1;
 
-        currentPatternCharPositionInVariant = data.variant.indexOf(currentChar);
+        currentPatternCharPositionInVariant = data.variantCharsPositions.firstOf(currentChar);
         
         currentCharInVariantQty = 0;
         if ( currentPatternCharPositionInVariant < 0 ) {
@@ -1121,7 +1127,7 @@ class PositionsAnalyze {
 
             if ( ! positionAlreadyFilled || ( duplicateChar && findPositionsStep.isBefore(STEP_3) ) ) {
                 
-                if ( gotoBreakpointWhen(stepCharAndPositionAre(STEP_2, 'r', 11)) ) {
+                if ( DEBUG_BREAKPOINTS && gotoBreakpointWhen(stepCharAndPositionAre(STEP_2, 'r', 11)) ) {
                     breakpoint();
                 }
                 
@@ -1388,8 +1394,10 @@ class PositionsAnalyze {
                                 int endOfAssessedWord = currentWord.endIndex;
                                 if ( limitVariant > endOfAssessedWord ) {
                                     limitVariant = endOfAssessedWord;
-                                    data.log.add(POSITIONS_SEARCH, "          [info] loop limited by end of current word '%s' - %s",
-                                            currentWord.charsString(), limitVariant);
+                                    if ( data.log.isEnabled(POSITIONS_SEARCH) ) {
+                                        data.log.add(POSITIONS_SEARCH, "          [info] loop limited by end of current word '%s' - %s",
+                                                currentWord.charsString(), limitVariant);
+                                    }
                                 }
 
                                 int matches = 0;
@@ -1420,7 +1428,9 @@ class PositionsAnalyze {
                                     }
 
                                     if ( ! step2LoopCandidatePositionsInLoop.isEmpty() ) {
-                                        step2LoopCandidatePositionsInLoopSorting.addAll(step2LoopCandidatePositionsInLoop);
+                                        for ( int iCandidate = 0; iCandidate < step2LoopCandidatePositionsInLoop.size(); iCandidate++ ) {
+                                            step2LoopCandidatePositionsInLoopSorting.add(step2LoopCandidatePositionsInLoop.get(iCandidate));
+                                        }
                                         Step2LoopCandidatePosition lastInPattern;
                                         Step2LoopCandidatePosition lastInVariant;
 
@@ -1434,9 +1444,11 @@ class PositionsAnalyze {
                                             WordInInput conflictWord = wordOrNullOfPossibleWeakConflict(currentWord, currStepTwoCluster, lastInVariant);
                                             if ( nonNull(conflictWord) ) {
                                                 step2LoopCandidatePositionsInLoop.remove(lastInPattern);
-                                                data.log.add(POSITIONS_SEARCH, "          [info] positions-in-cluster '%s' pattern:%s, variant:%s, included(variant:%s pattern:%s), %s, candidate:true",
-                                                        lastInVariant.c, lastInVariant.patternPosition, lastInVariant.variantPosition, lastInVariant.isFilledInVariant, lastInVariant.isFilledInPattern, MATCH_TYPO_LOOP);
-                                                data.log.add(POSITIONS_SEARCH, "               [conflict] position stolen to word %s", conflictWord.charsString());
+                                                if ( data.log.isEnabled(POSITIONS_SEARCH) ) {
+                                                    data.log.add(POSITIONS_SEARCH, "          [info] positions-in-cluster '%s' pattern:%s, variant:%s, included(variant:%s pattern:%s), %s, candidate:true",
+                                                            lastInVariant.c, lastInVariant.patternPosition, lastInVariant.variantPosition, lastInVariant.isFilledInVariant, lastInVariant.isFilledInPattern, MATCH_TYPO_LOOP);
+                                                    data.log.add(POSITIONS_SEARCH, "               [conflict] position stolen to word %s", conflictWord.charsString());
+                                                }
                                                 stolenChars++;
                                                 candidatePositionsPool.takeBack(lastInPattern);
                                             }
@@ -1639,7 +1651,9 @@ class PositionsAnalyze {
                                             if ( nextWordChar == nextPatternChar ) {
                                                 currStepOneCluster.removeLastNext();
                                                 localUnclusteredPatternCharIndexes.add(lastAddedCharPatternPosition);
-                                                data.log.add(POSITIONS_SEARCH, "          [candidate] '%s'(%s in variant) reject - conflicts with word %s", lastAddedChar, lastAddedCharVariantPosition, word.charsString());
+                                                if ( data.log.isEnabled(POSITIONS_SEARCH) ) {
+                                                    data.log.add(POSITIONS_SEARCH, "          [candidate] '%s'(%s in variant) reject - conflicts with word %s", lastAddedChar, lastAddedCharVariantPosition, word.charsString());
+                                                }
                                                 data.log.add(POSITIONS_SEARCH, "               %s", displayStepOneClusterLastAddedPosition());
                                                 data.log.add(POSITIONS_SEARCH, "               %s : %s", data.pattern, data.variant);
                                                 break wordsConflictsLoop;
@@ -1738,7 +1752,9 @@ class PositionsAnalyze {
                             word = data.wordsInInput.all.get(i);
                             if ( word.length > 1 && hasPossibleConflict(word, currStepOneCluster) ) {
                                 ignoreStepOneCluster = true;
-                                data.log.add(POSITIONS_SEARCH, "          [info] reject cluster - conflicts with word %s", word.charsString());
+                                if ( data.log.isEnabled(POSITIONS_SEARCH) ) {
+                                    data.log.add(POSITIONS_SEARCH, "          [info] reject cluster - conflicts with word %s", word.charsString());
+                                }
                                 break conflictSearch;
                             }
                         }
@@ -1862,11 +1878,8 @@ class PositionsAnalyze {
             }
 
             currentPatternCharPositionInVariantToSave = currentPatternCharPositionInVariant;
-            currentPatternCharPositionInVariant = 
-                    data.variant
-                            .indexOf(
-                                    currentChar, 
-                                    currentPatternCharPositionInVariant + 1);
+            currentPatternCharPositionInVariant =
+                    data.variantCharsPositions.nextAfter(currentPatternCharPositionInVariant);
         }  
         /* 
          * end of characterFinding [asses] loop
@@ -2188,7 +2201,9 @@ class PositionsAnalyze {
                 lastFoundCharPositionInWord = iWord;
             }
             else {
-                data.log.add(POSITIONS_SEARCH, "                [word-char] '%s'[variant:%s word:%s] of word '%s'", variantCh, iVariant, iWord, word.charsString());
+                if ( data.log.isEnabled(POSITIONS_SEARCH) ) {
+                    data.log.add(POSITIONS_SEARCH, "                [word-char] '%s'[variant:%s word:%s] of word '%s'", variantCh, iVariant, iWord, word.charsString());
+                }
                 patternLookup: for (int iPattern = prevStepTwoCluster.assessedCharPatternPosition(); iPattern < data.patternChars.size(); iPattern++) {
                     patternCh = data.patternChars.i(iPattern);
                     if ( this.isPositionSetAt(iPattern) ) {
@@ -2889,7 +2904,9 @@ class PositionsAnalyze {
             wordQuality = 0;
             isSpecialCase = false;
 
-            data.log.add(POSITIONS_CLUSTERS, "       [Word quality] %s", word.charsString());
+            if ( data.log.isEnabled(POSITIONS_CLUSTERS) ) {
+                data.log.add(POSITIONS_CLUSTERS, "       [Word quality] %s", word.charsString());
+            }
 
             if ( word.length == 1 ) {
                 wordQuality = 1;
@@ -4069,7 +4086,9 @@ class PositionsAnalyze {
                             cluster.markAsMisplaced();
                             data.log.add(POSITIONS_CLUSTERS, "                     pattern: %s  <--->  %s", patternGapPrevPositionIndex, patternGapCurrPositionIndex);
                             data.log.add(POSITIONS_CLUSTERS, "                     pattern:%s, variant:%s", iPatternGap, positionOfPatternGap);
-                            data.log.add(POSITIONS_CLUSTERS, "                     cluster-in-middle: %s", clusterInGap.toString());
+                            if ( data.log.isEnabled(POSITIONS_CLUSTERS) ) {
+                                data.log.add(POSITIONS_CLUSTERS, "                     cluster-in-middle: %s", clusterInGap.toString());
+                            }
                             return true;
                         }
                     }
@@ -4154,14 +4173,16 @@ class PositionsAnalyze {
         int currentPositionUnsortedOrder = this.positionUnsortedOrders.get(this.currentPosition);
         int orderDiff = currentPositionUnsortedOrder - (this.currentPositionIndex - this.missed);
         this.currentClusterOrderDiffs.add(orderDiff);
-        data.log.add(
-                POSITIONS_CLUSTERS,
-                "    [cluster position] %s (char '%s') S-Order: %s U-Order: %s orderDiff: %s", 
-                this.currentPosition, 
-                this.data.variant.charAt(this.currentPosition),
-                (this.currentPositionIndex - this.missed), 
-                currentPositionUnsortedOrder, 
-                orderDiff);
+        if ( data.log.isEnabled(POSITIONS_CLUSTERS) ) {
+            data.log.add(
+                    POSITIONS_CLUSTERS,
+                    "    [cluster position] %s (char '%s') S-Order: %s U-Order: %s orderDiff: %s", 
+                    this.currentPosition, 
+                    this.data.variant.charAt(this.currentPosition),
+                    (this.currentPositionIndex - this.missed), 
+                    currentPositionUnsortedOrder, 
+                    orderDiff);
+        }
         
         if ( this.missedRepeatingsLog.isPresent() ) {
             data.log.add(POSITIONS_CLUSTERS,
@@ -4349,8 +4370,10 @@ class PositionsAnalyze {
             for (int patternPosition = 0; patternPosition < this.positions.size(); patternPosition++) {
                 patternChar = this.data.patternChars.i(patternPosition);
                 if ( patternChar == variantChar ) {
-                    data.log.add(POSITIONS_CLUSTERS, "      [?] duplicate char found '%s' : %s for clustered char '%s' : %s",
-                            variantChar, variantPosition, variantChar, this.positions.i(patternPosition));
+                    if ( data.log.isEnabled(POSITIONS_CLUSTERS) ) {
+                        data.log.add(POSITIONS_CLUSTERS, "      [?] duplicate char found '%s' : %s for clustered char '%s' : %s",
+                                variantChar, variantPosition, variantChar, this.positions.i(patternPosition));
+                    }
                     this.meaningful++;
                 }                
             }
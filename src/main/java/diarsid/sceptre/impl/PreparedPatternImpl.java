@@ -0,0 +1,146 @@
+package diarsid.sceptre.impl;
+
+import diarsid.sceptre.api.model.PreparedPattern;
+
+import static diarsid.sceptre.impl.AnalyzeUtil.missedTooMuch;
+import static diarsid.sceptre.impl.InputIndexable.mayContain;
+import static diarsid.support.strings.StringUtils.lower;
+
+public class PreparedPatternImpl implements PreparedPattern {
+
+    private static final Step[] STEPS = Step.values();
+
+    final String pattern;
+    final char[] chars;
+    final boolean[] charsUniqueness;
+    final boolean hasNonAsciiChars;
+    private final boolean[] stepsAllowance;
+    final int missedTooMuchQty;
+
+    public PreparedPatternImpl(String pattern) {
+        this.pattern = lower(pattern);
+        this.chars = this.pattern.toCharArray();
+
+        int length = this.chars.length;
+        this.charsUniqueness = new boolean[length];
+
+        char c;
+        int count;
+        boolean hasNonAsciiChars = false;
+        for ( int i = 0; i < length; i++ ) {
+            c = this.chars[i];
+            hasNonAsciiChars = hasNonAsciiChars || c > 127;
+            count = 0;
+            for ( int j = 0; j < length; j++ ) {
+                if ( this.chars[j] == c ) {
+                    count++;
+                }
+            }
+            this.charsUniqueness[i] = count == 1;
+        }
+        this.hasNonAsciiChars = hasNonAsciiChars;
+
+        this.stepsAllowance = new boolean[STEPS.length];
+        for ( Step step : STEPS ) {
+            this.stepsAllowance[step.ordinal()] = step.canProceedWith(length);
+        }
+
+        int missedQty = 1;
+        while ( missedQty <= length && ! missedTooMuch(missedQty, length) ) {
+            missedQty++;
+        }
+        this.missedTooMuchQty = missedQty;
+    }
+
+    static PreparedPatternImpl mustBeImpl(PreparedPattern pattern) {
+        if ( pattern instanceof PreparedPatternImpl ) {
+            return (PreparedPatternImpl) pattern;
+        }
+
+        throw new IllegalArgumentException(
+                "Unknown " + PreparedPattern.class.getSimpleName() + " implementation, use Analyze.prepare()");
+    }
+
+    boolean isUniqueAt(int patternIndex) {
+        return this.charsUniqueness[patternIndex];
+    }
+
+    boolean canProceedWith(Step step) {
+        return this.stepsAllowance[step.ordinal()];
+    }
+
+    /*
+     * Pattern chars that are absent in variant can never obtain positions, so their quantity is
+     * the lower bound of missed positions. If it is already too much, analysis will reject the variant.
+     * Non-ASCII chars share bits of chars mask with other chars, so for pattern with non-ASCII chars
+     * absent chars are counted again on lowered variant.
+     */
+    boolean isMissedTooMuchIn(InputIndexable input) {
+        if ( this.isMissedTooMuchIn(input.charsMaskLow(), input.charsMaskHigh()) ) {
+            return true;
+        }
+
+        return this.hasNonAsciiChars && this.isMissedTooMuchIn(lower(input.string()));
+    }
+
+    boolean isMissedTooMuchIn(long charsMaskLow, long charsMaskHigh) {
+        int absent = 0;
+        for ( int i = 0; i < this.chars.length; i++ ) {
+            if ( ! mayContain(charsMaskLow, charsMaskHigh, this.chars[i]) ) {
+                absent++;
+                if ( absent >= this.missedTooMuchQty ) {
+                    return true;
+                }
+            }
+        }
+
+        return false;
+    }
+
+    boolean isMissedTooMuchIn(String variantLowered) {
+        int absent = 0;
+        for ( int i = 0; i < this.chars.length; i++ ) {
+            if ( variantLowered.indexOf(this.chars[i]) < 0 ) {
+                absent++;
+                if ( absent >= this.missedTooMuchQty ) {
+                    return true;
+                }
+            }
+        }
+
+        return false;
+    }
+
+    /*
+     * Quantity of pattern chars, starting from given index, that are absent in variant.
+     */
+    int absentCharsIn(InputIndexable input, int fromIndex) {
+        return this.absentCharsIn(input.charsMaskLow(), input.charsMaskHigh(), fromIndex);
+    }
+
+    int absentCharsIn(long charsMaskLow, long charsMaskHigh, int fromIndex) {
+        int absent = 0;
+        for ( int i = fromIndex; i < this.chars.length; i++ ) {
+            if ( ! mayContain(charsMaskLow, charsMaskHigh, this.chars[i]) ) {
+                absent++;
+            }
+        }
+
+        return absent;
+    }
+
+    @Override
+    public String string() {
+        return this.pattern;
+    }
+
+    @Override
+    public int length() {
+        return this.chars.length;
+    }
+
+    @Override
+    public String toString() {
+        return this.pattern;
+    }
+}
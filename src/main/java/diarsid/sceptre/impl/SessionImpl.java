@@ -0,0 +1,154 @@
+package diarsid.sceptre.impl;
+
+import java.util.Arrays;
+import java.util.List;
+
+import diarsid.sceptre.api.Analyze;
+import diarsid.sceptre.api.model.Output;
+
+import static java.util.Objects.nonNull;
+
+import static diarsid.sceptre.impl.AnalyzeImpl.NO_LIMIT;
+import static diarsid.sceptre.impl.AnalyzeImpl.mustBeValid;
+
+/*
+ * For every input keeps the quantity of absent pattern chars, counted up to some pattern length.
+ * When pattern is extended, this quantity can only grow, so it is the lower bound of absent chars
+ * for the extended pattern. Inputs whose lower bound is already too much are kept excluded in
+ * buckets by their bound and are not looked at until pattern is extended enough for the bound
+ * to become acceptable again, then their absent chars are counted further from where they stopped.
+ * Remained candidates are weighted as usual.
+ */
+class SessionImpl implements Analyze.Session {
+
+    private final AnalyzeImpl analyze;
+    private final IndexedCorpusImpl corpus;
+    private final int[] absentLowerBounds;
+    private final int[] absentCountedUpTo;
+
+    private int[] candidates;
+    private int[] candidatesSwap;
+    private int candidatesQty;
+
+    private int[][] excludedByBound;
+    private int[] excludedQtyByBound;
+
+    private PreparedPatternImpl pattern;
+
+    SessionImpl(AnalyzeImpl analyze, IndexedCorpusImpl corpus) {
+        int size = corpus.inputs.size();
+        this.analyze = analyze;
+        this.corpus = corpus;
+        this.absentLowerBounds = new int[size];
+        this.absentCountedUpTo = new int[size];
+        this.candidates = new int[size];
+        this.candidatesSwap = new int[size];
+        this.candidatesQty = 0;
+        this.excludedByBound = new int[0][];
+        this.excludedQtyByBound = new int[0];
+        this.pattern = null;
+    }
+
+    @Override
+    public List<Output> process(String pattern) {
+        return this.process(new PreparedPatternImpl(pattern), NO_LIMIT);
+    }
+
+    @Override
+    public List<Output> process(String pattern, int limit) {
+        return this.process(new PreparedPatternImpl(pattern), mustBeValid(limit));
+    }
+
+    private List<Output> process(PreparedPatternImpl newPattern, int limit) {
+        if ( nonNull(this.pattern) && newPattern.pattern.startsWith(this.pattern.pattern) ) {
+            this.extendTo(newPattern);
+        }
+        else {
+            this.resetTo(newPattern);
+        }
+
+        this.pattern = newPattern;
+
+        int[] selection = Arrays.copyOf(this.candidates, this.candidatesQty);
+        Arrays.sort(selection);
+
+        return this.analyze.weightCorpusSelectionInternally(newPattern, this.corpus, selection, limit);
+    }
+
+    private void resetTo(PreparedPatternImpl newPattern) {
+        Arrays.fill(this.excludedQtyByBound, 0);
+        this.candidatesQty = 0;
+
+        for ( int i = 0; i < this.absentLowerBounds.length; i++ ) {
+            this.absentLowerBounds[i] = 0;
+            this.absentCountedUpTo[i] = 0;
+            this.countAndPlace(i, newPattern);
+        }
+    }
+
+    private void extendTo(PreparedPatternImpl newPattern) {
+        int[] previousCandidates = this.candidates;
+        int previousCandidatesQty = this.candidatesQty;
+        this.candidates = this.candidatesSwap;
+        this.candidatesSwap = previousCandidates;
+        this.candidatesQty = 0;
+
+        for ( int i = 0; i < previousCandidatesQty; i++ ) {
+            this.countAndPlace(previousCandidates[i], newPattern);
+        }
+
+        int[] excluded;
+        int excludedQty;
+        int bounds = Math.min(newPattern.missedTooMuchQty, this.excludedByBound.length);
+        for ( int bound = 0; bound < bounds; bound++ ) {
+            excluded = this.excludedByBound[bound];
+            excludedQty = this.excludedQtyByBound[bound];
+            if ( excludedQty == 0 ) {
+                continue;
+            }
+
+            /* bounds can only grow, so no input is placed back to this bucket while it is iterated */
+            this.excludedQtyByBound[bound] = 0;
+            for ( int i = 0; i < excludedQty; i++ ) {
+                this.countAndPlace(excluded[i], newPattern);
+            }
+        }
+    }
+
+    private void countAndPlace(int i, PreparedPatternImpl newPattern) {
+        int bound = this.absentLowerBounds[i] + this.corpus.absentCharsOf(
+                newPattern, i, this.absentCountedUpTo[i]);
+        this.absentLowerBounds[i] = bound;
+        this.absentCountedUpTo[i] = newPattern.chars.length;
+
+        if ( bound < newPattern.missedTooMuchQty ) {
+            this.candidates[this.candidatesQty] = i;
+            this.candidatesQty++;
+        }
+        else {
+            this.exclude(i, bound);
+        }
+    }
+
+    private void exclude(int i, int bound) {
+        if ( bound >= this.excludedByBound.length ) {
+            int length = bound + 1;
+            int previousLength = this.excludedByBound.length;
+            this.excludedByBound = Arrays.copyOf(this.excludedByBound, length);
+            this.excludedQtyByBound = Arrays.copyOf(this.excludedQtyByBound, length);
+            for ( int b = previousLength; b < length; b++ ) {
+                this.excludedByBound[b] = new int[0];
+            }
+        }
+
+        int[] excluded = this.excludedByBound[bound];
+        int excludedQty = this.excludedQtyByBound[bound];
+        if ( excludedQty == excluded.length ) {
+            excluded = Arrays.copyOf(excluded, Math.max(excludedQty * 2, 8));
+            this.excludedByBound[bound] = excluded;
+        }
+
+        excluded[excludedQty] = i;
+        this.excludedQtyByBound[bound] = excludedQty + 1;
+    }
+}
@@ -4,7 +4,7 @@ import diarsid.sceptre.impl.collections.Ints;
 import diarsid.sceptre.impl.collections.ListInt;
 import diarsid.sceptre.impl.collections.MapIntInt;
 import diarsid.sceptre.impl.collections.impl.ListIntImpl;
-import diarsid.sceptre.impl.collections.impl.MapIntIntImpl;
+import diarsid.sceptre.impl.collections.impl.MapIntIntHashImpl;
 import diarsid.support.objects.StatefulClearable;
 
 import static java.lang.Math.round;
@@ -18,7 +18,7 @@ public class SmartMean implements StatefulClearable {
     private final ListInt maxElements;
 
     public SmartMean() {
-        this.elementsCounts = new MapIntIntImpl();
+        this.elementsCounts = new MapIntIntHashImpl();
         this.maxElements = new ListIntImpl();
     }
 
@@ -94,7 +94,8 @@ public class SmartMean implements StatefulClearable {
             for ( int i = 0; i < this.maxElements.size(); i++ ) {
                 maxElement = this.maxElements.get(i);
                 absDiff = absDiff(mean, maxElement);
-                if ( absDiff < minAbsDiff ) {
+                /* lower element wins on equal diff, whatever order elements are counted in */
+                if ( absDiff < minAbsDiff || (absDiff == minAbsDiff && maxElement < bestMaxElement) ) {
                     minAbsDiff = absDiff;
                     bestMaxElement = maxElement;
                 }
@@ -0,0 +1,11 @@
+package diarsid.sceptre.impl;
+
+/*
+ * Strings that are not kept as String objects, string i is created anew every time it is taken.
+ */
+interface StoredStrings {
+
+    int size();
+
+    String stringOf(int i);
+}
@@ -0,0 +1,107 @@
+package diarsid.sceptre.impl;
+
+import java.util.function.IntFunction;
+
+import static java.nio.charset.StandardCharsets.ISO_8859_1;
+
+/*
+ * Strings packed one after another into a single byte array, string i is located between offsets[i]
+ * and offsets[i + 1]. String that has only Latin-1 chars takes one byte per char, other strings take two
+ * bytes per char, the same way as compact strings of JVM do. Immutable and safe to share between threads.
+ */
+class StringsArena implements StoredStrings {
+
+    private final byte[] bytes;
+    private final int[] offsets;
+    private final long[] utf16;
+
+    StringsArena(int size, IntFunction<String> strings) {
+        this.offsets = new int[size + 1];
+        this.utf16 = new long[(size + 63) >>> 6];
+
+        long length = 0;
+        String string;
+        for ( int i = 0; i < size; i++ ) {
+            string = strings.apply(i);
+            if ( isLatin1(string) ) {
+                length = length + string.length();
+            }
+            else {
+                this.utf16[i >>> 6] = this.utf16[i >>> 6] | (1L << i);
+                length = length + string.length() * 2L;
+            }
+
+            if ( length > Integer.MAX_VALUE - 8 ) {
+                throw new IllegalArgumentException("Strings are too long to be stored in a single arena");
+            }
+
+            this.offsets[i + 1] = (int) length;
+        }
+
+        this.bytes = new byte[(int) length];
+
+        int position;
+        char c;
+        for ( int i = 0; i < size; i++ ) {
+            string = strings.apply(i);
+            position = this.offsets[i];
+            if ( this.isUtf16(i) ) {
+                for ( int j = 0; j < string.length(); j++ ) {
+                    c = string.charAt(j);
+                    this.bytes[position++] = (byte) c;
+                    this.bytes[position++] = (byte) (c >>> 8);
+                }
+            }
+            else {
+                for ( int j = 0; j < string.length(); j++ ) {
+                    this.bytes[position++] = (byte) string.charAt(j);
+                }
+            }
+        }
+    }
+
+    private static boolean isLatin1(String string) {
+        for ( int i = 0; i < string.length(); i++ ) {
+            if ( string.charAt(i) > 0xFF ) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    private boolean isUtf16(int i) {
+        return (this.utf16[i >>> 6] & (1L << i)) != 0;
+    }
+
+    @Override
+    public int size() {
+        return this.offsets.length - 1;
+    }
+
+    @Override
+    public String stringOf(int i) {
+        int from = this.offsets[i];
+        int length = this.offsets[i + 1] - from;
+
+        if ( this.isUtf16(i) ) {
+            /*
+             * Chars are restored from byte pairs as is, UTF-16 decoder would replace lone surrogates.
+             */
+            char[] chars = new char[length >>> 1];
+            int position = from;
+            for ( int j = 0; j < chars.length; j++ ) {
+                chars[j] = (char) ((this.bytes[position] & 0xFF) | (this.bytes[position + 1] << 8));
+                position = position + 2;
+            }
+            return new String(chars);
+        }
+        else {
+            return new String(this.bytes, from, length, ISO_8859_1);
+        }
+    }
+
+    int bytesLength() {
+        return this.bytes.length;
+    }
+}
@@ -10,7 +10,6 @@ import diarsid.support.objects.references.Possible;
 
 import static diarsid.sceptre.api.LogType.POSITIONS_SEARCH;
 import static diarsid.sceptre.impl.Typos.Placing.BEFORE;
-import static diarsid.support.objects.Pools.pools;
 import static diarsid.support.objects.references.References.simplePossibleButEmpty;
 
 class Typos implements StatefulClearable, AutoCloseable {
@@ -29,7 +28,7 @@ class Typos implements StatefulClearable, AutoCloseable {
 
     Typos(Logging log) {
         this.log = log;
-        this.typosPool = pools().createPool(Typo.class, () -> new Typo());
+        this.typosPool = new GuardedPool<>(Typo::new);
         this.pattern = simplePossibleButEmpty();
         this.variant = simplePossibleButEmpty();
         this.typosBefore = new ArrayList<>();
@@ -46,14 +45,16 @@ class Typos implements StatefulClearable, AutoCloseable {
             int variantFromIncl, int variantToExcl,
             int patternFromIncl, int patternToExcl) {
         this.log.add(POSITIONS_SEARCH, "          [info] typo searching:");
-        this.log.add(POSITIONS_SEARCH, "             in variant from incl. %s to excl %s - %s",
-                                     variantFromIncl,
-                                     variantToExcl,
-                                     this.variant.orThrow().substring(variantFromIncl, variantToExcl));
-        this.log.add(POSITIONS_SEARCH, "             in pattern from incl. %s to excl %s - %s",
-                                     patternFromIncl,
-                                     patternToExcl,
-                                     this.pattern.orThrow().substring(patternFromIncl, patternToExcl));
+        if ( this.log.isEnabled(POSITIONS_SEARCH) ) {
+            this.log.add(POSITIONS_SEARCH, "             in variant from incl. %s to excl %s - %s",
+                                         variantFromIncl,
+                                         variantToExcl,
+                                         this.variant.orThrow().substring(variantFromIncl, variantToExcl));
+            this.log.add(POSITIONS_SEARCH, "             in pattern from incl. %s to excl %s - %s",
+                                         patternFromIncl,
+                                         patternToExcl,
+                                         this.pattern.orThrow().substring(patternFromIncl, patternToExcl));
+        }
         if ( variantFromIncl < 0 ) {
             throw new IllegalArgumentException();
         }
@@ -0,0 +1,125 @@
+package diarsid.sceptre.impl;
+
+import java.util.Arrays;
+
+import diarsid.support.objects.StatefulClearable;
+
+/*
+ * Positions of every char in variant, built once per variant. For each char the first position is stored,
+ * for each position - the next position of the same char, so all positions of a char are iterated
+ * in ascending order without scanning the variant.
+ */
+class VariantCharsPositions implements StatefulClearable {
+
+    private static final int ASCII = 128;
+    private static final int INITIAL_LENGTH = 64;
+    private static final int NOT_FOUND = -1;
+
+    private final int[] firstPositionsOfAscii;
+    private char[] otherChars;
+    private int[] firstPositionsOfOther;
+    private int othersQty;
+    private int[] nextPositions;
+    private String variant;
+
+    VariantCharsPositions() {
+        this.firstPositionsOfAscii = new int[ASCII];
+        Arrays.fill(this.firstPositionsOfAscii, NOT_FOUND);
+        this.otherChars = new char[8];
+        this.firstPositionsOfOther = new int[8];
+        this.othersQty = 0;
+        this.nextPositions = new int[INITIAL_LENGTH];
+        this.variant = null;
+    }
+
+    void set(String variant) {
+        this.clear();
+        this.variant = variant;
+
+        int length = variant.length();
+        if ( length > this.nextPositions.length ) {
+            this.nextPositions = new int[Math.max(length, this.nextPositions.length * 2)];
+        }
+
+        char c;
+        int other;
+        for ( int i = length - 1; i > -1; i-- ) {
+            c = variant.charAt(i);
+            if ( c < ASCII ) {
+                this.nextPositions[i] = this.firstPositionsOfAscii[c];
+                this.firstPositionsOfAscii[c] = i;
+            }
+            else {
+                other = this.otherIndexOf(c);
+                if ( other < 0 ) {
+                    other = this.addOther(c);
+                }
+                this.nextPositions[i] = this.firstPositionsOfOther[other];
+                this.firstPositionsOfOther[other] = i;
+            }
+        }
+    }
+
+    private int otherIndexOf(char c) {
+        for ( int i = 0; i < this.othersQty; i++ ) {
+            if ( this.otherChars[i] == c ) {
+                return i;
+            }
+        }
+        return NOT_FOUND;
+    }
+
+    private int addOther(char c) {
+        if ( this.othersQty == this.otherChars.length ) {
+            this.otherChars = Arrays.copyOf(this.otherChars, this.othersQty * 2);
+            this.firstPositionsOfOther = Arrays.copyOf(this.firstPositionsOfOther, this.othersQty * 2);
+        }
+
+        this.otherChars[this.othersQty] = c;
+        this.firstPositionsOfOther[this.othersQty] = NOT_FOUND;
+        this.othersQty++;
+
+        return this.othersQty - 1;
+    }
+
+    /*
+     * Equivalent of variant.indexOf(c)
+     */
+    int firstOf(char c) {
+        int position;
+        if ( c < ASCII ) {
+            position = this.firstPositionsOfAscii[c];
+        }
+        else {
+            int other = this.otherIndexOf(c);
+            position = other < 0 ? NOT_FOUND : this.firstPositionsOfOther[other];
+        }
+
+        return position;
+    }
+
+    /*
+     * Equivalent of variant.indexOf(variant.charAt(position), position + 1)
+     */
+    int nextAfter(int position) {
+        return this.nextPositions[position];
+    }
+
+    @Override
+    public void clear() {
+        if ( this.variant == null ) {
+            return;
+        }
+
+        char c;
+        for ( int i = 0; i < this.variant.length(); i++ ) {
+            c = this.variant.charAt(i);
+            if ( c < ASCII ) {
+                this.firstPositionsOfAscii[c] = NOT_FOUND;
+            }
+        }
+
+        this.othersQty = 0;
+        this.variant = null;
+    }
+}
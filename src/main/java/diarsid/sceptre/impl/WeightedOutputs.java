@@ -0,0 +1,325 @@
+package diarsid.sceptre.impl;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import diarsid.sceptre.api.ResultCollector;
+
+import static java.util.Collections.sort;
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
+
+abstract class WeightedOutputs {
+
+    static WeightedOutputs all() {
+        return new All();
+    }
+
+    static WeightedOutputs best(int limit) {
+        return new Best(limit);
+    }
+
+    static Streamed streamed(boolean isRetaining) {
+        return new Streamed(isRetaining);
+    }
+
+    static WeightedOutputs collected(ResultCollector collector) {
+        return new Collected(collector);
+    }
+
+    /*
+     * Checks whether output with given weight will be retained, before output is created.
+     * Input is identified by its position in weighted inputs, inputs are expected to be offered
+     * in order of their positions.
+     */
+    abstract boolean isAcceptable(float weight, int inputPosition);
+
+    abstract void add(int inputPosition, OutputImpl output);
+
+    /*
+     * Passes weight of accepted input further without creating an output, input is identified by its
+     * position in weighted inputs. Returns false if output must be created and added instead.
+     */
+    boolean collect(int inputPosition, float weight) {
+        return false;
+    }
+
+    abstract void addAll(WeightedOutputs other);
+
+    abstract int size();
+
+    /*
+     * Returns outputs in the order produced by sorting of all outputs in order of their input positions.
+     */
+    abstract List<OutputImpl> sorted();
+
+    static class All extends WeightedOutputs {
+
+        private final List<OutputImpl> outputs;
+
+        All() {
+            this.outputs = new ArrayList<>();
+        }
+
+        @Override
+        boolean isAcceptable(float weight, int inputPosition) {
+            return true;
+        }
+
+        @Override
+        void add(int inputPosition, OutputImpl output) {
+            this.outputs.add(output);
+        }
+
+        @Override
+        void addAll(WeightedOutputs other) {
+            this.outputs.addAll(((All) other).outputs);
+        }
+
+        @Override
+        int size() {
+            return this.outputs.size();
+        }
+
+        @Override
+        List<OutputImpl> sorted() {
+            sort(this.outputs);
+            return this.outputs;
+        }
+    }
+
+    /*
+     * Bounded max-heap that keeps only the best outputs. Heap root is the worst of retained outputs:
+     * the one with the highest weight or, among equal weights, with the latest input position.
+     * Input position of every retained output is kept in the same slot of positions.
+     */
+    static class Best extends WeightedOutputs {
+
+        private final OutputImpl[] heap;
+        private final int[] positions;
+        private int size;
+
+        Best(int limit) {
+            if ( limit < 1 ) {
+                throw new IllegalArgumentException("Limit must be positive, but was: " + limit);
+            }
+
+            this.heap = new OutputImpl[limit];
+            this.positions = new int[limit];
+            this.size = 0;
+        }
+
+        private static boolean isWorse(float weight1, int position1, float weight2, int position2) {
+            if ( weight1 > weight2 ) {
+                return true;
+            }
+            else if ( weight1 < weight2 ) {
+                return false;
+            }
+            else {
+                return position1 > position2;
+            }
+        }
+
+        private boolean isWorse(int slot, float weight, int inputPosition) {
+            return isWorse(this.heap[slot].weight(), this.positions[slot], weight, inputPosition);
+        }
+
+        @Override
+        boolean isAcceptable(float weight, int inputPosition) {
+            return this.size < this.heap.length || this.isWorse(0, weight, inputPosition);
+        }
+
+        @Override
+        void add(int inputPosition, OutputImpl output) {
+            if ( this.size < this.heap.length ) {
+                this.siftUp(this.size, inputPosition, output);
+                this.size++;
+            }
+            else if ( this.isWorse(0, output.weight(), inputPosition) ) {
+                this.siftDown(0, inputPosition, output);
+            }
+        }
+
+        private void siftUp(int i, int position, OutputImpl output) {
+            int parent;
+            while ( i > 0 ) {
+                parent = (i - 1) >>> 1;
+                if ( isWorse(output.weight(), position, this.heap[parent].weight(), this.positions[parent]) ) {
+                    this.heap[i] = this.heap[parent];
+                    this.positions[i] = this.positions[parent];
+                    i = parent;
+                }
+                else {
+                    break;
+                }
+            }
+            this.heap[i] = output;
+            this.positions[i] = position;
+        }
+
+        private void siftDown(int i, int position, OutputImpl output) {
+            int half = this.size >>> 1;
+            int child;
+            int right;
+            while ( i < half ) {
+                child = (i << 1) + 1;
+                right = child + 1;
+                if ( right < this.size && this.isWorse(right, this.heap[child].weight(), this.positions[child]) ) {
+                    child = right;
+                }
+
+                if ( this.isWorse(child, output.weight(), position) ) {
+                    this.heap[i] = this.heap[child];
+                    this.positions[i] = this.positions[child];
+                    i = child;
+                }
+                else {
+                    break;
+                }
+            }
+            this.heap[i] = output;
+            this.positions[i] = position;
+        }
+
+        @Override
+        void addAll(WeightedOutputs other) {
+            Best otherBest = (Best) other;
+            for ( int i = 0; i < otherBest.size; i++ ) {
+                this.add(otherBest.positions[i], otherBest.heap[i]);
+            }
+        }
+
+        @Override
+        int size() {
+            return this.size;
+        }
+
+        @Override
+        List<OutputImpl> sorted() {
+            Integer[] slots = new Integer[this.size];
+            for ( int i = 0; i < this.size; i++ ) {
+                slots[i] = i;
+            }
+
+            Arrays.sort(slots, (slot1, slot2) -> {
+                if ( this.isWorse(slot1, this.heap[slot2].weight(), this.positions[slot2]) ) {
+                    return 1;
+                }
+                else if ( this.isWorse(slot2, this.heap[slot1].weight(), this.positions[slot1]) ) {
+                    return -1;
+                }
+                else {
+                    return 0;
+                }
+            });
+
+            List<OutputImpl> outputs = new ArrayList<>(this.size);
+            for ( Integer slot : slots ) {
+                outputs.add(this.heap[slot]);
+            }
+            return outputs;
+        }
+    }
+
+    /*
+     * Keeps the last added output until it is extracted to be emitted. All outputs are retained
+     * only if they will be sorted after all inputs are weighted.
+     */
+    static class Streamed extends WeightedOutputs {
+
+        private final List<OutputImpl> outputs;
+        private OutputImpl added;
+
+        Streamed(boolean isRetaining) {
+            this.outputs = isRetaining ? new ArrayList<>() : null;
+            this.added = null;
+        }
+
+        @Override
+        boolean isAcceptable(float weight, int inputPosition) {
+            return true;
+        }
+
+        @Override
+        void add(int inputPosition, OutputImpl output) {
+            this.added = output;
+            if ( nonNull(this.outputs) ) {
+                this.outputs.add(output);
+            }
+        }
+
+        OutputImpl extractAdded() {
+            OutputImpl output = this.added;
+            this.added = null;
+            return output;
+        }
+
+        @Override
+        void addAll(WeightedOutputs other) {
+            throw new IllegalStateException("Streamed outputs are not weighted in parallel chunks");
+        }
+
+        @Override
+        int size() {
+            return isNull(this.outputs) ? 0 : this.outputs.size();
+        }
+
+        @Override
+        List<OutputImpl> sorted() {
+            if ( isNull(this.outputs) ) {
+                throw new IllegalStateException("Streamed outputs are not retained");
+            }
+
+            sort(this.outputs);
+            return this.outputs;
+        }
+    }
+
+    /*
+     * Retains nothing, every accepted weight is passed to the collector as is.
+     */
+    static class Collected extends WeightedOutputs {
+
+        private final ResultCollector collector;
+        private int size;
+
+        Collected(ResultCollector collector) {
+            this.collector = collector;
+            this.size = 0;
+        }
+
+        @Override
+        boolean isAcceptable(float weight, int inputPosition) {
+            return true;
+        }
+
+        @Override
+        boolean collect(int inputPosition, float weight) {
+            this.collector.collect(inputPosition, weight);
+            this.size++;
+            return true;
+        }
+
+        @Override
+        void add(int inputPosition, OutputImpl output) {
+            throw new IllegalStateException("Outputs are not created for collected weights");
+        }
+
+        @Override
+        void addAll(WeightedOutputs other) {
+            throw new IllegalStateException("Collected weights are not weighted in parallel chunks");
+        }
+
+        @Override
+        int size() {
+            return this.size;
+        }
+
+        @Override
+        List<OutputImpl> sorted() {
+            throw new IllegalStateException("Collected weights are not retained");
+        }
+    }
+}
@@ -7,7 +7,7 @@ import diarsid.sceptre.impl.collections.ArrayInt;
 import diarsid.sceptre.impl.collections.Ints;
 import diarsid.sceptre.impl.collections.ListInt;
 import diarsid.sceptre.impl.collections.MapIntInt;
-import diarsid.sceptre.impl.collections.impl.MapIntIntImpl;
+import diarsid.sceptre.impl.collections.impl.MapIntIntHashImpl;
 import diarsid.support.objects.GuardedPool;
 import diarsid.support.objects.PooledReusable;
 import diarsid.support.objects.StatefulClearable;
@@ -147,7 +147,7 @@ public class WordsInInput implements StatefulClearable {
 
         public Qualities(WordsInInput wordsInInput) {
             this.wordsInInput = wordsInInput;
-            this.qualitiesByWordIndex = new MapIntIntImpl();
+            this.qualitiesByWordIndex = new MapIntIntHashImpl();
         }
 
         @Override
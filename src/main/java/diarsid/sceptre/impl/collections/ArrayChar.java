@@ -29,6 +29,8 @@ public interface ArrayChar {
 
     void fillFrom(String s);
 
+    void fillFrom(char[] chars);
+
     void clear();
 
     Elements elements();
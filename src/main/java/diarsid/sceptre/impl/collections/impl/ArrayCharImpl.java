@@ -117,6 +117,12 @@ public class ArrayCharImpl implements ArrayChar {
         }
     }
 
+    @Override
+    public void fillFrom(char[] chars) {
+        this.setSize(chars.length);
+        System.arraycopy(chars, 0, this.array, 0, chars.length);
+    }
+
     @Override
     public void clear() {
         this.size = -1;
@@ -0,0 +1,390 @@
+package diarsid.sceptre.impl.collections.impl;
+
+import java.util.Arrays;
+
+import diarsid.sceptre.impl.collections.Ints;
+import diarsid.sceptre.impl.collections.MapIntInt;
+
+import static diarsid.sceptre.impl.collections.impl.Constants.DEFAULT_ARRAY_SIZE;
+
+/*
+ * Keys and values are stored densely in parallel arrays in order of their insertion, while
+ * lookup of key goes through open addressing table with linear probing, which holds indexes
+ * of keys in dense arrays. Unlike MapIntIntImpl, entries, keys and values are not iterated
+ * in order of keys - insertion order is kept until any key is removed.
+ */
+public class MapIntIntHashImpl implements MapIntInt {
+
+    private static final int NO_INDEX = 0;
+    private static final int NOT_FOUND = -1;
+    private static final int HASH_MULTIPLIER = 0x9E3779B9;
+
+    private static class EntriesIterator implements Entries {
+
+        private final MapIntIntHashImpl map;
+        private int i;
+
+        public EntriesIterator(MapIntIntHashImpl map) {
+            this.map = map;
+            this.i = -1;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return this.i < this.map.size - 1;
+        }
+
+        @Override
+        public void next() {
+            this.i++;
+        }
+
+        @Override
+        public int currentKey() {
+            return this.map.keys[this.i];
+        }
+
+        @Override
+        public int currentValue() {
+            return this.map.values[this.i];
+        }
+
+        void clear() {
+            this.i = -1;
+        }
+    }
+
+    private static abstract class AbstractInts implements Ints {
+
+        private static class Elements implements Ints.Elements {
+
+            private final AbstractInts ints;
+            private int i;
+
+            public Elements(AbstractInts ints) {
+                this.ints = ints;
+                this.i = -1;
+            }
+
+            @Override
+            public boolean hasNext() {
+                return this.i < this.ints.map.size - 1;
+            }
+
+            @Override
+            public Ints.Elements next() {
+                this.i++;
+                return this;
+            }
+
+            @Override
+            public int current() {
+                return this.ints.ints()[this.i];
+            }
+        }
+
+        protected final MapIntIntHashImpl map;
+        private final Elements elements;
+
+        public AbstractInts(MapIntIntHashImpl map) {
+            this.map = map;
+            this.elements = new Elements(this);
+        }
+
+        protected abstract int[] ints();
+
+        @Override
+        public int size() {
+            return this.map.size;
+        }
+
+        @Override
+        public boolean isEmpty() {
+            return this.map.size == 0;
+        }
+
+        @Override
+        public boolean isNotEmpty() {
+            return this.map.size > 0;
+        }
+
+        @Override
+        public boolean notContains(int value) {
+            return ! this.contains(value);
+        }
+
+        @Override
+        public Ints.Elements elements() {
+            this.elements.i = -1;
+            return this.elements;
+        }
+
+        @Override
+        public String join(String delimiter) {
+            StringBuilder sb = new StringBuilder();
+
+            int[] ints = this.ints();
+            int last = this.map.size - 1;
+            for ( int i = 0; i < last; i++ ) {
+                sb.append(ints[i]).append(delimiter);
+            }
+
+            if ( last > -1 ) {
+                sb.append(ints[last]);
+            }
+
+            return sb.toString();
+        }
+    }
+
+    private static class MapKeys extends AbstractInts implements Keys {
+
+        public MapKeys(MapIntIntHashImpl map) {
+            super(map);
+        }
+
+        @Override
+        protected int[] ints() {
+            return super.map.keys;
+        }
+
+        @Override
+        public boolean contains(int key) {
+            return super.map.indexOf(key) != NOT_FOUND;
+        }
+    }
+
+    private static class MapValues extends AbstractInts implements Values {
+
+        public MapValues(MapIntIntHashImpl map) {
+            super(map);
+        }
+
+        @Override
+        protected int[] ints() {
+            return super.map.values;
+        }
+
+        @Override
+        public boolean contains(int value) {
+            int[] values = super.map.values;
+            for ( int i = 0; i < super.map.size; i++ ) {
+                if ( values[i] == value ) {
+                    return true;
+                }
+            }
+
+            return false;
+        }
+    }
+
+    private final EntriesIterator iterator;
+    private final MapKeys keysView;
+    private final MapValues valuesView;
+    /* index of key in keys and values plus 1, or NO_INDEX if slot is empty */
+    private int[] slots;
+    private int slotsShift;
+    private int[] keys;
+    private int[] values;
+    private int size;
+
+    public MapIntIntHashImpl() {
+        this.keys = new int[DEFAULT_ARRAY_SIZE];
+        this.values = new int[DEFAULT_ARRAY_SIZE];
+        this.slots = new int[DEFAULT_ARRAY_SIZE * 2];
+        this.slotsShift = Integer.numberOfLeadingZeros(this.slots.length - 1);
+        this.size = 0;
+        this.iterator = new EntriesIterator(this);
+        this.keysView = new MapKeys(this);
+        this.valuesView = new MapValues(this);
+    }
+
+    private int slotOf(int key) {
+        return (key * HASH_MULTIPLIER) >>> this.slotsShift;
+    }
+
+    private int indexOf(int key) {
+        int mask = this.slots.length - 1;
+        int slot = this.slotOf(key);
+        int indexInSlot;
+        while ( (indexInSlot = this.slots[slot]) != NO_INDEX ) {
+            if ( this.keys[indexInSlot - 1] == key ) {
+                return indexInSlot - 1;
+            }
+            slot = (slot + 1) & mask;
+        }
+
+        return NOT_FOUND;
+    }
+
+    private void insertSlot(int key, int index) {
+        int mask = this.slots.length - 1;
+        int slot = this.slotOf(key);
+        while ( this.slots[slot] != NO_INDEX ) {
+            slot = (slot + 1) & mask;
+        }
+        this.slots[slot] = index + 1;
+    }
+
+    private void add(int key, int value) {
+        if ( this.size == this.keys.length ) {
+            this.extend();
+        }
+
+        this.keys[this.size] = key;
+        this.values[this.size] = value;
+        this.insertSlot(key, this.size);
+        this.size++;
+    }
+
+    private void extend() {
+        int length = this.keys.length * 2;
+        this.keys = Arrays.copyOf(this.keys, length);
+        this.values = Arrays.copyOf(this.values, length);
+        this.slots = new int[length * 2];
+        this.slotsShift = Integer.numberOfLeadingZeros(this.slots.length - 1);
+        for ( int i = 0; i < this.size; i++ ) {
+            this.insertSlot(this.keys[i], i);
+        }
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return this.size == 0;
+    }
+
+    @Override
+    public boolean isNotEmpty() {
+        return this.size > 0;
+    }
+
+    @Override
+    public int size() {
+        return this.size;
+    }
+
+    @Override
+    public Keys keys() {
+        return this.keysView;
+    }
+
+    @Override
+    public Values values() {
+        return this.valuesView;
+    }
+
+    @Override
+    public Entries entries() {
+        this.iterator.clear();
+        return this.iterator;
+    }
+
+    @Override
+    public boolean containsKey(int key) {
+        return this.indexOf(key) != NOT_FOUND;
+    }
+
+    @Override
+    public boolean containsValue(int value) {
+        return this.valuesView.contains(value);
+    }
+
+    @Override
+    public void forEach(IntIntConsumer consumer) {
+        for ( int i = 0; i < this.size; i++ ) {
+            consumer.accept(this.keys[i], this.values[i]);
+        }
+    }
+
+    @Override
+    public int get(int key) {
+        int index = this.indexOf(key);
+        if ( index == NOT_FOUND ) {
+            return Integer.MIN_VALUE;
+        }
+
+        return this.values[index];
+    }
+
+    @Override
+    public void put(int key, int value) {
+        int index = this.indexOf(key);
+        if ( index == NOT_FOUND ) {
+            this.add(key, value);
+        }
+        else {
+            this.values[index] = value;
+        }
+    }
+
+    @Override
+    public void putOrIncrementValueIfKeyExists(int key, int value) {
+        int index = this.indexOf(key);
+        if ( index == NOT_FOUND ) {
+            this.add(key, value);
+        }
+        else {
+            this.values[index]++;
+        }
+    }
+
+    /*
+     * Last entry is moved to the place of removed one, slots after removed slot are shifted back
+     * so that no key becomes unreachable from its home slot.
+     */
+    @Override
+    public void remove(int key) {
+        int index = this.indexOf(key);
+        if ( index == NOT_FOUND ) {
+            return;
+        }
+
+        this.removeSlotOf(key, index);
+
+        int last = this.size - 1;
+        if ( index != last ) {
+            int lastKey = this.keys[last];
+            this.keys[index] = lastKey;
+            this.values[index] = this.values[last];
+            this.slots[this.slotContaining(lastKey, last)] = index + 1;
+        }
+
+        this.size--;
+    }
+
+    private int slotContaining(int key, int index) {
+        int mask = this.slots.length - 1;
+        int slot = this.slotOf(key);
+        while ( this.slots[slot] != index + 1 ) {
+            slot = (slot + 1) & mask;
+        }
+
+        return slot;
+    }
+
+    private void removeSlotOf(int key, int index) {
+        int mask = this.slots.length - 1;
+        int slot = this.slotContaining(key, index);
+        int next = (slot + 1) & mask;
+        int home;
+        while ( this.slots[next] != NO_INDEX ) {
+            home = this.slotOf(this.keys[this.slots[next] - 1]);
+            if ( ((next - home) & mask) >= ((next - slot) & mask) ) {
+                this.slots[slot] = this.slots[next];
+                slot = next;
+            }
+            next = (next + 1) & mask;
+        }
+        this.slots[slot] = NO_INDEX;
+    }
+
+    @Override
+    public void clear() {
+        if ( this.size == 0 ) {
+            return;
+        }
+
+        Arrays.fill(this.slots, NO_INDEX);
+        this.size = 0;
+    }
+}
@@ -0,0 +1,302 @@
+package diarsid.sceptre.impl.collections.impl;
+
+import java.util.Arrays;
+
+import diarsid.sceptre.impl.collections.Ints;
+import diarsid.sceptre.impl.collections.SetInt;
+
+/*
+ * Set of non-negative ints, e.g. positions in variant, packed into bits of long words.
+ * Elements are iterated in ascending order, the same as in SetIntImpl.
+ */
+public class SetIntBitsetImpl implements SetInt {
+
+    private static final int WORD_BITS_SHIFT = 6;
+    private static final int WORD_BITS_MASK = 63;
+    private static final int DEFAULT_WORDS_SIZE = 2;
+
+    private static class Elements implements Ints.Elements {
+
+        private final SetIntBitsetImpl set;
+        private int returned;
+        private int current;
+
+        public Elements(SetIntBitsetImpl set) {
+            this.set = set;
+        }
+
+        void clear() {
+            this.returned = 0;
+            this.current = -1;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return this.returned < this.set.size;
+        }
+
+        @Override
+        public Ints.Elements next() {
+            this.current = this.set.lowestFrom(this.current + 1);
+            this.returned++;
+            return this;
+        }
+
+        @Override
+        public int current() {
+            return this.current;
+        }
+    }
+
+    private final Elements elements;
+    private long[] words;
+    /* index of the highest non-zero word plus 1, all words after it are zero */
+    private int wordsInUse;
+    private int size;
+
+    public SetIntBitsetImpl() {
+        this.elements = new Elements(this);
+        this.words = new long[DEFAULT_WORDS_SIZE];
+        this.wordsInUse = 0;
+        this.size = 0;
+    }
+
+    private static int wordOf(int element) {
+        return element >>> WORD_BITS_SHIFT;
+    }
+
+    private void ensureWords(int wordsRequired) {
+        if ( wordsRequired > this.words.length ) {
+            this.words = Arrays.copyOf(this.words, Math.max(wordsRequired, this.words.length * 2));
+        }
+    }
+
+    private void recalculateWordsInUse() {
+        int w = this.wordsInUse - 1;
+        while ( w >= 0 && this.words[w] == 0 ) {
+            w--;
+        }
+        this.wordsInUse = w + 1;
+    }
+
+    private int lowestFrom(int from) {
+        int w = wordOf(from);
+        if ( w >= this.wordsInUse ) {
+            return Integer.MIN_VALUE;
+        }
+
+        long bits = this.words[w] & (-1L << from);
+        while ( bits == 0 ) {
+            w++;
+            if ( w == this.wordsInUse ) {
+                return Integer.MIN_VALUE;
+            }
+            bits = this.words[w];
+        }
+
+        return (w << WORD_BITS_SHIFT) + Long.numberOfTrailingZeros(bits);
+    }
+
+    private int highestUpTo(int to) {
+        if ( to < 0 || this.wordsInUse == 0 ) {
+            return Integer.MIN_VALUE;
+        }
+
+        int w = wordOf(to);
+        long bits;
+        if ( w >= this.wordsInUse ) {
+            w = this.wordsInUse - 1;
+            bits = this.words[w];
+        }
+        else {
+            bits = this.words[w] & (-1L >>> (WORD_BITS_MASK - (to & WORD_BITS_MASK)));
+        }
+
+        while ( bits == 0 ) {
+            w--;
+            if ( w < 0 ) {
+                return Integer.MIN_VALUE;
+            }
+            bits = this.words[w];
+        }
+
+        return (w << WORD_BITS_SHIFT) + WORD_BITS_MASK - Long.numberOfLeadingZeros(bits);
+    }
+
+    @Override
+    public int size() {
+        return this.size;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return this.size == 0;
+    }
+
+    @Override
+    public boolean isNotEmpty() {
+        return this.size > 0;
+    }
+
+    @Override
+    public boolean contains(int element) {
+        if ( element < 0 ) {
+            return false;
+        }
+
+        int w = wordOf(element);
+        return w < this.wordsInUse && (this.words[w] & (1L << element)) != 0;
+    }
+
+    @Override
+    public boolean notContains(int element) {
+        return ! this.contains(element);
+    }
+
+    @Override
+    public Ints.Elements elements() {
+        this.elements.clear();
+        return this.elements;
+    }
+
+    @Override
+    public void add(int element) {
+        if ( element < 0 ) {
+            throw new IllegalArgumentException("Element must not be negative, but was: " + element);
+        }
+
+        int w = wordOf(element);
+        this.ensureWords(w + 1);
+
+        long word = this.words[w];
+        long bit = 1L << element;
+        if ( (word & bit) == 0 ) {
+            this.words[w] = word | bit;
+            this.size++;
+            if ( w >= this.wordsInUse ) {
+                this.wordsInUse = w + 1;
+            }
+        }
+    }
+
+    @Override
+    public boolean remove(int element) {
+        if ( ! this.contains(element) ) {
+            return false;
+        }
+
+        int w = wordOf(element);
+        this.words[w] = this.words[w] & ~(1L << element);
+        this.size--;
+        if ( w == this.wordsInUse - 1 ) {
+            this.recalculateWordsInUse();
+        }
+
+        return true;
+    }
+
+    @Override
+    public int lesserThan(int element) {
+        if ( element <= 0 ) {
+            return Integer.MIN_VALUE;
+        }
+
+        return this.highestUpTo(element - 1);
+    }
+
+    @Override
+    public int lesserThanOrEqual(int element) {
+        return this.highestUpTo(element);
+    }
+
+    @Override
+    public int greaterThan(int element) {
+        if ( element < 0 ) {
+            return this.lowestFrom(0);
+        }
+        else if ( element == Integer.MAX_VALUE ) {
+            return Integer.MIN_VALUE;
+        }
+
+        return this.lowestFrom(element + 1);
+    }
+
+    @Override
+    public int greaterThanOrEqual(int element) {
+        return this.lowestFrom(Math.max(element, 0));
+    }
+
+    @Override
+    public int first() {
+        if ( this.isEmpty() ) {
+            throw new IndexOutOfBoundsException();
+        }
+
+        return this.lowestFrom(0);
+    }
+
+    @Override
+    public int last() {
+        if ( this.isEmpty() ) {
+            throw new IndexOutOfBoundsException();
+        }
+
+        return this.highestUpTo(Integer.MAX_VALUE);
+    }
+
+    @Override
+    public void clear() {
+        Arrays.fill(this.words, 0, this.wordsInUse, 0L);
+        this.wordsInUse = 0;
+        this.size = 0;
+    }
+
+    @Override
+    public void addAll(SetInt set) {
+        if ( set.isEmpty() ) {
+            return;
+        }
+
+        if ( set instanceof SetIntBitsetImpl ) {
+            SetIntBitsetImpl other = (SetIntBitsetImpl) set;
+            this.ensureWords(other.wordsInUse);
+            int size = 0;
+            for ( int w = 0; w < other.wordsInUse; w++ ) {
+                this.words[w] = this.words[w] | other.words[w];
+            }
+            this.wordsInUse = Math.max(this.wordsInUse, other.wordsInUse);
+            for ( int w = 0; w < this.wordsInUse; w++ ) {
+                size = size + Long.bitCount(this.words[w]);
+            }
+            this.size = size;
+        }
+        else {
+            Ints.Elements elements = set.elements();
+            while ( elements.hasNext() ) {
+                elements.next();
+                this.add(elements.current());
+            }
+        }
+    }
+
+    @Override
+    public String join(String delimiter) {
+        StringBuilder sb = new StringBuilder();
+
+        int element = this.lowestFrom(0);
+        while ( element != Integer.MIN_VALUE ) {
+            if ( sb.length() > 0 ) {
+                sb.append(delimiter);
+            }
+            sb.append(element);
+            element = this.lowestFrom(element + 1);
+        }
+
+        return sb.toString();
+    }
+
+    @Override
+    public String toString() {
+        return "[" + this.join(", ") + "]";
+    }
+}
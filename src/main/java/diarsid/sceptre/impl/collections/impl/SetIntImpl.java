@@ -267,6 +267,15 @@ public class SetIntImpl implements SetInt {
             return;
         }
 
+        if ( ! (set instanceof SetIntImpl) ) {
+            Ints.Elements elements = set.elements();
+            while ( elements.hasNext() ) {
+                elements.next();
+                this.add(elements.current());
+            }
+            return;
+        }
+
         SetIntImpl other = (SetIntImpl) set;
 
         int newSize = this.size + other.size;
@@ -277,9 +286,19 @@ public class SetIntImpl implements SetInt {
 
         System.arraycopy(other.array, 0, this.array, this.size, other.size);
 
-        this.size = newSize;
+        Arrays.sort(this.array, 0, newSize);
+
+        int unique = 1;
+        for ( int i = 1; i < newSize; i++ ) {
+            if ( this.array[i] != this.array[unique - 1] ) {
+                this.array[unique] = this.array[i];
+                unique++;
+            }
+        }
+
+        Arrays.fill(this.array, unique, newSize, INT_NOT_SET);
 
-        Arrays.sort(this.array, 0, this.size);
+        this.size = unique;
     }
 
     @Override
@@ -1,70 +1,119 @@
 package diarsid.sceptre.impl.logs;
 
-import java.util.HashMap;
-import java.util.Map;
-
 import diarsid.sceptre.api.impl.logsinks.LogSinkLineByLine;
 import diarsid.sceptre.impl.AnalyzeBuilder;
 import diarsid.sceptre.api.LogSink;
 import diarsid.sceptre.api.LogType;
+import diarsid.sceptre.api.PoolingStrategy;
 
-import static java.lang.String.format;
-import static java.util.Arrays.stream;
-import static java.util.Objects.isNull;
 import static java.util.Objects.nonNull;
 
+/*
+ * Trace events are not formatted when added. They are kept, with unboxed primitive arguments,
+ * in per-thread ring buffer and are formatted only when drained into LogSink. Overloads below
+ * mirror argument types actually used, so that no boxing happens at call site when logging is
+ * disabled. Arguments that are expensive to compute should be guarded with isEnabled(type).
+ */
 public class Logging {
 
-    private final Map<LogType, Boolean> enabledByLogType;
+    public static final int EVENTS_BUFFER_CAPACITY = 1024;
+
+    private final boolean[] enabledByLogTypeOrdinal;
     private final LogSink logSink;
     private final boolean enabled;
+    private final ThreadLocal<TraceEvents> events;
+    /* events buffer is not retained by thread after outermost call is finished */
+    private final boolean isCallScoped;
 
     public Logging(AnalyzeBuilder builder) {
+        this.isCallScoped = builder.poolingStrategy == PoolingStrategy.CALL_SCOPED;
         this.logSink = builder.logSink;
-        this.enabledByLogType = builder.enabledByLogType;
         this.enabled = builder.logEnabled && nonNull(this.logSink);
+        this.enabledByLogTypeOrdinal = new boolean[LogType.values().length];
+        this.events = ThreadLocal.withInitial(() -> new TraceEvents(EVENTS_BUFFER_CAPACITY));
+
+        if ( nonNull(builder.enabledByLogType) ) {
+            builder.enabledByLogType.forEach((type, typeEnabled) -> {
+                this.enabledByLogTypeOrdinal[type.ordinal()] = nonNull(typeEnabled) && typeEnabled;
+            });
+        }
     }
 
     public Logging() {
         this.logSink = new LogSinkLineByLine(System.out::println);
         this.enabled = true;
-        this.enabledByLogType = new HashMap<>();
+        this.isCallScoped = false;
+        this.enabledByLogTypeOrdinal = new boolean[LogType.values().length];
+        this.events = ThreadLocal.withInitial(() -> new TraceEvents(EVENTS_BUFFER_CAPACITY));
 
-        stream(LogType.values()).forEach(type -> this.enabledByLogType.put(type, true));
+        for ( LogType type : LogType.values() ) {
+            this.enabledByLogTypeOrdinal[type.ordinal()] = true;
+        }
     }
 
     public void begins() {
         if ( this.enabled ) {
+            this.events.get().begins(this.logSink);
             this.logSink.begins();
         }
     }
 
     public boolean isEnabled(LogType type) {
-        if ( ! enabled ) {
-            return false;
+        return this.enabled && this.enabledByLogTypeOrdinal[type.ordinal()];
+    }
+
+    public boolean isNotEnabled(LogType type) {
+        return ( ! this.enabled ) || ( ! this.enabledByLogTypeOrdinal[type.ordinal()] );
+    }
+
+    public void add(LogType type, String s) {
+        if ( isNotEnabled(type) ) {
+            return;
         }
 
-        Boolean typeEnabled = this.enabledByLogType.get(type);
+        TraceEvents events = this.events.get();
+        events.next(s, this.logSink);
+        events.added(this.logSink);
+    }
+
+    public void add(LogType type, String s, int arg0) {
+        if ( isNotEnabled(type) ) {
+            return;
+        }
 
-        return nonNull(typeEnabled) && typeEnabled;
+        TraceEvents events = this.events.get();
+        events.next(s, this.logSink).arg(arg0);
+        events.added(this.logSink);
     }
 
-    public boolean isNotEnabled(LogType type) {
-        if ( ! enabled ) {
-            return true;
+    public void add(LogType type, String s, char arg0) {
+        if ( isNotEnabled(type) ) {
+            return;
         }
 
-        Boolean typeEnabled = this.enabledByLogType.get(type);
+        TraceEvents events = this.events.get();
+        events.next(s, this.logSink).arg(arg0);
+        events.added(this.logSink);
+    }
 
-        return isNull(typeEnabled) || ( ! typeEnabled );
+    public void add(LogType type, String s, float arg0) {
+        if ( isNotEnabled(type) ) {
+            return;
+        }
+
+        TraceEvents events = this.events.get();
+        events.next(s, this.logSink).arg(arg0);
+        events.added(this.logSink);
     }
 
-    public void add(LogType type, String s) {
+    public void add(LogType type, String s, boolean arg0) {
         if ( isNotEnabled(type) ) {
             return;
         }
 
-        this.logSink.accept(s);
+        TraceEvents events = this.events.get();
+        events.next(s, this.logSink).arg(arg0);
+        events.added(this.logSink);
     }
 
     public void add(LogType type, String s, Object arg0) {
@@ -72,7 +121,9 @@ public class Logging {
             return;
         }
 
-        this.logSink.accept(format(s, arg0));
+        TraceEvents events = this.events.get();
+        events.next(s, this.logSink).arg(arg0);
+        events.added(this.logSink);
     }
 
     public void add(LogType type, String s, Object arg0, Object arg1) {
@@ -80,7 +131,89 @@ public class Logging {
             return;
         }
 
-        this.logSink.accept(format(s, arg0, arg1));
+        TraceEvents events = this.events.get();
+        events.next(s, this.logSink).arg(arg0).arg(arg1);
+        events.added(this.logSink);
+    }
+
+    public void add(LogType type, String s, char arg0, int arg1) {
+        if ( isNotEnabled(type) ) {
+            return;
+        }
+
+        TraceEvents events = this.events.get();
+        events.next(s, this.logSink).arg(arg0).arg(arg1);
+        events.added(this.logSink);
+    }
+
+    public void add(LogType type, String s, int arg0, int arg1) {
+        if ( isNotEnabled(type) ) {
+            return;
+        }
+
+        TraceEvents events = this.events.get();
+        events.next(s, this.logSink).arg(arg0).arg(arg1);
+        events.added(this.logSink);
+    }
+
+    public void add(LogType type, String s, Object arg0, int arg1) {
+        if ( isNotEnabled(type) ) {
+            return;
+        }
+
+        TraceEvents events = this.events.get();
+        events.next(s, this.logSink).arg(arg0).arg(arg1);
+        events.added(this.logSink);
+    }
+
+    public void add(LogType type, String s, int arg0, Object arg1) {
+        if ( isNotEnabled(type) ) {
+            return;
+        }
+
+        TraceEvents events = this.events.get();
+        events.next(s, this.logSink).arg(arg0).arg(arg1);
+        events.added(this.logSink);
+    }
+
+    public void add(LogType type, String s, float arg0, Object arg1) {
+        if ( isNotEnabled(type) ) {
+            return;
+        }
+
+        TraceEvents events = this.events.get();
+        events.next(s, this.logSink).arg(arg0).arg(arg1);
+        events.added(this.logSink);
+    }
+
+    public void add(LogType type, String s, Object arg0, float arg1) {
+        if ( isNotEnabled(type) ) {
+            return;
+        }
+
+        TraceEvents events = this.events.get();
+        events.next(s, this.logSink).arg(arg0).arg(arg1);
+        events.added(this.logSink);
+    }
+
+    public void add(LogType type, String s, float arg0, float arg1) {
+        if ( isNotEnabled(type) ) {
+            return;
+        }
+
+        TraceEvents events = this.events.get();
+        events.next(s, this.logSink).arg(arg0).arg(arg1);
+        events.added(this.logSink);
+    }
+
+    public void add(LogType type, String s, float arg0, int arg1) {
+        if ( isNotEnabled(type) ) {
+            return;
+        }
+
+        TraceEvents events = this.events.get();
+        events.next(s, this.logSink).arg(arg0).arg(arg1);
+        events.added(this.logSink);
     }
 
     public void add(LogType type, String s, Object arg0, Object arg1, Object arg2) {
@@ -88,7 +221,69 @@ public class Logging {
             return;
         }
 
-        this.logSink.accept(format(s, arg0, arg1, arg2));
+        TraceEvents events = this.events.get();
+        events.next(s, this.logSink).arg(arg0).arg(arg1).arg(arg2);
+        events.added(this.logSink);
+    }
+
+    public void add(LogType type, String s, char arg0, int arg1, int arg2) {
+        if ( isNotEnabled(type) ) {
+            return;
+        }
+
+        TraceEvents events = this.events.get();
+        events.next(s, this.logSink).arg(arg0).arg(arg1).arg(arg2);
+        events.added(this.logSink);
+    }
+
+    public void add(LogType type, String s, char arg0, int arg1, char arg2) {
+        if ( isNotEnabled(type) ) {
+            return;
+        }
+
+        TraceEvents events = this.events.get();
+        events.next(s, this.logSink).arg(arg0).arg(arg1).arg(arg2);
+        events.added(this.logSink);
+    }
+
+    public void add(LogType type, String s, int arg0, int arg1, int arg2) {
+        if ( isNotEnabled(type) ) {
+            return;
+        }
+
+        TraceEvents events = this.events.get();
+        events.next(s, this.logSink).arg(arg0).arg(arg1).arg(arg2);
+        events.added(this.logSink);
+    }
+
+    public void add(LogType type, String s, char arg0, int arg1, Object arg2) {
+        if ( isNotEnabled(type) ) {
+            return;
+        }
+
+        TraceEvents events = this.events.get();
+        events.next(s, this.logSink).arg(arg0).arg(arg1).arg(arg2);
+        events.added(this.logSink);
+    }
+
+    public void add(LogType type, String s, int arg0, int arg1, Object arg2) {
+        if ( isNotEnabled(type) ) {
+            return;
+        }
+
+        TraceEvents events = this.events.get();
+        events.next(s, this.logSink).arg(arg0).arg(arg1).arg(arg2);
+        events.added(this.logSink);
+    }
+
+    public void add(LogType type, String s, Object arg0, int arg1, int arg2) {
+        if ( isNotEnabled(type) ) {
+            return;
+        }
+
+        TraceEvents events = this.events.get();
+        events.next(s, this.logSink).arg(arg0).arg(arg1).arg(arg2);
+        events.added(this.logSink);
     }
 
     public void add(LogType type, String s, Object arg0, Object arg1, Object arg2, Object arg3) {
@@ -96,7 +291,9 @@ public class Logging {
             return;
         }
 
-        this.logSink.accept(format(s, arg0, arg1, arg2, arg3));
+        TraceEvents events = this.events.get();
+        events.next(s, this.logSink).arg(arg0).arg(arg1).arg(arg2).arg(arg3);
+        events.added(this.logSink);
     }
 
     public void add(LogType type, String s, Object arg0, Object arg1, Object arg2, Object arg3, Object arg4) {
@@ -104,7 +301,9 @@ public class Logging {
             return;
         }
 
-        this.logSink.accept(format(s, arg0, arg1, arg2, arg3, arg4));
+        TraceEvents events = this.events.get();
+        events.next(s, this.logSink).arg(arg0).arg(arg1).arg(arg2).arg(arg3).arg(arg4);
+        events.added(this.logSink);
     }
 
     public void add(LogType type, String s, Object arg0, Object arg1, Object arg2, Object arg3, Object arg4, Object arg5) {
@@ -112,7 +311,9 @@ public class Logging {
             return;
         }
 
-        this.logSink.accept(format(s, arg0, arg1, arg2, arg3, arg4, arg5));
+        TraceEvents events = this.events.get();
+        events.next(s, this.logSink).arg(arg0).arg(arg1).arg(arg2).arg(arg3).arg(arg4).arg(arg5);
+        events.added(this.logSink);
     }
 
     public void add(LogType type, String s, Object... args) {
@@ -120,12 +321,19 @@ public class Logging {
             return;
         }
 
-        this.logSink.accept(format(s, args));
+        TraceEvents events = this.events.get();
+        events.next(s, this.logSink).args(args);
+        events.added(this.logSink);
     }
 
     public void finished() {
         if ( this.enabled ) {
+            TraceEvents events = this.events.get();
+            events.finished(this.logSink);
             this.logSink.finished();
+            if ( this.isCallScoped && events.isOutsideOfCall() ) {
+                this.events.remove();
+            }
         }
     }
 }
@@ -0,0 +1,147 @@
+package diarsid.sceptre.impl.logs;
+
+import static java.lang.Float.floatToRawIntBits;
+import static java.lang.Float.intBitsToFloat;
+import static java.lang.String.format;
+import static java.util.Arrays.fill;
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
+
+/*
+ * Reusable slot of TraceEvents ring buffer. Keeps log format and its arguments until event is formatted,
+ * primitives are kept unboxed in long slots and are boxed only when event is formatted. Analyze objects
+ * are mutable and reused, so any argument that is not of immutable value type is rendered to String
+ * when it is added.
+ */
+class TraceEvent {
+
+    static final int MAX_ARGS = 6;
+
+    private static final byte OBJECT = 0;
+    private static final byte INT = 1;
+    private static final byte CHAR = 2;
+    private static final byte FLOAT = 3;
+    private static final byte BOOLEAN = 4;
+
+    private final byte[] kinds;
+    private final long[] primitives;
+    private final Object[] objects;
+    private String format;
+    private Object[] varargs;
+    private int argsQty;
+
+    TraceEvent() {
+        this.kinds = new byte[MAX_ARGS];
+        this.primitives = new long[MAX_ARGS];
+        this.objects = new Object[MAX_ARGS];
+        this.format = null;
+        this.varargs = null;
+        this.argsQty = 0;
+    }
+
+    TraceEvent set(String format) {
+        this.format = format;
+        return this;
+    }
+
+    TraceEvent arg(int arg) {
+        this.kinds[this.argsQty] = INT;
+        this.primitives[this.argsQty] = arg;
+        this.argsQty++;
+        return this;
+    }
+
+    TraceEvent arg(char arg) {
+        this.kinds[this.argsQty] = CHAR;
+        this.primitives[this.argsQty] = arg;
+        this.argsQty++;
+        return this;
+    }
+
+    TraceEvent arg(float arg) {
+        this.kinds[this.argsQty] = FLOAT;
+        this.primitives[this.argsQty] = floatToRawIntBits(arg);
+        this.argsQty++;
+        return this;
+    }
+
+    TraceEvent arg(boolean arg) {
+        this.kinds[this.argsQty] = BOOLEAN;
+        this.primitives[this.argsQty] = arg ? 1 : 0;
+        this.argsQty++;
+        return this;
+    }
+
+    TraceEvent arg(Object arg) {
+        this.kinds[this.argsQty] = OBJECT;
+        this.objects[this.argsQty] = snapshotOf(arg);
+        this.argsQty++;
+        return this;
+    }
+
+    TraceEvent args(Object[] args) {
+        Object[] snapshots = new Object[args.length];
+        for ( int i = 0; i < args.length; i++ ) {
+            snapshots[i] = snapshotOf(args[i]);
+        }
+        this.varargs = snapshots;
+        return this;
+    }
+
+    private static Object snapshotOf(Object arg) {
+        if ( isNull(arg)
+                || arg instanceof String
+                || arg instanceof Integer
+                || arg instanceof Long
+                || arg instanceof Float
+                || arg instanceof Double
+                || arg instanceof Character
+                || arg instanceof Boolean
+                || arg instanceof Enum ) {
+            return arg;
+        }
+
+        return String.valueOf(arg);
+    }
+
+    String formatted() {
+        if ( nonNull(this.varargs) ) {
+            return format(this.format, this.varargs);
+        }
+
+        if ( this.argsQty == 0 ) {
+            return this.format;
+        }
+
+        Object[] args = new Object[this.argsQty];
+        for ( int i = 0; i < this.argsQty; i++ ) {
+            args[i] = this.boxed(i);
+        }
+
+        return format(this.format, args);
+    }
+
+    private Object boxed(int i) {
+        switch ( this.kinds[i] ) {
+            case OBJECT:
+                return this.objects[i];
+            case INT:
+                return (int) this.primitives[i];
+            case CHAR:
+                return (char) this.primitives[i];
+            case FLOAT:
+                return intBitsToFloat((int) this.primitives[i]);
+            case BOOLEAN:
+                return this.primitives[i] == 1;
+            default:
+                throw new IllegalStateException("Unknown argument kind: " + this.kinds[i]);
+        }
+    }
+
+    void clear() {
+        fill(this.objects, 0, this.argsQty, null);
+        this.format = null;
+        this.varargs = null;
+        this.argsQty = 0;
+    }
+}
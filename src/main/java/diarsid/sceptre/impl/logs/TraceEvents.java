@@ -0,0 +1,89 @@
+package diarsid.sceptre.impl.logs;
+
+import diarsid.sceptre.api.LogSink;
+
+/*
+ * Per-thread preallocated ring buffer of trace events. Events are formatted and passed to LogSink
+ * only when they are drained: on analyze begin and finish, when buffer is full or immediately,
+ * if event is added outside of analyze.
+ */
+class TraceEvents {
+
+    private final TraceEvent[] ring;
+    private int head;
+    private int size;
+    private int depth;
+
+    TraceEvents(int capacity) {
+        if ( capacity < 1 ) {
+            throw new IllegalArgumentException("Capacity must be positive, but was: " + capacity);
+        }
+
+        this.ring = new TraceEvent[capacity];
+        for ( int i = 0; i < capacity; i++ ) {
+            this.ring[i] = new TraceEvent();
+        }
+
+        this.head = 0;
+        this.size = 0;
+        this.depth = 0;
+    }
+
+    TraceEvent next(String format, LogSink sink) {
+        if ( this.size == this.ring.length ) {
+            this.drainTo(sink);
+        }
+
+        int tail = this.head + this.size;
+        if ( tail >= this.ring.length ) {
+            tail = tail - this.ring.length;
+        }
+
+        this.size++;
+
+        return this.ring[tail].set(format);
+    }
+
+    void added(LogSink sink) {
+        if ( this.depth == 0 ) {
+            this.drainTo(sink);
+        }
+    }
+
+    void begins(LogSink sink) {
+        this.drainTo(sink);
+        this.depth++;
+    }
+
+    void finished(LogSink sink) {
+        this.drainTo(sink);
+        if ( this.depth > 0 ) {
+            this.depth--;
+        }
+    }
+
+    boolean isOutsideOfCall() {
+        return this.depth == 0;
+    }
+
+    void drainTo(LogSink sink) {
+        TraceEvent event;
+        String line;
+        while ( this.size > 0 ) {
+            event = this.ring[this.head];
+            try {
+                line = event.formatted();
+            }
+            finally {
+                event.clear();
+                this.head++;
+                if ( this.head == this.ring.length ) {
+                    this.head = 0;
+                }
+                this.size--;
+            }
+
+            sink.accept(line);
+        }
+    }
+}
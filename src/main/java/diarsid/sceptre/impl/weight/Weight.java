@@ -1,9 +1,6 @@
 package diarsid.sceptre.impl.weight;
 
-import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.List;
-import java.util.Objects;
 
 import diarsid.sceptre.impl.logs.Logging;
 
@@ -17,20 +14,47 @@ import static diarsid.sceptre.impl.weight.WeightElement.WeightType.CALCULATED;
 import static diarsid.sceptre.impl.weight.WeightElement.WeightType.PREDEFINED;
 
 public class Weight {
-    
-    private final static int SIZE = 128;
+
+    private final static int TRACE_DEFAULT_SIZE = 32;
+    private final static WeightElement[] ELEMENTS = WeightElement.values();
     final static float WEIGHT_UNINITIALIZED = MIN_VALUE;
-    
+
+    static {
+        /* trace keeps ordinals of elements as bytes */
+        if ( ELEMENTS.length > Byte.MAX_VALUE ) {
+            throw new IllegalStateException(
+                    "Trace of weight elements cannot store " + ELEMENTS.length + " elements ordinals as bytes");
+        }
+    }
+
     private final Logging log;
-    private final List<WeightElement> elements;
-    private final float[] weights;
+    /*
+     * Every added element is counted by its ordinal. Index and weight of its first occurrence are
+     * kept to be excluded later, because exclusion always affects the first occurrence of element.
+     */
+    private final int[] countsByOrdinal;
+    private final int[] firstIndexesByOrdinal;
+    private final float[] firstWeightsByOrdinal;
+    /*
+     * Ordered trace of all added elements and their weights. It is needed only to observe weight
+     * elements in logs or to add this weight to another one, so it is not kept otherwise.
+     */
+    private final boolean isTracing;
+    private byte[] traceOrdinals;
+    private float[] traceWeights;
     private float weightSum;
     private int nextFreeWeightIndex;
 
-    public Weight(Logging log) {
+    public Weight(Logging log, boolean isTracing) {
         this.log = log;
-        this.elements = new ArrayList<>();
-        this.weights = new float[SIZE];
+        this.countsByOrdinal = new int[ELEMENTS.length];
+        this.firstIndexesByOrdinal = new int[ELEMENTS.length];
+        this.firstWeightsByOrdinal = new float[ELEMENTS.length];
+        this.isTracing = isTracing;
+        if ( isTracing ) {
+            this.traceOrdinals = new byte[TRACE_DEFAULT_SIZE];
+            this.traceWeights = new float[TRACE_DEFAULT_SIZE];
+        }
         this.nextFreeWeightIndex = 0;
     }
     
@@ -59,10 +83,8 @@ public class Weight {
     public void applyPercent(int percent, WeightElement element) {
         element.weightTypeMustBe(CALCULATED);
         element.weightCalculationTypeMustBe(APPLY_PERCENT_TO_SUM);
-        this.elements.add(element);
-        this.weights[this.nextFreeWeightIndex] = percent;
+        this.append(element, percent);
         this.weightSum = this.weightSum * percent / 100;
-        this.nextFreeWeightIndex++;
     }
 
     private void addWeightAndElement(float calculatedWeight, WeightElement element) {
@@ -77,35 +99,49 @@ public class Weight {
                 calculatedWeight = calculatedWeight * ratio;
             }
         }
-        this.elements.add(element);
-        this.weights[this.nextFreeWeightIndex] = calculatedWeight;
+        this.append(element, calculatedWeight);
         this.weightSum = this.weightSum + calculatedWeight;
-        this.nextFreeWeightIndex++;
     }
 
-    public int countAdded(WeightElement element) {
-        int count = 0;
-        for ( int i = 0; i < this.elements.size(); i++ ) {
-            if ( this.elements.get(i).is(element) ) {
-                count++;
+    private void append(WeightElement element, float weight) {
+        int ordinal = element.ordinal();
+        int index = this.nextFreeWeightIndex;
+
+        if ( this.countsByOrdinal[ordinal] == 0 ) {
+            this.firstIndexesByOrdinal[ordinal] = index;
+            this.firstWeightsByOrdinal[ordinal] = weight;
+        }
+        this.countsByOrdinal[ordinal]++;
+
+        if ( this.isTracing ) {
+            if ( index == this.traceOrdinals.length ) {
+                this.traceOrdinals = Arrays.copyOf(this.traceOrdinals, index * 2);
+                this.traceWeights = Arrays.copyOf(this.traceWeights, index * 2);
             }
+            this.traceOrdinals[index] = (byte) ordinal;
+            this.traceWeights[index] = weight;
         }
-        return count;
+
+        this.nextFreeWeightIndex++;
+    }
+
+    public int countAdded(WeightElement element) {
+        return this.countsByOrdinal[element.ordinal()];
     }
     
     public void add(Weight other) {
+        other.mustBeTracing();
         for (int i = 0; i < other.nextFreeWeightIndex; i++) {
-            this.addWeightAndElement(other.weights[i], other.elements.get(i));
+            this.addWeightAndElement(other.traceWeights[i], ELEMENTS[other.traceOrdinals[i]]);
         }
     }
     
     public boolean contains(WeightElement weightElement) {
-        return this.elements.contains(weightElement);
+        return this.countsByOrdinal[weightElement.ordinal()] > 0;
     }
     
     public void clear() {
-        this.elements.clear();
-        fill(this.weights, WEIGHT_UNINITIALIZED);
+        fill(this.countsByOrdinal, 0);
         this.weightSum = 0;
         this.nextFreeWeightIndex = 0;
     }
@@ -119,37 +155,44 @@ public class Weight {
     }
     
     public void observeAll(WeightConsumer weightConsumer) {
+        this.mustBeTracing();
         for (int i = 0; i < this.nextFreeWeightIndex; i++) {
-            weightConsumer.accept(i, this.weights[i], this.elements.get(i));
+            weightConsumer.accept(i, this.traceWeights[i], ELEMENTS[this.traceOrdinals[i]]);
+        }
+    }
+
+    private void mustBeTracing() {
+        if ( ! this.isTracing ) {
+            throw new IllegalStateException("Weight elements are not traced");
         }
     }
     
     void exclude(WeightElement element) {
-        int i = this.elements.indexOf(element);
-        if ( i > -1 ) {
-            excludeByIndex(i);
+        if ( this.contains(element) ) {
+            excludeFirstOf(element.ordinal());
         }
     }
 
-    private void excludeByIndex(int i) {
-        float excludedWeight = this.weights[i];
-        this.weights[i] = WEIGHT_UNINITIALIZED;
+    private void excludeFirstOf(int ordinal) {
+        float excludedWeight = this.firstWeightsByOrdinal[ordinal];
+        this.firstWeightsByOrdinal[ordinal] = WEIGHT_UNINITIALIZED;
+        if ( this.isTracing ) {
+            this.traceWeights[this.firstIndexesByOrdinal[ordinal]] = WEIGHT_UNINITIALIZED;
+        }
         this.weightSum = this.weightSum - excludedWeight;
     }
     
     public void excludeIfAllPresent(WeightElement element1, WeightElement element2) {
-        int i1 = this.elements.indexOf(element1);
-        if ( i1 < 0 ) {
+        if ( ! this.contains(element1) ) {
             return;
         } 
-        
-        int i2 = this.elements.indexOf(element2);
-        if ( i2 < 0 ) {
+
+        if ( ! this.contains(element2) ) {
             return;
         } 
         
-        excludeByIndex(i1);
-        excludeByIndex(i2);
+        excludeFirstOf(element1.ordinal());
+        excludeFirstOf(element2.ordinal());
     }
 
     @Override
@@ -160,8 +203,7 @@ public class Weight {
     @Override
     public int hashCode() {
         int hash = 5;
-        hash = 71 * hash + Objects.hashCode(this.elements);
-        hash = 71 * hash + Arrays.hashCode(this.weights);
+        hash = 71 * hash + Arrays.hashCode(this.countsByOrdinal);
         hash =
                 71 * hash + ( int ) (Float.floatToIntBits(this.weightSum) ^ (Float.floatToIntBits(this.weightSum) >>> 32));
         hash = 71 * hash + this.nextFreeWeightIndex;
@@ -186,11 +228,16 @@ public class Weight {
         if ( this.nextFreeWeightIndex != other.nextFreeWeightIndex ) {
             return false;
         }
-        if ( !Objects.equals(this.elements, other.elements) ) {
+        if ( !Arrays.equals(this.countsByOrdinal, other.countsByOrdinal) ) {
             return false;
         }
-        if ( !Arrays.equals(this.weights, other.weights) ) {
-            return false;
+        if ( this.isTracing && other.isTracing ) {
+            if ( !Arrays.equals(this.traceOrdinals, 0, this.nextFreeWeightIndex, other.traceOrdinals, 0, this.nextFreeWeightIndex) ) {
+                return false;
+            }
+            if ( !Arrays.equals(this.traceWeights, 0, this.nextFreeWeightIndex, other.traceWeights, 0, this.nextFreeWeightIndex) ) {
+                return false;
+            }
         }
         return true;
     }    
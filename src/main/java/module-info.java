@@ -6,4 +6,6 @@ module diarsid.sceptre {
     exports diarsid.sceptre.api;
     exports diarsid.sceptre.api.model;
     exports diarsid.sceptre.api.impl.logsinks;
+    exports diarsid.sceptre.api.impl.metrics;
+    exports diarsid.sceptre.api.impl.cache;
 }
@@ -0,0 +1,60 @@
+package diarsid.sceptre.impl;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import diarsid.sceptre.api.Analyze;
+import diarsid.sceptre.api.impl.metrics.AnalyzeMetricsRecorder;
+import diarsid.sceptre.api.impl.metrics.AnalyzeMetricsSnapshot;
+import diarsid.sceptre.api.model.Output;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import static diarsid.sceptre.api.AnalyzeMetrics.Outcome.ACCEPTED;
+import static diarsid.sceptre.api.AnalyzeMetrics.Outcome.ACCEPTED_AS_EQUAL_TO_PATTERN;
+import static diarsid.sceptre.api.AnalyzeMetrics.Outcome.REJECTED_AS_WORSE_THAN_RETAINED;
+import static diarsid.sceptre.api.AnalyzeMetrics.Outcome.SKIPPED_AS_MISSING_PATTERN_CHARS;
+import static diarsid.sceptre.api.AnalyzeMetrics.Stage.POSITIONS_SEARCH;
+import static diarsid.sceptre.api.AnalyzeMetrics.Stage.VARIANT_SETUP;
+import static diarsid.sceptre.api.AnalyzeMetrics.Stage.WORDS_AND_SEPARATORS;
+
+public class AnalyzeMetricsTest {
+
+    @Test
+    public void test_outcomesAndStagesCounted() {
+        AnalyzeMetricsRecorder metrics = new AnalyzeMetricsRecorder();
+        Analyze analyze = Analyze.Builder
+                .newInstance()
+                .withMetrics(metrics)
+                .build();
+
+        List<String> strings = new ArrayList<>(AnalyzeParallelTest.generateStrings(1000));
+        strings.add("sceptre");
+
+        List<Output> outputs = analyze.processStrings("sceptre", strings);
+        AnalyzeMetricsSnapshot snapshot = metrics.snapshot();
+
+        long skipped = snapshot.count(SKIPPED_AS_MISSING_PATTERN_CHARS);
+        long equal = snapshot.count(ACCEPTED_AS_EQUAL_TO_PATTERN);
+
+        assertThat(snapshot.inputs()).isEqualTo(strings.size());
+        assertThat(equal).isEqualTo(strings.stream().filter("sceptre"::equalsIgnoreCase).count());
+        assertThat(snapshot.count(ACCEPTED) + equal).isEqualTo(outputs.size());
+        assertThat(snapshot.stage(VARIANT_SETUP).count()).isEqualTo(strings.size() - skipped);
+        assertThat(snapshot.stage(WORDS_AND_SEPARATORS).count()).isEqualTo(strings.size() - skipped - equal);
+        assertThat(snapshot.stage(POSITIONS_SEARCH).totalNanos()).isPositive();
+        assertThat(snapshot.stage(POSITIONS_SEARCH).percentileNanosNotMoreThan(0.5))
+                .isLessThanOrEqualTo(snapshot.stage(POSITIONS_SEARCH).percentileNanosNotMoreThan(0.99));
+
+        analyze.processStrings("sceptre", strings, 1);
+
+        assertThat(metrics.snapshot().count(REJECTED_AS_WORSE_THAN_RETAINED)).isPositive();
+
+        metrics.reset();
+
+        assertThat(metrics.snapshot().inputs()).isZero();
+        assertThat(metrics.snapshot().stage(VARIANT_SETUP).count()).isZero();
+    }
+}
@@ -0,0 +1,126 @@
+package diarsid.sceptre.impl;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import diarsid.sceptre.api.Analyze;
+import diarsid.sceptre.api.model.Output;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class AnalyzeParallelTest {
+
+    private static final String[] WORDS = {
+            "dev", "projects", "sceptre", "src", "main", "java", "diarsid", "support", "engines",
+            "design", "tools", "books", "tolkien", "lord", "rings", "hobbit", "programming", "guide",
+            "music", "rock", "jazz", "photos", "2019", "2021", "readme", "build", "gradle", "maven",
+            "JavaScript", "TypeScript", "node_modules", "netbeans", "intellij", "IDEA", "workspace"};
+
+    private static ExecutorService executor;
+    private static Analyze sequentialAnalyze;
+    private static Analyze parallelAnalyze;
+    private static List<String> strings;
+
+    @BeforeAll
+    public static void setUpClass() {
+        executor = Executors.newFixedThreadPool(4);
+
+        sequentialAnalyze = Analyze.Builder
+                .newInstance()
+                .build();
+
+        parallelAnalyze = Analyze.Builder
+                .newInstance()
+                .withParallelism(4)
+                .withExecutor(executor)
+                .build();
+
+        strings = generateStrings(5000);
+    }
+
+    @AfterAll
+    public static void tearDownClass() {
+        executor.shutdown();
+    }
+
+    static List<String> generateStrings(int quantity) {
+        Random random = new Random(42);
+        List<String> strings = new ArrayList<>(quantity);
+
+        StringBuilder string = new StringBuilder();
+        int wordsQty;
+        for ( int i = 0; i < quantity; i++ ) {
+            string.setLength(0);
+            wordsQty = 1 + random.nextInt(6);
+            for ( int j = 0; j < wordsQty; j++ ) {
+                if ( j > 0 ) {
+                    string.append(random.nextBoolean() ? '/' : ' ');
+                }
+                string.append(WORDS[random.nextInt(WORDS.length)]);
+            }
+            strings.add(string.toString());
+        }
+
+        return strings;
+    }
+
+    static void assertSameOutputs(List<Output> expected, List<Output> actual) {
+        assertThat(actual).hasSameSizeAs(expected);
+        for ( int i = 0; i < expected.size(); i++ ) {
+            assertThat(actual.get(i).input().string()).isEqualTo(expected.get(i).input().string());
+            assertThat(actual.get(i).weight()).isEqualTo(expected.get(i).weight());
+            assertThat(actual.get(i).index()).isEqualTo(expected.get(i).index());
+        }
+    }
+
+    @Test
+    public void test_parallelSameAsSequential_scptr() {
+        List<Output> expected = sequentialAnalyze.processStrings("scptr", strings);
+        List<Output> actual = parallelAnalyze.processStrings("scptr", strings);
+
+        assertThat(expected).isNotEmpty();
+        assertSameOutputs(expected, actual);
+    }
+
+    @Test
+    public void test_parallelSameAsSequential_jvsrc() {
+        List<Output> expected = sequentialAnalyze.processStrings("jvsrc", strings);
+        List<Output> actual = parallelAnalyze.processStrings("jvsrc", strings);
+
+        assertThat(expected).isNotEmpty();
+        assertSameOutputs(expected, actual);
+    }
+
+    @Test
+    public void test_parallelLimitedSameAsSequentialLimited() {
+        List<Output> expected = sequentialAnalyze.processStrings("srcjv", strings, 20);
+        List<Output> actual = parallelAnalyze.processStrings("srcjv", strings, 20);
+
+        assertSameOutputs(expected, actual);
+    }
+
+    @Test
+    public void test_limitedSameAsHeadOfAll() {
+        List<Output> all = sequentialAnalyze.processStrings("tolknbook", strings);
+
+        for ( int limit : new int[] {1, 20, all.size() + 1} ) {
+            List<Output> limited = sequentialAnalyze.processStrings("tolknbook", strings, limit);
+            assertSameOutputs(all.subList(0, Math.min(limit, all.size())), limited);
+        }
+    }
+
+    @Test
+    public void test_parallelSameAsSequential_noWorseThan() {
+        List<Output> expected = sequentialAnalyze.processStrings("tolknbook", "books/tolkien", strings);
+        List<Output> actual = parallelAnalyze.processStrings("tolknbook", "books/tolkien", strings);
+
+        assertSameOutputs(expected, actual);
+    }
+}
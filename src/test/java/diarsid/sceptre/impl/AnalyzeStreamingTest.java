@@ -0,0 +1,162 @@
+package diarsid.sceptre.impl;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import diarsid.sceptre.api.Analyze;
+import diarsid.sceptre.api.impl.metrics.AnalyzeMetricsRecorder;
+import diarsid.sceptre.api.model.Input;
+import diarsid.sceptre.api.model.Output;
+
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import static diarsid.sceptre.impl.AnalyzeImpl.stringsToInputs;
+import static diarsid.sceptre.impl.AnalyzeParallelTest.assertSameOutputs;
+
+public class AnalyzeStreamingTest {
+
+    private static ExecutorService executor;
+    private static AnalyzeMetricsRecorder metrics;
+    private static Analyze analyze;
+    private static List<Input> inputs;
+
+    @BeforeAll
+    public static void setUpClass() {
+        executor = Executors.newSingleThreadExecutor();
+        metrics = new AnalyzeMetricsRecorder();
+
+        analyze = Analyze.Builder
+                .newInstance()
+                .withExecutor(executor)
+                .withMetrics(metrics)
+                .build();
+
+        inputs = stringsToInputs(AnalyzeParallelTest.generateStrings(2000));
+    }
+
+    @AfterAll
+    public static void tearDownClass() {
+        executor.shutdown();
+    }
+
+    private static class CollectingSubscriber implements Flow.Subscriber<Output> {
+
+        final List<Output> outputs = Collections.synchronizedList(new ArrayList<>());
+        final CountDownLatch completed = new CountDownLatch(1);
+        final AtomicReference<Throwable> error = new AtomicReference<>();
+        final long initialRequest;
+        volatile Flow.Subscription subscription;
+
+        CollectingSubscriber(long initialRequest) {
+            this.initialRequest = initialRequest;
+        }
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            this.subscription = subscription;
+            subscription.request(this.initialRequest);
+        }
+
+        @Override
+        public void onNext(Output output) {
+            this.outputs.add(output);
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            this.error.set(throwable);
+            this.completed.countDown();
+        }
+
+        @Override
+        public void onComplete() {
+            this.completed.countDown();
+        }
+    }
+
+    private static void awaitExecutor() throws Exception {
+        executor.submit(() -> {}).get(10, SECONDS);
+    }
+
+    @Test
+    public void test_streamedOutputsSameAsProcessed() throws Exception {
+        List<Output> expected = analyze.processInputs("jvsrc", inputs);
+        AtomicReference<List<Output>> sorted = new AtomicReference<>();
+        CollectingSubscriber subscriber = new CollectingSubscriber(Long.MAX_VALUE);
+
+        analyze.processInputsStreaming("jvsrc", inputs, sorted::set).subscribe(subscriber);
+
+        assertThat(subscriber.completed.await(10, SECONDS)).isTrue();
+        assertThat(subscriber.error.get()).isNull();
+        assertThat(subscriber.outputs).hasSameSizeAs(expected);
+        for ( int i = 1; i < subscriber.outputs.size(); i++ ) {
+            assertThat(subscriber.outputs.get(i).input().index())
+                    .isGreaterThan(subscriber.outputs.get(i - 1).input().index());
+        }
+        assertSameOutputs(expected, sorted.get());
+    }
+
+    @Test
+    public void test_outputsEmittedOnlyOnDemand() throws Exception {
+        CollectingSubscriber subscriber = new CollectingSubscriber(1);
+
+        analyze.processInputsStreaming("jvsrc", inputs).subscribe(subscriber);
+        awaitExecutor();
+
+        assertThat(subscriber.outputs).hasSize(1);
+        assertThat(subscriber.completed.getCount()).isEqualTo(1);
+
+        subscriber.subscription.request(2);
+        awaitExecutor();
+
+        assertThat(subscriber.outputs).hasSize(3);
+
+        subscriber.subscription.request(Long.MAX_VALUE);
+
+        assertThat(subscriber.completed.await(10, SECONDS)).isTrue();
+        assertThat(subscriber.outputs).hasSize(analyze.processInputs("jvsrc", inputs).size());
+    }
+
+    @Test
+    public void test_cancelStopsWeighting() throws Exception {
+        metrics.reset();
+        CollectingSubscriber subscriber = new CollectingSubscriber(Long.MAX_VALUE) {
+
+            @Override
+            public void onNext(Output output) {
+                super.onNext(output);
+                this.subscription.cancel();
+            }
+        };
+
+        analyze.processInputsStreaming("jvsrc", inputs).subscribe(subscriber);
+        awaitExecutor();
+
+        assertThat(subscriber.outputs).hasSize(1);
+        assertThat(subscriber.completed.getCount()).isEqualTo(1);
+        assertThat(metrics.snapshot().inputs()).isEqualTo(subscriber.outputs.get(0).input().index() + 1);
+    }
+
+    @Test
+    public void test_notPositiveRequestIsError() throws Exception {
+        CollectingSubscriber subscriber = new CollectingSubscriber(0);
+
+        analyze.processInputsStreaming("jvsrc", inputs).subscribe(subscriber);
+
+        assertThat(subscriber.completed.await(10, SECONDS)).isTrue();
+        assertThat(subscriber.error.get()).isInstanceOf(IllegalArgumentException.class);
+        assertThat(subscriber.outputs).isEmpty();
+    }
+}
@@ -14,6 +14,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import diarsid.sceptre.api.Analyze;
+import diarsid.sceptre.api.model.Input;
 import diarsid.sceptre.api.model.Output;
 import diarsid.sceptre.api.model.Outputs;
 import diarsid.sceptre.api.model.Word;
@@ -30,6 +31,7 @@ import static org.junit.jupiter.api.Assertions.fail;
 import static diarsid.sceptre.api.LogType.BASE;
 import static diarsid.sceptre.api.LogType.POSITIONS_CLUSTERS;
 import static diarsid.sceptre.api.LogType.POSITIONS_SEARCH;
+import static diarsid.sceptre.api.WeightEstimate.TOO_BAD;
 import static diarsid.sceptre.api.model.Output.AdditionalData.WORDS;
 import static diarsid.support.objects.collections.CollectionUtils.nonEmpty;
 
@@ -3782,6 +3784,8 @@ public class AnalyzeTest {
     }
     
     private void weightVariantsAndCheckMatching() {
+        checkPrefilterSkipsOnlyTooBadVariants();
+
         boolean failed;
         try {
             totalVariantsQuantity = totalVariantsQuantity + variants.size();
@@ -3798,6 +3802,17 @@ public class AnalyzeTest {
         }
     }
 
+    private void checkPrefilterSkipsOnlyTooBadVariants() {
+        PreparedPatternImpl preparedPattern = new PreparedPatternImpl(pattern);
+        for ( String variant : variants ) {
+            if ( preparedPattern.isMissedTooMuchIn(new Input(variant)) ) {
+                if ( this.analyze.process(pattern, variant) != TOO_BAD ) {
+                    fail(format("Prefilter skips variant '%s' accepted by analyze", variant));
+                }
+            }
+        }
+    }
+
     private void worseVariantsDontMatter() {
         notExpectedAreCritical = false;
     }
@@ -0,0 +1,107 @@
+package diarsid.sceptre.impl;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.Test;
+
+import diarsid.sceptre.api.Analyze;
+import diarsid.sceptre.api.PoolingStrategy;
+import diarsid.sceptre.api.model.Output;
+import diarsid.sceptre.impl.logs.Logging;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import static diarsid.sceptre.impl.AnalyzeParallelTest.assertSameOutputs;
+import static diarsid.sceptre.impl.AnalyzeParallelTest.generateStrings;
+import static diarsid.sceptre.impl.AnalyzeUnitsPool.UNITS_RETAINED_PER_THREAD;
+
+public class AnalyzeUnitsPoolTest {
+
+    @Test
+    public void test_threadBound_retainsUnitsOfThread() {
+        AnalyzeBuilder builder = new AnalyzeBuilder();
+        builder.build();
+        AnalyzeUnitsPool.ThreadBound pool = new AnalyzeUnitsPool.ThreadBound(new Logging(builder));
+
+        AnalyzeUnit unit = pool.give();
+        pool.takeBack(unit);
+
+        assertThat(pool.retainedByCurrentThread()).isEqualTo(1);
+        assertThat(pool.give()).isSameAs(unit);
+
+        List<AnalyzeUnit> units = new ArrayList<>();
+        for ( int i = 0; i < UNITS_RETAINED_PER_THREAD + 3; i++ ) {
+            units.add(pool.give());
+        }
+        units.forEach(pool::takeBack);
+
+        assertThat(pool.retainedByCurrentThread()).isEqualTo(UNITS_RETAINED_PER_THREAD);
+    }
+
+    @Test
+    public void test_callScoped_retainsNoMoreThanSize() {
+        AnalyzeBuilder builder = new AnalyzeBuilder();
+        builder.build();
+        AnalyzeUnitsPool.CallScoped pool = new AnalyzeUnitsPool.CallScoped(new Logging(builder), 2);
+
+        AnalyzeUnit unit = pool.give();
+        pool.takeBack(unit);
+
+        assertThat(pool.retained()).isEqualTo(1);
+        assertThat(pool.give()).isSameAs(unit);
+        assertThat(pool.retained()).isEqualTo(0);
+
+        List<AnalyzeUnit> units = new ArrayList<>();
+        for ( int i = 0; i < 5; i++ ) {
+            units.add(pool.give());
+        }
+        units.forEach(pool::takeBack);
+
+        assertThat(pool.retained()).isEqualTo(2);
+    }
+
+    @Test
+    public void test_threadLocal_sameAsShared_inManyThreads() throws Exception {
+        assertSameAsShared_inManyThreads(PoolingStrategy.THREAD_LOCAL);
+    }
+
+    @Test
+    public void test_callScoped_sameAsShared_inManyThreads() throws Exception {
+        assertSameAsShared_inManyThreads(PoolingStrategy.CALL_SCOPED);
+    }
+
+    private static void assertSameAsShared_inManyThreads(PoolingStrategy strategy) throws Exception {
+        Analyze shared = Analyze.Builder
+                .newInstance()
+                .build();
+
+        Analyze analyze = Analyze.Builder
+                .newInstance()
+                .withPoolingStrategy(strategy)
+                .build();
+
+        List<String> strings = generateStrings(1000);
+        String[] patterns = {"projsceptre", "tolknhobbit", "jsnode", "devsrc"};
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<List<Output>>> futures = new ArrayList<>();
+            for ( int i = 0; i < 16; i++ ) {
+                String pattern = patterns[i % patterns.length];
+                futures.add(executor.submit(() -> analyze.processStrings(pattern, strings)));
+            }
+
+            for ( int i = 0; i < futures.size(); i++ ) {
+                List<Output> expected = shared.processStrings(patterns[i % patterns.length], strings);
+                assertSameOutputs(expected, futures.get(i).get());
+            }
+        }
+        finally {
+            executor.shutdown();
+        }
+    }
+}
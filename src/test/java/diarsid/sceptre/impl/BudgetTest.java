@@ -0,0 +1,104 @@
+package diarsid.sceptre.impl;
+
+import java.time.Duration;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import diarsid.sceptre.api.Analyze;
+import diarsid.sceptre.api.Budget;
+import diarsid.sceptre.api.model.IndexedCorpus;
+import diarsid.sceptre.api.model.Input;
+import diarsid.sceptre.api.model.PartialOutputs;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import static diarsid.sceptre.impl.AnalyzeImpl.stringsToInputs;
+import static diarsid.sceptre.impl.AnalyzeParallelTest.assertSameOutputs;
+import static diarsid.sceptre.impl.AnalyzeParallelTest.generateStrings;
+
+public class BudgetTest {
+
+    private final Analyze analyze = Analyze.Builder.newInstance().build();
+
+    @Test
+    public void test_enoughTime_sameAsWithoutBudget() {
+        List<Input> inputs = stringsToInputs(generateStrings(2000));
+
+        PartialOutputs outputs = analyze.processInputs("projsceptre", inputs, Budget.ofTime(Duration.ofMinutes(1)));
+
+        assertThat(outputs.isPartial()).isFalse();
+        assertThat(outputs.unweightedQty()).isEqualTo(0);
+        assertSameOutputs(analyze.processInputs("projsceptre", inputs), outputs.outputs());
+    }
+
+    @Test
+    public void test_inputsBudget_weightsHeadOfInputs() {
+        List<Input> inputs = stringsToInputs(generateStrings(2000));
+        IndexedCorpus corpus = analyze.index(inputs);
+        PreparedPatternImpl pattern = new PreparedPatternImpl("tolknhobbit");
+
+        PartialOutputs outputs = analyze.processCorpus(pattern, corpus, 5, Budget.ofInputs(300));
+
+        assertThat(outputs.isPartial()).isTrue();
+        assertThat(outputs.unweightedQty()).isEqualTo(1700);
+        assertSameOutputs(analyze.processInputs(pattern, inputs.subList(0, 300), 5), outputs.outputs());
+    }
+
+    @Test
+    public void test_priority_weightsPrioritizedFirst() {
+        List<String> strings = new ArrayList<>(generateStrings(2000));
+        strings.add("dev/projects/sceptre");
+        List<Input> inputs = stringsToInputs(strings);
+        Input recent = inputs.get(2000);
+
+        Comparator<Input> recentFirst = Comparator.comparing(input -> input != recent);
+        PartialOutputs outputs = analyze.processInputs(
+                "projsceptre", inputs, Budget.ofInputs(1).prioritizedBy(recentFirst));
+
+        assertThat(outputs.unweightedQty()).isEqualTo(2000);
+        assertThat(outputs.outputs()).hasSize(1);
+        assertThat(outputs.outputs().get(0).input()).isSameAs(recent);
+    }
+
+    @Test
+    public void test_timeExhausted_partial() {
+        List<Input> inputs = stringsToInputs(generateStrings(5000));
+
+        PartialOutputs outputs = analyze.processInputs("devsrc", inputs, Budget.ofTime(Duration.ofNanos(1)));
+
+        assertThat(outputs.isPartial()).isTrue();
+        assertThat(outputs.unweightedQty()).isGreaterThan(0);
+    }
+
+    @Test
+    public void test_timeLongerThanNanosRange_unlimited() {
+        List<Input> inputs = stringsToInputs(generateStrings(2000));
+
+        List<Duration> times = List.of(
+                ChronoUnit.FOREVER.getDuration(), Duration.ofDays(365 * 300), Duration.ofNanos(Long.MAX_VALUE));
+
+        for ( Duration time : times ) {
+            Budget budget = Budget.ofInputs(10).andTime(time);
+
+            assertThat(budget.isLimitedByTime()).isFalse();
+            assertThat(budget.maxInputs()).isEqualTo(10);
+        }
+
+        PartialOutputs outputs = analyze.processInputs(
+                "projsceptre", inputs, Budget.ofTime(ChronoUnit.FOREVER.getDuration()));
+
+        assertThat(outputs.isPartial()).isFalse();
+        assertSameOutputs(analyze.processInputs("projsceptre", inputs), outputs.outputs());
+    }
+
+    @Test
+    public void test_invalidBudget() {
+        assertThatThrownBy(() -> Budget.ofInputs(0)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> Budget.ofTime(Duration.ZERO)).isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,104 @@
+package diarsid.sceptre.impl;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import diarsid.sceptre.api.Analyze;
+import diarsid.sceptre.api.model.CharsIndex;
+import diarsid.sceptre.api.model.Input;
+import diarsid.sceptre.api.model.PreparedPattern;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import static diarsid.sceptre.impl.AnalyzeImpl.stringsToInputs;
+import static diarsid.sceptre.impl.AnalyzeParallelTest.assertSameOutputs;
+import static diarsid.sceptre.impl.AnalyzeParallelTest.generateStrings;
+
+public class CharsIndexTest {
+
+    private static final String[] PATTERNS = {
+            "dev", "src", "jsrc", "books", "sceptre", "progguide", "projsceptre", "tolknhobbit", "javascrptnode"};
+
+    private final Analyze analyze = Analyze.Builder.newInstance().build();
+
+    @Test
+    public void test_candidates_sameOutputsAsAllInputs() {
+        List<Input> inputs = stringsToInputs(generateStrings(3000));
+        CharsIndex index = analyze.newCharsIndex(inputs);
+
+        for ( String patternString : PATTERNS ) {
+            PreparedPattern pattern = analyze.prepare(patternString);
+            CharsIndex.Candidates candidates = index.candidatesOf(pattern);
+
+            assertThat(candidates.inputs().size()).isLessThanOrEqualTo(inputs.size());
+            assertSameOutputs(
+                    analyze.processInputs(pattern, inputs),
+                    analyze.processCandidates(pattern, candidates));
+            assertSameOutputs(
+                    analyze.processInputs(pattern, inputs, 10),
+                    analyze.processCandidates(pattern, candidates, 10));
+        }
+
+        assertThat(index.candidatesOf(analyze.prepare("tolknhobbit")).skippedFraction()).isPositive();
+    }
+
+    @Test
+    public void test_addAndRemove_sameOutputsAsPresentInputs() {
+        List<Input> inputs = stringsToInputs(generateStrings(1000));
+        CharsIndex index = analyze.newCharsIndex();
+        inputs.forEach(index::add);
+
+        List<Input> present = new ArrayList<>();
+        for ( int id = 0; id < inputs.size(); id++ ) {
+            if ( id % 3 == 0 ) {
+                assertThat(index.remove(id)).isTrue();
+            }
+            else {
+                present.add(inputs.get(id));
+            }
+        }
+
+        assertThat(index.remove(0)).isFalse();
+        assertThat(index.remove(inputs.size())).isFalse();
+
+        Input added = new Input("dev/projects/sceptre");
+        assertThat(index.add(added)).isEqualTo(inputs.size());
+        present.add(added);
+
+        assertThat(index.size()).isEqualTo(present.size());
+
+        for ( String patternString : PATTERNS ) {
+            PreparedPattern pattern = analyze.prepare(patternString);
+            assertSameOutputs(
+                    analyze.processInputs(pattern, present),
+                    analyze.processCandidates(pattern, index.candidatesOf(pattern)));
+        }
+    }
+
+    @Test
+    public void test_compaction_keepsIds() {
+        List<Input> inputs = stringsToInputs(generateStrings(300));
+        CharsIndex index = analyze.newCharsIndex(inputs);
+
+        for ( int id = 0; id < 250; id++ ) {
+            index.remove(id);
+        }
+
+        PreparedPattern pattern = analyze.prepare("projsceptre");
+        List<Input> present = inputs.subList(250, 300);
+
+        assertThat(index.size()).isEqualTo(50);
+        assertThat(index.remove(270)).isTrue();
+        assertSameOutputs(
+                analyze.processInputs(pattern, withoutIndex(present, 270)),
+                analyze.processCandidates(pattern, index.candidatesOf(pattern)));
+    }
+
+    private static List<Input> withoutIndex(List<Input> inputs, int index) {
+        List<Input> without = new ArrayList<>(inputs);
+        without.removeIf(input -> input.index() == index);
+        return without;
+    }
+}
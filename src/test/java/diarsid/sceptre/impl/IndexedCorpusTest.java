@@ -0,0 +1,167 @@
+package diarsid.sceptre.impl;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import diarsid.sceptre.api.Analyze;
+import diarsid.sceptre.api.CorpusStorage;
+import diarsid.sceptre.api.model.IndexedCorpus;
+import diarsid.sceptre.api.model.Input;
+import diarsid.sceptre.api.model.Output;
+
+import static java.nio.file.StandardOpenOption.WRITE;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import static diarsid.sceptre.impl.AnalyzeImpl.stringsToInputs;
+import static diarsid.sceptre.impl.AnalyzeParallelTest.assertSameOutputs;
+import static diarsid.sceptre.impl.IndexedCorpusImpl.DEPENDENT_WORD;
+import static diarsid.sceptre.impl.IndexedCorpusImpl.INDEPENDENT_WORD;
+
+public class IndexedCorpusTest {
+
+    private final Analyze analyze = Analyze.Builder.newInstance().build();
+
+    private static List<String> strings() {
+        List<String> strings = new ArrayList<>(AnalyzeParallelTest.generateStrings(2000));
+        strings.add("dev/projects/");
+        strings.add("Dev/ProjectsSCEPTRE/src2021main");
+        strings.add("java__src__");
+        strings.add("JavaSrc");
+        return strings;
+    }
+
+    @Test
+    public void test_corpusSeparatorsAndWords() {
+        IndexedCorpusImpl corpus = (IndexedCorpusImpl) analyze.index(stringsToInputs(List.of("Dev/JavaSrc 2021")));
+
+        assertThat(corpus.lowered).containsExactly("dev/javasrc 2021");
+        assertThat(arrayOf(corpus.pathSeparators)).containsExactly(3);
+        assertThat(arrayOf(corpus.textSeparators)).containsExactly(11);
+        assertThat(arrayOf(corpus.wordsStarts)).containsExactly(0, 4, 8, 12);
+        assertThat(arrayOf(corpus.wordsEnds)).containsExactly(2, 7, 10, 15);
+        assertThat(arrayOf(corpus.wordsDependency))
+                .containsExactly(INDEPENDENT_WORD, INDEPENDENT_WORD, DEPENDENT_WORD, INDEPENDENT_WORD);
+    }
+
+    private static int[] arrayOf(IntBuffer buffer) {
+        int[] array = new int[buffer.limit()];
+        buffer.duplicate().clear().get(array);
+        return array;
+    }
+
+    private static byte[] arrayOf(ByteBuffer buffer) {
+        byte[] array = new byte[buffer.limit()];
+        buffer.duplicate().clear().get(array);
+        return array;
+    }
+
+    @Test
+    public void test_corpusGivesSameOutputsAsInputs() {
+        List<String> strings = strings();
+        IndexedCorpus corpus = analyze.index(stringsToInputs(strings));
+
+        for ( String pattern : List.of("jvsrc", "scptr", "tolknbook", "devprojects", "javasrc") ) {
+            List<Output> expected = analyze.processStrings(pattern, strings);
+            List<Output> actual = analyze.processCorpus(pattern, corpus);
+
+            assertSameOutputs(expected, actual);
+        }
+    }
+
+    @Test
+    public void test_corpusGivesSameLimitedOutputsAsInputs() {
+        List<String> strings = strings();
+        List<Input> inputs = stringsToInputs(strings);
+        IndexedCorpus corpus = analyze.index(inputs);
+
+        List<Output> expected = analyze.processInputs(analyze.prepare("srcjv"), inputs, 15);
+        List<Output> actual = analyze.processCorpus(analyze.prepare("srcjv"), corpus, 15);
+
+        assertSameOutputs(expected, actual);
+    }
+
+    @Test
+    public void test_openedCorpusGivesSameOutputsAsInputs(@TempDir Path directory) {
+        List<String> strings = strings();
+        Path file = directory.resolve("corpus");
+        analyze.index(stringsToInputs(strings), file);
+
+        IndexedCorpusImpl corpus = (IndexedCorpusImpl) analyze.openIndex(file);
+
+        assertThat(corpus.size()).isEqualTo(strings.size());
+        assertThat(corpus.inputs()).extracting(Input::string).containsExactlyElementsOf(strings);
+        assertThat(corpus.pathSeparators.isDirect()).isTrue();
+        assertThat(corpus.lowered).isNull();
+        assertThat(corpus.loweredOf(strings.size() - 1, corpus.inputs.get(strings.size() - 1))).isEqualTo("javasrc");
+
+        for ( String pattern : List.of("jvsrc", "scptr", "tolknbook", "devprojects", "javasrc") ) {
+            assertSameOutputs(analyze.processStrings(pattern, strings), analyze.processCorpus(pattern, corpus));
+        }
+    }
+
+    @Test
+    public void test_openedCorpusOfOtherVersion_isRebuilt(@TempDir Path directory) throws IOException {
+        List<String> strings = strings();
+        Path file = directory.resolve("corpus");
+        analyze.index(stringsToInputs(strings), file);
+
+        try (FileChannel channel = FileChannel.open(file, WRITE)) {
+            channel.write(ByteBuffer.wrap(new byte[] {'X', 0}), 9 * Integer.BYTES);
+        }
+        IndexedCorpusFile staleFile = IndexedCorpusFile.open(file);
+        assertThat(staleFile.isOf(AnalyzeImpl.VERSION)).isFalse();
+        assertThat(staleFile.isMapped()).isFalse();
+
+        IndexedCorpus corpus = analyze.openIndex(file);
+
+        IndexedCorpusFile rebuiltFile = IndexedCorpusFile.open(file);
+        assertThat(rebuiltFile.isOf(AnalyzeImpl.VERSION)).isTrue();
+        assertThat(rebuiltFile.isMapped()).isTrue();
+        assertThat(file.resolveSibling(file.getFileName() + ".tmp")).doesNotExist();
+        assertSameOutputs(analyze.processStrings("jvsrc", strings), analyze.processCorpus("jvsrc", corpus));
+    }
+
+    @Test
+    public void test_openNotCorpusFile(@TempDir Path directory) throws IOException {
+        Path file = Files.writeString(directory.resolve("text"), "not a corpus, just text");
+
+        assertThatThrownBy(() -> analyze.openIndex(file)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    public void test_arenaCorpusGivesSameOutputsAsInputs(@TempDir Path directory) {
+        Analyze arenaAnalyze = Analyze.Builder
+                .newInstance()
+                .withCorpusStorage(CorpusStorage.ARENA)
+                .build();
+
+        List<String> strings = strings();
+        strings.add("Путь/к/файлу");
+        Path file = directory.resolve("corpus");
+        IndexedCorpus corpus = arenaAnalyze.index(stringsToInputs(strings), file);
+        IndexedCorpus opened = arenaAnalyze.openIndex(file);
+
+        assertThat(corpus.inputs()).extracting(Input::string).containsExactlyElementsOf(strings);
+
+        for ( String pattern : List.of("jvsrc", "scptr", "tolknbook", "devprojects", "javasrc", "путьфайл") ) {
+            List<Output> expected = analyze.processStrings(pattern, strings);
+            assertSameOutputs(expected, arenaAnalyze.processCorpus(pattern, corpus));
+            assertSameOutputs(expected, arenaAnalyze.processCorpus(pattern, opened));
+            assertSameOutputs(expected, arenaAnalyze.newSession(corpus).process(pattern));
+            assertSameOutputs(
+                    analyze.processStrings(pattern, strings, 10),
+                    arenaAnalyze.processCorpus(pattern, corpus, 10));
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package diarsid.sceptre.impl;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import diarsid.sceptre.api.Analyze;
+import diarsid.sceptre.api.CorpusStorage;
+import diarsid.sceptre.api.model.IndexedCorpus;
+import diarsid.sceptre.api.model.Input;
+
+import static java.lang.String.format;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.fail;
+
+import static diarsid.sceptre.api.WeightEstimate.TOO_BAD;
+import static diarsid.sceptre.impl.AnalyzeImpl.stringsToInputs;
+import static diarsid.sceptre.impl.AnalyzeParallelTest.assertSameOutputs;
+import static diarsid.sceptre.impl.AnalyzeParallelTest.generateStrings;
+
+public class MissingPatternCharsTest {
+
+    private static final String[] PATTERNS = {
+            "id", "en", "pr", "ja", "dev", "eng", "src", "jsrc", "books", "mvnbld", "sceptre", "dsrcmain",
+            "progguide", "photosjazz", "projsceptre", "intellijidea", "javascrptnode", "tolknbookrings"};
+
+    /*
+     * Accented chars share bits of chars mask with ASCII chars: 'ï' with 'o', 'å' with 'e', 'á' with 'a',
+     * so that chars mask reports replaced chars as present.
+     */
+    private static String accented(String string) {
+        return string
+                .replace('o', 'ï')
+                .replace('e', 'å')
+                .replace('a', 'á');
+    }
+
+    private static List<String> patterns() {
+        List<String> patterns = new ArrayList<>();
+        for ( String pattern : PATTERNS ) {
+            patterns.add(pattern);
+            patterns.add(accented(pattern));
+        }
+        return patterns;
+    }
+
+    private static List<String> strings() {
+        List<String> strings = new ArrayList<>(generateStrings(3000));
+        strings.add("diarsid");
+        strings.add("engines");
+        strings.add("java");
+        strings.add("Tolkien/Lord of the Rings/Books");
+        strings.add("dev/projects/Sceptre/src/main/java");
+
+        List<String> accented = new ArrayList<>();
+        for ( int i = 0; i < strings.size(); i = i + 5 ) {
+            accented.add(accented(strings.get(i)));
+        }
+        strings.addAll(accented);
+
+        return strings;
+    }
+
+    @Test
+    public void test_nonAsciiPatternChars_countedOnVariant() {
+        PreparedPatternImpl pattern = new PreparedPatternImpl("bïïks");
+        InputIndexable input = new Input("books/library");
+
+        assertThat(pattern.isMissedTooMuchIn(input.charsMaskLow(), input.charsMaskHigh())).isFalse();
+        assertThat(pattern.isMissedTooMuchIn(input)).isTrue();
+        assertThat(pattern.isMissedTooMuchIn(new Input("bïïks/library"))).isFalse();
+    }
+
+    @Test
+    public void test_prefilter_skipsOnlyTooBadVariants() {
+        Analyze analyze = Analyze.Builder.newInstance().build();
+        List<String> strings = strings();
+
+        int skippedOnVariant = 0;
+        PreparedPatternImpl pattern;
+        InputIndexable input;
+        for ( String patternString : patterns() ) {
+            pattern = new PreparedPatternImpl(patternString);
+            for ( String string : strings ) {
+                input = new Input(string);
+                if ( pattern.isMissedTooMuchIn(input) ) {
+                    if ( analyze.process(pattern, string) != TOO_BAD ) {
+                        fail(format("Prefilter skips variant '%s' accepted by analyze", string));
+                    }
+                    if ( ! pattern.isMissedTooMuchIn(input.charsMaskLow(), input.charsMaskHigh()) ) {
+                        skippedOnVariant++;
+                    }
+                }
+            }
+        }
+
+        assertThat(skippedOnVariant).isPositive();
+    }
+
+    @Test
+    public void test_corpus_sameOutputsAsStrings() {
+        List<String> strings = strings();
+        List<Input> inputs = stringsToInputs(strings);
+
+        for ( CorpusStorage storage : CorpusStorage.values() ) {
+            Analyze analyze = Analyze.Builder
+                    .newInstance()
+                    .withCorpusStorage(storage)
+                    .build();
+            IndexedCorpus corpus = analyze.index(inputs);
+
+            for ( String pattern : patterns() ) {
+                assertSameOutputs(
+                        analyze.processStrings(pattern, strings),
+                        analyze.processCorpus(analyze.prepare(pattern), corpus));
+            }
+        }
+    }
+}
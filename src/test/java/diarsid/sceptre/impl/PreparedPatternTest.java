@@ -0,0 +1,47 @@
+package diarsid.sceptre.impl;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import diarsid.sceptre.api.Analyze;
+import diarsid.sceptre.api.model.Input;
+import diarsid.sceptre.api.model.Output;
+import diarsid.sceptre.api.model.PreparedPattern;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import static diarsid.sceptre.impl.AnalyzeImpl.stringsToInputs;
+
+public class PreparedPatternTest {
+
+    private final Analyze analyze = Analyze.Builder.newInstance().build();
+
+    @Test
+    public void test_charsUniqueness() {
+        PreparedPatternImpl pattern = new PreparedPatternImpl("SceptRe");
+
+        assertThat(pattern.string()).isEqualTo("sceptre");
+        assertThat(pattern.charsUniqueness).containsExactly(true, true, false, true, true, true, false);
+        assertThat(pattern.canProceedWith(Step.STEP_3)).isTrue();
+        assertThat(new PreparedPatternImpl("abcd").canProceedWith(Step.STEP_3)).isFalse();
+    }
+
+    @Test
+    public void test_preparedPatternGivesSameOutputs() {
+        List<String> strings = AnalyzeParallelTest.generateStrings(1000);
+        List<Input> inputs = stringsToInputs(strings);
+        PreparedPattern pattern = analyze.prepare("jvsrc");
+
+        List<Output> expected = analyze.processStrings("jvsrc", strings);
+        List<Output> actual = analyze.processInputs(pattern, inputs);
+
+        assertThat(actual).hasSameSizeAs(expected);
+        for ( int i = 0; i < expected.size(); i++ ) {
+            assertThat(actual.get(i).input().string()).isEqualTo(expected.get(i).input().string());
+            assertThat(actual.get(i).weight()).isEqualTo(expected.get(i).weight());
+        }
+
+        assertThat(analyze.process(pattern, strings.get(0))).isEqualTo(analyze.process("jvsrc", strings.get(0)));
+    }
+}
@@ -0,0 +1,143 @@
+package diarsid.sceptre.impl;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import diarsid.sceptre.api.Analyze;
+import diarsid.sceptre.api.model.IndexedCorpus;
+import diarsid.sceptre.api.model.Input;
+import diarsid.sceptre.api.model.Output;
+
+import static java.util.stream.Collectors.toList;
+
+import static diarsid.sceptre.impl.AnalyzeParallelTest.assertSameOutputs;
+import static diarsid.sceptre.impl.AnalyzeParallelTest.generateStrings;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class ProcessManyTest {
+
+    private static final List<String> PATTERNS = List.of("scptr", "jvsrc", "tolknbook", "srcjv");
+
+    private static ExecutorService executor;
+    private static Analyze sequentialAnalyze;
+    private static Analyze parallelAnalyze;
+    private static List<Input> inputs;
+
+    @BeforeAll
+    public static void setUpClass() {
+        executor = Executors.newFixedThreadPool(4);
+
+        sequentialAnalyze = Analyze.Builder
+                .newInstance()
+                .build();
+
+        parallelAnalyze = Analyze.Builder
+                .newInstance()
+                .withParallelism(4)
+                .withExecutor(executor)
+                .build();
+
+        inputs = generateStrings(3000)
+                .stream()
+                .map(Input::new)
+                .collect(toList());
+    }
+
+    @AfterAll
+    public static void tearDownClass() {
+        executor.shutdown();
+    }
+
+    private static void assertSameAsProcessedOneByOne(List<List<Output>> outputsOfPatterns) {
+        assertThat(outputsOfPatterns).hasSize(PATTERNS.size());
+        for ( int i = 0; i < PATTERNS.size(); i++ ) {
+            List<Output> expected = sequentialAnalyze.processInputs(PATTERNS.get(i), inputs);
+            assertThat(expected).isNotEmpty();
+            assertSameOutputs(expected, outputsOfPatterns.get(i));
+        }
+    }
+
+    @Test
+    public void test_processMany_sameAsProcessedOneByOne() {
+        assertSameAsProcessedOneByOne(sequentialAnalyze.processMany(PATTERNS, inputs));
+    }
+
+    @Test
+    public void test_processMany_parallel_sameAsProcessedOneByOne() {
+        assertSameAsProcessedOneByOne(parallelAnalyze.processMany(PATTERNS, inputs));
+    }
+
+    @Test
+    public void test_processMany_corpus_sameAsProcessedOneByOne() {
+        IndexedCorpus corpus = sequentialAnalyze.index(inputs);
+        assertSameAsProcessedOneByOne(sequentialAnalyze.processMany(PATTERNS, corpus));
+    }
+
+    @Test
+    public void test_processManyBestOf_bestWeightOfEveryInput() {
+        Map<Input, Float> bestWeights = new HashMap<>();
+        for ( String pattern : PATTERNS ) {
+            for ( Output output : sequentialAnalyze.processInputs(pattern, inputs) ) {
+                bestWeights.merge(output.input(), output.weight(), Math::min);
+            }
+        }
+
+        List<Output> bestOf = sequentialAnalyze.processManyBestOf(PATTERNS, inputs);
+        List<Output> parallelBestOf = parallelAnalyze.processManyBestOf(PATTERNS, inputs);
+
+        assertThat(bestOf).hasSize(bestWeights.size());
+        for ( int i = 0; i < bestOf.size(); i++ ) {
+            Output output = bestOf.get(i);
+            assertThat(output.weight()).isEqualTo(bestWeights.get(output.input()));
+            assertThat(output.index()).isEqualTo(i);
+            if ( i > 0 ) {
+                assertThat(output.weight()).isGreaterThanOrEqualTo(bestOf.get(i - 1).weight());
+            }
+        }
+
+        assertSameOutputs(bestOf, parallelBestOf);
+    }
+
+    @Test
+    public void test_processManyBestOf_reusedReorderedInputs_everyInputOnce() {
+        sequentialAnalyze.processInputs(PATTERNS.get(0), inputs);
+
+        List<Input> reused = new ArrayList<>();
+        reused.add(inputs.get(0));
+        for ( int i = inputs.size() - 1; i > 0; i = i - 7 ) {
+            reused.add(inputs.get(i));
+        }
+
+        Map<Input, Float> bestWeights = new HashMap<>();
+        for ( String pattern : PATTERNS ) {
+            for ( Output output : sequentialAnalyze.processInputs(pattern, reused) ) {
+                bestWeights.merge(output.input(), output.weight(), Math::min);
+            }
+        }
+        assertThat(bestWeights).isNotEmpty();
+
+        for ( Analyze analyze : List.of(sequentialAnalyze, parallelAnalyze) ) {
+            List<Output> bestOf = analyze.processManyBestOf(PATTERNS, reused);
+
+            assertThat(bestOf).hasSize(bestWeights.size());
+            for ( Output output : bestOf ) {
+                assertThat(output.weight()).isEqualTo(bestWeights.get(output.input()));
+            }
+        }
+    }
+
+    @Test
+    public void test_processMany_emptyPatterns() {
+        assertThatThrownBy(() -> sequentialAnalyze.processMany(List.of(), inputs))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
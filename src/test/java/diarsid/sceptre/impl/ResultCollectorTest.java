@@ -0,0 +1,137 @@
+package diarsid.sceptre.impl;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+import diarsid.sceptre.api.Analyze;
+import diarsid.sceptre.api.CorpusStorage;
+import diarsid.sceptre.api.model.IndexedCorpus;
+import diarsid.sceptre.api.model.Input;
+import diarsid.sceptre.api.model.Output;
+import diarsid.sceptre.api.model.Word;
+
+import static java.util.List.of;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import static diarsid.sceptre.api.model.Output.AdditionalData.WORDS;
+import static diarsid.sceptre.impl.AnalyzeImpl.stringsToInputs;
+import static diarsid.sceptre.impl.AnalyzeParallelTest.generateStrings;
+
+public class ResultCollectorTest {
+
+    private static final String[] PATTERNS = {"dev", "jsrc", "books", "sceptre", "projsceptre", "tolknbookrings"};
+
+    private static List<String> strings() {
+        List<String> strings = new ArrayList<>(generateStrings(2000));
+        strings.add("dev/projects/Sceptre/src/main/java");
+        strings.add("Tolkien/Lord of the Rings/Books");
+        return strings;
+    }
+
+    private static Map<Integer, Float> weightsOf(List<Output> outputs) {
+        Map<Integer, Float> weights = new HashMap<>();
+        for ( Output output : outputs ) {
+            weights.put(((Input) output.input()).index(), output.weight());
+        }
+        return weights;
+    }
+
+    private static void assertCollectedAsOutputs(Map<Integer, Float> collected, List<Output> outputs) {
+        assertThat(outputs).isNotEmpty();
+        assertThat(collected).isEqualTo(weightsOf(outputs));
+    }
+
+    @Test
+    public void test_inputs_collectedAsOutputs() {
+        Analyze analyze = Analyze.Builder.newInstance().build();
+        List<Input> inputs = stringsToInputs(strings());
+
+        for ( String patternString : PATTERNS ) {
+            PreparedPatternImpl pattern = new PreparedPatternImpl(patternString);
+            Map<Integer, Float> collected = new HashMap<>();
+
+            analyze.processInputs(pattern, inputs, collected::put);
+
+            assertCollectedAsOutputs(collected, analyze.processInputs(pattern, inputs));
+        }
+    }
+
+    @Test
+    public void test_corpus_collectedAsOutputs() {
+        List<Input> inputs = stringsToInputs(strings());
+
+        for ( CorpusStorage storage : CorpusStorage.values() ) {
+            Analyze analyze = Analyze.Builder
+                    .newInstance()
+                    .withCorpusStorage(storage)
+                    .build();
+            IndexedCorpus corpus = analyze.index(inputs);
+
+            for ( String patternString : PATTERNS ) {
+                PreparedPatternImpl pattern = new PreparedPatternImpl(patternString);
+                Map<Integer, Float> collected = new HashMap<>();
+
+                analyze.processCorpus(pattern, corpus, collected::put);
+
+                assertCollectedAsOutputs(collected, analyze.processCorpus(pattern, corpus));
+            }
+        }
+    }
+
+    @Test
+    public void test_reusedReorderedInputs_collectedByPosition() {
+        Analyze analyze = Analyze.Builder.newInstance().build();
+        List<Input> inputs = stringsToInputs(strings());
+        analyze.processInputs("projsceptre", inputs);
+
+        List<Input> reused = new ArrayList<>();
+        reused.add(inputs.get(0));
+        for ( int i = inputs.size() - 1; i > 0; i = i - 3 ) {
+            reused.add(inputs.get(i));
+        }
+
+        for ( String patternString : PATTERNS ) {
+            PreparedPatternImpl pattern = new PreparedPatternImpl(patternString);
+            Map<Input, Float> expected = new HashMap<>();
+            for ( Output output : analyze.processInputs(pattern, reused) ) {
+                expected.put((Input) output.input(), output.weight());
+            }
+
+            Map<Input, Float> collected = new HashMap<>();
+            analyze.processInputs(pattern, reused, (position, weight) -> {
+                assertThat(collected.put(reused.get(position), weight)).isNull();
+            });
+
+            assertThat(expected).isNotEmpty();
+            assertThat(collected).isEqualTo(expected);
+        }
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void test_additionalDataOf_sameAsInOutput() {
+        Analyze analyze = Analyze.Builder
+                .newInstance()
+                .withAdditionalDataInOutput(WORDS)
+                .build();
+        List<Input> inputs = stringsToInputs(strings());
+        PreparedPatternImpl pattern = new PreparedPatternImpl("projsceptre");
+
+        List<Output> outputs = analyze.processInputs(pattern, inputs);
+        assertThat(outputs).isNotEmpty();
+
+        for ( Output output : outputs.subList(0, Math.min(5, outputs.size())) ) {
+            Map<Output.AdditionalData, Object> additionalData = analyze.additionalDataOf(
+                    pattern, (Input) output.input(), of(WORDS));
+
+            assertThat((List<Word>) additionalData.get(WORDS))
+                    .usingRecursiveFieldByFieldElementComparator()
+                    .isEqualTo(output.additionalData().get(WORDS));
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package diarsid.sceptre.impl;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import diarsid.sceptre.api.Analyze;
+import diarsid.sceptre.api.impl.metrics.AnalyzeMetricsRecorder;
+import diarsid.sceptre.api.model.IndexedCorpus;
+import diarsid.sceptre.api.model.Output;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import static diarsid.sceptre.impl.AnalyzeImpl.stringsToInputs;
+import static diarsid.sceptre.impl.AnalyzeParallelTest.assertSameOutputs;
+
+public class SessionTest {
+
+    private final AnalyzeMetricsRecorder metrics = new AnalyzeMetricsRecorder();
+    private final Analyze analyze = Analyze.Builder.newInstance().withMetrics(this.metrics).build();
+    private final IndexedCorpus corpus = analyze.index(stringsToInputs(AnalyzeParallelTest.generateStrings(3000)));
+
+    @Test
+    public void test_sessionGivesSameOutputsAsCorpus() {
+        Analyze.Session session = analyze.newSession(corpus);
+
+        List<String> typed = List.of(
+                "sc", "scp", "scpt", "scptr", "scptrs", "scptrsrc",
+                "scpt", "scptjv", "tolk", "tolkn", "tolknbook", "tolknbookrings", "TOLKNBOOKringsJAZZ");
+
+        for ( String pattern : typed ) {
+            List<Output> expected = analyze.processCorpus(pattern, corpus);
+            List<Output> actual = session.process(pattern);
+            assertSameOutputs(expected, actual);
+        }
+    }
+
+    @Test
+    public void test_sessionGivesSameLimitedOutputsAsCorpus() {
+        Analyze.Session session = analyze.newSession(corpus);
+
+        for ( String pattern : List.of("jv", "jvs", "jvsr", "jvsrc", "jvsrcmain") ) {
+            List<Output> expected = analyze.processCorpus(pattern, corpus, 10);
+            List<Output> actual = session.process(pattern, 10);
+            assertSameOutputs(expected, actual);
+        }
+    }
+
+    @Test
+    public void test_sessionDoesNotWeightExcludedInputs() {
+        Analyze.Session session = analyze.newSession(corpus);
+
+        session.process("tolk");
+        session.process("tolkn");
+        metrics.reset();
+        session.process("tolknbook");
+
+        assertThat(metrics.snapshot().inputs()).isPositive().isLessThan(corpus.size() / 2);
+    }
+}
@@ -0,0 +1,37 @@
+package diarsid.sceptre.impl;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class StringsArenaTest {
+
+    @Test
+    public void test_latin1AndUtf16Strings() {
+        List<String> strings = List.of("Dev/JavaSrc", "", "Café/Ñandú", "Путь/к/файлу", "java 2021", "日本");
+
+        StringsArena arena = new StringsArena(strings.size(), strings::get);
+
+        assertThat(arena.size()).isEqualTo(strings.size());
+        for ( int i = 0; i < strings.size(); i++ ) {
+            assertThat(arena.stringOf(i)).isEqualTo(strings.get(i));
+        }
+
+        int latin1Bytes = "Dev/JavaSrc".length() + "Café/Ñandú".length() + "java 2021".length();
+        int utf16Bytes = ("Путь/к/файлу".length() + "日本".length()) * 2;
+        assertThat(arena.bytesLength()).isEqualTo(latin1Bytes + utf16Bytes);
+    }
+
+    @Test
+    public void test_loneSurrogates_storedAsIs() {
+        List<String> strings = List.of("\uD800", "dir/\uDC00file", "\uDBFF\uD800", "𝄞/\uD834");
+
+        StringsArena arena = new StringsArena(strings.size(), strings::get);
+
+        for ( int i = 0; i < strings.size(); i++ ) {
+            assertThat(arena.stringOf(i)).isEqualTo(strings.get(i));
+        }
+    }
+}
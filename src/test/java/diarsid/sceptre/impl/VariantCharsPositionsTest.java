@@ -0,0 +1,47 @@
+package diarsid.sceptre.impl;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class VariantCharsPositionsTest {
+
+    private final VariantCharsPositions charsPositions = new VariantCharsPositions();
+
+    private void assertSameAsIndexOf(String variant, String chars) {
+        charsPositions.set(variant);
+
+        char c;
+        int position;
+        for ( int i = 0; i < chars.length(); i++ ) {
+            c = chars.charAt(i);
+            position = charsPositions.firstOf(c);
+            assertThat(position).isEqualTo(variant.indexOf(c));
+            while ( position > -1 ) {
+                assertThat(charsPositions.nextAfter(position)).isEqualTo(variant.indexOf(c, position + 1));
+                position = charsPositions.nextAfter(position);
+            }
+        }
+    }
+
+    @Test
+    public void test_sameAsIndexOf() {
+        assertSameAsIndexOf("dev/projects/sceptre/src/main/java", "dejsxz/ ");
+        assertSameAsIndexOf("книги/толкиен/властелин колец", "кинx/ ");
+        assertSameAsIndexOf("", "ab");
+    }
+
+    @Test
+    public void test_reuseForAnotherVariant() {
+        for ( String variant : List.of("aaaa", "bbb_ççç", "abc", "a" + "b".repeat(200) + "a") ) {
+            assertSameAsIndexOf(variant, "abcç_");
+        }
+
+        charsPositions.clear();
+
+        assertThat(charsPositions.firstOf('a')).isEqualTo(-1);
+        assertThat(charsPositions.firstOf('ç')).isEqualTo(-1);
+    }
+}
@@ -0,0 +1,121 @@
+package diarsid.sceptre.impl;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import diarsid.sceptre.api.Analyze;
+import diarsid.sceptre.api.impl.cache.BoundedWeightCache;
+import diarsid.sceptre.api.impl.cache.WeightCacheStatistics;
+import diarsid.sceptre.api.model.Output;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import static diarsid.sceptre.api.impl.cache.BoundedWeightCache.Eviction.LRU;
+import static diarsid.sceptre.api.impl.cache.BoundedWeightCache.Eviction.W_TINY_LFU;
+import static diarsid.sceptre.impl.AnalyzeParallelTest.assertSameOutputs;
+
+public class WeightCacheTest {
+
+    @Test
+    public void test_cachedOutputsSameAsNotCached() {
+        BoundedWeightCache cache = new BoundedWeightCache(10_000, W_TINY_LFU);
+        Analyze analyze = Analyze.Builder.newInstance().build();
+        Analyze cachedAnalyze = Analyze.Builder.newInstance().withWeightCache(cache).build();
+        List<String> strings = AnalyzeParallelTest.generateStrings(2000);
+
+        for ( String pattern : List.of("jvsrc", "tolknbook", "jvsrc") ) {
+            List<Output> expected = analyze.processStrings(pattern, strings);
+            assertSameOutputs(expected, cachedAnalyze.processStrings(pattern, strings));
+            assertSameOutputs(expected, cachedAnalyze.processStrings(pattern, strings));
+            assertSameOutputs(
+                    analyze.processStrings(pattern, strings, 5),
+                    cachedAnalyze.processStrings(pattern, strings, 5));
+        }
+
+        assertThat(cachedAnalyze.process("jvsrc", strings.get(0))).isEqualTo(analyze.process("jvsrc", strings.get(0)));
+
+        WeightCacheStatistics statistics = cache.statistics();
+        assertThat(statistics.hits()).isGreaterThan(statistics.misses());
+        assertThat(statistics.evictions()).isZero();
+    }
+
+    @Test
+    public void test_otherStampIsMiss() {
+        BoundedWeightCache cache = new BoundedWeightCache(10, LRU);
+        cache.put(1, "jvsrc", "java/src", -50.5f);
+
+        assertThat(cache.weightOf(1, "jvsrc", "java/src")).isEqualTo(-50.5f);
+        assertThat(cache.weightOf(2, "jvsrc", "java/src")).isNaN();
+        assertThat(cache.weightOf(1, "jvsrc", "java/src/main")).isNaN();
+    }
+
+    @Test
+    public void test_lruSameAsReference() {
+        int capacity = 50;
+        BoundedWeightCache cache = new BoundedWeightCache(capacity, LRU);
+        Map<String, Float> reference = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Float> eldest) {
+                return this.size() > capacity;
+            }
+        };
+
+        Random random = new Random(42);
+        String variant;
+        float weight;
+        for ( int i = 0; i < 100_000; i++ ) {
+            variant = "variant" + random.nextInt(120);
+            weight = cache.weightOf(0, "pattern", variant);
+            Float expected = reference.get(variant);
+            if ( expected == null ) {
+                assertThat(weight).isNaN();
+                weight = random.nextFloat();
+                cache.put(0, "pattern", variant, weight);
+                reference.put(variant, weight);
+            }
+            else {
+                assertThat(weight).isEqualTo(expected);
+            }
+        }
+
+        assertThat(cache.size()).isEqualTo(capacity);
+        assertThat(cache.statistics().evictions()).isPositive();
+    }
+
+    @Test
+    public void test_tinyLfuKeepsFrequentEntriesOnScan() {
+        int capacity = 200;
+        int hotQty = 100;
+        BoundedWeightCache tinyLfu = new BoundedWeightCache(capacity, W_TINY_LFU);
+        BoundedWeightCache lru = new BoundedWeightCache(capacity, LRU);
+
+        for ( BoundedWeightCache cache : List.of(tinyLfu, lru) ) {
+            for ( int round = 0; round < 5; round++ ) {
+                for ( int i = 0; i < hotQty; i++ ) {
+                    if ( Float.isNaN(cache.weightOf(0, "pattern", "hot" + i)) ) {
+                        cache.put(0, "pattern", "hot" + i, i);
+                    }
+                }
+            }
+
+            for ( int i = 0; i < capacity * 5; i++ ) {
+                if ( Float.isNaN(cache.weightOf(0, "pattern", "cold" + i)) ) {
+                    cache.put(0, "pattern", "cold" + i, i);
+                }
+            }
+            assertThat(cache.size()).isLessThanOrEqualTo(capacity);
+            cache.resetStatistics();
+
+            for ( int i = 0; i < hotQty; i++ ) {
+                cache.weightOf(0, "pattern", "hot" + i);
+            }
+        }
+
+        assertThat(lru.statistics().hits()).isZero();
+        assertThat(tinyLfu.statistics().hits()).isGreaterThanOrEqualTo(hotQty * 9 / 10);
+    }
+}
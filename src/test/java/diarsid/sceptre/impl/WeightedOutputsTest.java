@@ -0,0 +1,83 @@
+package diarsid.sceptre.impl;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import diarsid.sceptre.api.model.Input;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class WeightedOutputsTest {
+
+    private static List<OutputImpl> outputsWithManyEqualWeights(int quantity) {
+        Random random = new Random(7);
+        List<OutputImpl> outputs = new ArrayList<>();
+        Input input;
+        for ( int i = 0; i < quantity; i++ ) {
+            input = new Input("input_" + i);
+            ((InputIndexable) input).setIndex(i);
+            outputs.add(new OutputImpl(input, -10f - random.nextInt(8) * 5f));
+        }
+        return outputs;
+    }
+
+    private static List<OutputImpl> collect(WeightedOutputs weightedOutputs, List<OutputImpl> outputs) {
+        OutputImpl output;
+        for ( int i = 0; i < outputs.size(); i++ ) {
+            output = outputs.get(i);
+            if ( weightedOutputs.isAcceptable(output.weight(), i) ) {
+                weightedOutputs.add(i, output);
+            }
+        }
+        return weightedOutputs.sorted();
+    }
+
+    @Test
+    public void test_bestAreSameAsHeadOfAll() {
+        List<OutputImpl> outputs = outputsWithManyEqualWeights(500);
+        List<OutputImpl> all = collect(WeightedOutputs.all(), outputs);
+
+        for ( int limit : new int[] {1, 2, 7, 20, 100, 499, 500, 1000} ) {
+            List<OutputImpl> best = collect(WeightedOutputs.best(limit), outputs);
+            assertThat(best).containsExactlyElementsOf(all.subList(0, Math.min(limit, all.size())));
+        }
+    }
+
+    @Test
+    public void test_bestMergedFromChunksAreSameAsHeadOfAll() {
+        List<OutputImpl> outputs = outputsWithManyEqualWeights(500);
+        List<OutputImpl> all = collect(WeightedOutputs.all(), outputs);
+
+        WeightedOutputs best = WeightedOutputs.best(20);
+        WeightedOutputs chunkBest;
+        for ( int chunkStart = 0; chunkStart < outputs.size(); chunkStart = chunkStart + 100 ) {
+            chunkBest = WeightedOutputs.best(20);
+            for ( int i = chunkStart; i < chunkStart + 100; i++ ) {
+                OutputImpl output = outputs.get(i);
+                if ( chunkBest.isAcceptable(output.weight(), i) ) {
+                    chunkBest.add(i, output);
+                }
+            }
+            best.addAll(chunkBest);
+        }
+
+        assertThat(best.sorted()).containsExactlyElementsOf(all.subList(0, 20));
+    }
+
+    @Test
+    public void test_reusedInputsIndexes_bestAreSameAsHeadOfAll() {
+        List<OutputImpl> outputs = outputsWithManyEqualWeights(500);
+        for ( OutputImpl output : outputs.subList(1, outputs.size()) ) {
+            ((InputIndexable) output.input()).setIndex(-1);
+        }
+        List<OutputImpl> all = collect(WeightedOutputs.all(), outputs);
+
+        for ( int limit : new int[] {1, 2, 7, 20, 100, 499, 500, 1000} ) {
+            List<OutputImpl> best = collect(WeightedOutputs.best(limit), outputs);
+            assertThat(best).containsExactlyElementsOf(all.subList(0, Math.min(limit, all.size())));
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package diarsid.sceptre.impl.collections.impl;
+
+import diarsid.sceptre.impl.collections.MapIntInt;
+
+public class MapIntIntHashImplTest extends MapIntIntTest {
+
+    @Override
+    MapIntInt newMap() {
+        return new MapIntIntHashImpl();
+    }
+}
@@ -2,6 +2,7 @@ package diarsid.sceptre.impl.collections.impl;
 
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Random;
 
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.Test;
@@ -14,7 +15,11 @@ import static diarsid.sceptre.impl.collections.impl.Constants.DEFAULT_ARRAY_SIZE
 
 public class MapIntIntTest {
 
-    MapIntInt map = new MapIntIntImpl();
+    MapIntInt map = newMap();
+
+    MapIntInt newMap() {
+        return new MapIntIntImpl();
+    }
 
     @AfterEach
     void tearDownCase() {
@@ -191,5 +196,77 @@ public class MapIntIntTest {
         assertThat(ints.containsValue(14));
     }
 
+    @Test
+    void testSameAsJavaMap() {
+        Random random = new Random(42);
+        Map<Integer, Integer> expected = new HashMap<>();
+
+        int key;
+        int value;
+        for ( int round = 0; round < 50; round++ ) {
+            for ( int i = 0; i < 200; i++ ) {
+                key = random.nextInt(80) - 10;
+                value = random.nextInt(1000);
+                switch ( random.nextInt(4) ) {
+                    case 0:
+                    case 1:
+                        map.put(key, value);
+                        expected.put(key, value);
+                        break;
+                    case 2:
+                        map.putOrIncrementValueIfKeyExists(key, value);
+                        expected.merge(key, value, (oldValue, newValue) -> oldValue + 1);
+                        break;
+                    default:
+                        map.remove(key);
+                        expected.remove(key);
+                }
+            }
+
+            assertThat(map.size()).isEqualTo(expected.size());
+            for ( key = -10; key < 70; key++ ) {
+                assertThat(map.containsKey(key)).isEqualTo(expected.containsKey(key));
+                assertThat(map.get(key)).isEqualTo(expected.getOrDefault(key, Integer.MIN_VALUE));
+            }
+
+            Map<Integer, Integer> actual = new HashMap<>();
+            MapIntInt.Entries entries = map.entries();
+            while ( entries.hasNext() ) {
+                entries.next();
+                actual.put(entries.currentKey(), entries.currentValue());
+            }
+            assertThat(actual).isEqualTo(expected);
+
+            map.clear();
+            expected.clear();
+            assertThat(map.isEmpty()).isTrue();
+        }
+    }
+
+    @Test
+    void testReuseAfterClear() {
+        for ( int key = 0; key < DEFAULT_ARRAY_SIZE * 3; key++ ) {
+            map.put(key, key * 10);
+        }
+
+        map.clear();
+
+        assertThat(map.size()).isEqualTo(0);
+        assertThat(map.containsKey(5)).isFalse();
+        assertThat(map.get(5)).isEqualTo(Integer.MIN_VALUE);
+        assertThat(map.entries().hasNext()).isFalse();
+        assertThat(map.keys().elements().hasNext()).isFalse();
+
+        map.put(5, 50);
+        map.put(3, 30);
+
+        assertThat(map.get(5)).isEqualTo(50);
+        assertThat(map.get(3)).isEqualTo(30);
+        assertThat(map.keys().contains(3)).isTrue();
+        assertThat(map.values().contains(50)).isTrue();
+        assertThat(map.values().notContains(150)).isTrue();
+        assertThat(map.size()).isEqualTo(2);
+    }
+
 
 }
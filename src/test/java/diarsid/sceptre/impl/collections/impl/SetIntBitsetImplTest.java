@@ -0,0 +1,21 @@
+package diarsid.sceptre.impl.collections.impl;
+
+import org.junit.jupiter.api.Test;
+
+import diarsid.sceptre.impl.collections.SetInt;
+
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class SetIntBitsetImplTest extends SetIntTest {
+
+    @Override
+    SetInt newSet() {
+        return new SetIntBitsetImpl();
+    }
+
+    @Test
+    void add_negative() {
+        assertThatThrownBy(() -> newSet().add(-1))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
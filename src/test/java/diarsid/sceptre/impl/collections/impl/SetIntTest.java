@@ -1,14 +1,35 @@
 package diarsid.sceptre.impl.collections.impl;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeSet;
+
 import org.junit.jupiter.api.Test;
 
+import diarsid.sceptre.impl.collections.Ints;
+
 import diarsid.sceptre.impl.collections.SetInt;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
 public class SetIntTest {
 
-    private SetInt set = new SetIntImpl();
+    private SetInt set = newSet();
+
+    SetInt newSet() {
+        return new SetIntImpl();
+    }
+
+    private static List<Integer> elementsOf(SetInt set) {
+        List<Integer> list = new ArrayList<>();
+        Ints.Elements elements = set.elements();
+        while ( elements.hasNext() ) {
+            elements.next();
+            list.add(elements.current());
+        }
+        return list;
+    }
 
     @Test
     void add_straight() {
@@ -291,4 +312,87 @@ public class SetIntTest {
 
         assertThat(x).isEqualTo(50);
     }
+
+    @Test
+    void sameAsTreeSet() {
+        Random random = new Random(42);
+        TreeSet<Integer> expected = new TreeSet<>();
+
+        int element;
+        for ( int round = 0; round < 30; round++ ) {
+            for ( int i = 0; i < 100; i++ ) {
+                element = random.nextInt(200);
+                if ( random.nextInt(3) == 0 ) {
+                    assertThat(set.remove(element)).isEqualTo(expected.remove(element));
+                }
+                else {
+                    set.add(element);
+                    expected.add(element);
+                }
+            }
+
+            assertThat(set.size()).isEqualTo(expected.size());
+            assertThat(elementsOf(set)).containsExactlyElementsOf(expected);
+            if ( expected.isEmpty() ) {
+                continue;
+            }
+
+            assertThat(set.first()).isEqualTo(expected.first());
+            assertThat(set.last()).isEqualTo(expected.last());
+
+            for ( element = 0; element < 210; element++ ) {
+                assertThat(set.contains(element)).isEqualTo(expected.contains(element));
+                assertThat(set.lesserThan(element)).isEqualTo(orNoValue(expected.lower(element)));
+                assertThat(set.lesserThanOrEqual(element)).isEqualTo(orNoValue(expected.floor(element)));
+                assertThat(set.greaterThan(element)).isEqualTo(orNoValue(expected.higher(element)));
+                assertThat(set.greaterThanOrEqual(element)).isEqualTo(orNoValue(expected.ceiling(element)));
+            }
+
+            set.clear();
+            expected.clear();
+            assertThat(set.isEmpty()).isTrue();
+            assertThat(set.elements().hasNext()).isFalse();
+        }
+    }
+
+    private static int orNoValue(Integer element) {
+        return element == null ? Integer.MIN_VALUE : element;
+    }
+
+    @Test
+    void addAll_mergesWithoutDuplicates() {
+        set.add(3);
+        set.add(10);
+        set.add(70);
+
+        SetInt other = newSet();
+        other.add(10);
+        other.add(1);
+        other.add(130);
+
+        set.addAll(other);
+
+        assertThat(set.size()).isEqualTo(5);
+        assertThat(elementsOf(set)).containsExactly(1, 3, 10, 70, 130);
+        assertThat(set.join(",")).isEqualTo("1,3,10,70,130");
+    }
+
+    @Test
+    void addAll_ofOtherImplementation() {
+        set.add(5);
+
+        SetInt sorted = new SetIntImpl();
+        sorted.add(7);
+        sorted.add(5);
+        sorted.add(2);
+
+        SetInt bitset = new SetIntBitsetImpl();
+        bitset.add(9);
+        bitset.add(2);
+
+        set.addAll(sorted);
+        set.addAll(bitset);
+
+        assertThat(elementsOf(set)).containsExactly(2, 5, 7, 9);
+    }
 }
@@ -0,0 +1,114 @@
+package diarsid.sceptre.impl.logs;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import diarsid.sceptre.api.LogSink;
+import diarsid.sceptre.impl.AnalyzeBuilder;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import static diarsid.sceptre.api.LogType.BASE;
+import static diarsid.sceptre.api.LogType.POSITIONS_CLUSTERS;
+import static diarsid.sceptre.api.LogType.POSITIONS_SEARCH;
+import static diarsid.sceptre.impl.logs.Logging.EVENTS_BUFFER_CAPACITY;
+
+public class LoggingTest {
+
+    private List<String> lines;
+    private Logging log;
+
+    @BeforeEach
+    public void setUp() {
+        this.lines = new ArrayList<>();
+
+        LogSink sink = new LogSink() {
+
+            @Override
+            public void begins() {
+                lines.add("<begins>");
+            }
+
+            @Override
+            public void accept(String line) {
+                lines.add(line);
+            }
+
+            @Override
+            public void finished() {
+                lines.add("<finished>");
+            }
+        };
+
+        AnalyzeBuilder builder = new AnalyzeBuilder();
+        builder.withLogEnabled(true);
+        builder.withLogSink(sink);
+        builder.withLogTypeEnabled(BASE, true);
+        builder.withLogTypeEnabled(POSITIONS_SEARCH, true);
+        builder.withLogTypeEnabled(POSITIONS_CLUSTERS, false);
+        builder.build();
+
+        this.log = new Logging(builder);
+    }
+
+    @Test
+    public void test_eventsAreFormattedWhenAnalyzeFinished() {
+        this.log.begins();
+        this.log.add(BASE, "char %s at %s", 'a', 1);
+        this.log.add(POSITIONS_SEARCH, "weight %s, bonus %s", 1.5f, 2f);
+
+        assertThat(this.lines).containsExactly("<begins>");
+
+        this.log.finished();
+
+        assertThat(this.lines).containsExactly("<begins>", "char a at 1", "weight 1.5, bonus 2.0", "<finished>");
+    }
+
+    @Test
+    public void test_eventsOutsideOfAnalyzeAreFormattedImmediately() {
+        this.log.add(BASE, "%s/%s/%s", 1, 2, 3);
+
+        assertThat(this.lines).containsExactly("1/2/3");
+    }
+
+    @Test
+    public void test_disabledTypeIsNotRecorded() {
+        this.log.begins();
+        this.log.add(POSITIONS_CLUSTERS, "cluster %s", 1);
+        this.log.finished();
+
+        assertThat(this.lines).containsExactly("<begins>", "<finished>");
+    }
+
+    @Test
+    public void test_eventsOverBufferCapacityAreKeptInOrder() {
+        int events = EVENTS_BUFFER_CAPACITY * 2 + 3;
+
+        this.log.begins();
+        for ( int i = 0; i < events; i++ ) {
+            this.log.add(BASE, "%s", i);
+        }
+        this.log.finished();
+
+        assertThat(this.lines).hasSize(events + 2);
+        for ( int i = 0; i < events; i++ ) {
+            assertThat(this.lines.get(i + 1)).isEqualTo(String.valueOf(i));
+        }
+    }
+
+    @Test
+    public void test_mutableArgumentIsRenderedWhenAdded() {
+        StringBuilder mutable = new StringBuilder("before");
+
+        this.log.begins();
+        this.log.add(BASE, "state: %s", mutable);
+        mutable.setLength(0);
+        mutable.append("after");
+        this.log.finished();
+
+        assertThat(this.lines).containsExactly("<begins>", "state: before", "<finished>");
+    }
+}
@@ -0,0 +1,149 @@
+package diarsid.sceptre.impl.weight;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import diarsid.sceptre.impl.AnalyzeBuilder;
+import diarsid.sceptre.impl.logs.Logging;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import static diarsid.sceptre.impl.weight.Weight.WEIGHT_UNINITIALIZED;
+import static diarsid.sceptre.impl.weight.WeightElement.CHAR_IS_ONE_CHAR_WORD;
+import static diarsid.sceptre.impl.weight.WeightElement.PERCENT_FOR_MISSED;
+import static diarsid.sceptre.impl.weight.WeightElement.PREVIOUS_CHAR_IS_SEPARATOR;
+import static diarsid.sceptre.impl.weight.WeightElement.WORD_QUALITY;
+
+public class WeightTest {
+
+    private static final Logging log;
+
+    static {
+        AnalyzeBuilder builder = new AnalyzeBuilder();
+        builder.withLogEnabled(false);
+        builder.build();
+        log = new Logging(builder);
+    }
+
+    private static List<String> observed(Weight weight) {
+        List<String> observed = new ArrayList<>();
+        weight.observeAll((i, weightValue, element) -> observed.add(i + ":" + element.name() + ":" + weightValue));
+        return observed;
+    }
+
+    @Test
+    public void test_countAndContains() {
+        Weight weight = new Weight(log, false);
+
+        weight.add(CHAR_IS_ONE_CHAR_WORD);
+        weight.add(CHAR_IS_ONE_CHAR_WORD);
+        weight.add(2.5f, WORD_QUALITY);
+        weight.add(0f, PREVIOUS_CHAR_IS_SEPARATOR);
+
+        assertThat(weight.countAdded(CHAR_IS_ONE_CHAR_WORD)).isEqualTo(2);
+        assertThat(weight.countAdded(WORD_QUALITY)).isEqualTo(1);
+        assertThat(weight.contains(PREVIOUS_CHAR_IS_SEPARATOR)).isFalse();
+        assertThat(weight.length()).isEqualTo(3);
+
+        weight.clear();
+
+        assertThat(weight.contains(CHAR_IS_ONE_CHAR_WORD)).isFalse();
+        assertThat(weight.sum()).isEqualTo(0f);
+        assertThat(weight.length()).isEqualTo(0);
+    }
+
+    @Test
+    public void test_applyPercent() {
+        Weight weight = new Weight(log, true);
+
+        weight.add(-10f, WORD_QUALITY);
+        weight.applyPercent(50, PERCENT_FOR_MISSED);
+
+        assertThat(weight.sum()).isEqualTo(-5f);
+        assertThat(observed(weight)).containsExactly(
+                "0:WORD_QUALITY:-10.0",
+                "1:PERCENT_FOR_MISSED:50.0");
+    }
+
+    @Test
+    public void test_exclude_firstOccurrenceOnly() {
+        Weight weight = new Weight(log, true);
+
+        weight.add(3f, WORD_QUALITY);
+        weight.add(CHAR_IS_ONE_CHAR_WORD);
+        weight.add(5f, WORD_QUALITY);
+
+        weight.exclude(WORD_QUALITY);
+
+        float expected = 3f + CHAR_IS_ONE_CHAR_WORD.predefinedWeight + 5f - 3f;
+        assertThat(weight.sum()).isEqualTo(expected);
+        assertThat(weight.contains(WORD_QUALITY)).isTrue();
+        assertThat(observed(weight)).containsExactly(
+                "0:WORD_QUALITY:" + WEIGHT_UNINITIALIZED,
+                "1:CHAR_IS_ONE_CHAR_WORD:" + CHAR_IS_ONE_CHAR_WORD.predefinedWeight,
+                "2:WORD_QUALITY:5.0");
+    }
+
+    @Test
+    public void test_excludeIfAllPresent() {
+        Weight weight = new Weight(log, false);
+
+        weight.add(CHAR_IS_ONE_CHAR_WORD);
+        weight.add(4f, WORD_QUALITY);
+        weight.excludeIfAllPresent(CHAR_IS_ONE_CHAR_WORD, PREVIOUS_CHAR_IS_SEPARATOR);
+
+        float sum = CHAR_IS_ONE_CHAR_WORD.predefinedWeight + 4f;
+        assertThat(weight.sum()).isEqualTo(sum);
+
+        weight.excludeIfAllPresent(CHAR_IS_ONE_CHAR_WORD, WORD_QUALITY);
+
+        assertThat(weight.sum()).isEqualTo(sum - CHAR_IS_ONE_CHAR_WORD.predefinedWeight - 4f);
+    }
+
+    @Test
+    public void test_addOther_replaysInOrder() {
+        Weight other = new Weight(log, true);
+        other.add(1.25f, WORD_QUALITY);
+        other.add(PREVIOUS_CHAR_IS_SEPARATOR);
+
+        Weight weight = new Weight(log, true);
+        weight.add(CHAR_IS_ONE_CHAR_WORD);
+        weight.add(other);
+
+        assertThat(weight.sum()).isEqualTo(CHAR_IS_ONE_CHAR_WORD.predefinedWeight + 1.25f + PREVIOUS_CHAR_IS_SEPARATOR.predefinedWeight);
+        assertThat(weight.countAdded(WORD_QUALITY)).isEqualTo(1);
+        assertThat(observed(weight)).containsExactly(
+                "0:CHAR_IS_ONE_CHAR_WORD:" + CHAR_IS_ONE_CHAR_WORD.predefinedWeight,
+                "1:WORD_QUALITY:1.25",
+                "2:PREVIOUS_CHAR_IS_SEPARATOR:" + PREVIOUS_CHAR_IS_SEPARATOR.predefinedWeight);
+    }
+
+    @Test
+    public void test_moreElementsThanInitialTrace() {
+        Weight weight = new Weight(log, true);
+
+        float sum = 0;
+        for ( int i = 0; i < 300; i++ ) {
+            weight.add(1f, WORD_QUALITY);
+            sum = sum + 1f;
+        }
+
+        assertThat(weight.sum()).isEqualTo(sum);
+        assertThat(weight.countAdded(WORD_QUALITY)).isEqualTo(300);
+        assertThat(observed(weight)).hasSize(300);
+    }
+
+    @Test
+    public void test_notTraced_cannotBeObservedOrAdded() {
+        Weight weight = new Weight(log, false);
+        weight.add(CHAR_IS_ONE_CHAR_WORD);
+
+        assertThatThrownBy(() -> weight.observeAll((i, weightValue, element) -> {}))
+                .isInstanceOf(IllegalStateException.class);
+        assertThatThrownBy(() -> new Weight(log, true).add(weight))
+                .isInstanceOf(IllegalStateException.class);
+    }
+}